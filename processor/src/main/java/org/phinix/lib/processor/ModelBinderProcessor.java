@@ -0,0 +1,313 @@
+package org.phinix.lib.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a reflection-free {@code ModelBinder} for every model class annotated with {@code @Table}
+ * or declaring {@code @PrimaryKey} fields.
+ * <p>
+ * The generated {@code <Model>ModelBinder} reads fields through their getters, writes them through their
+ * setters (or directly when the field is not private) and binds them with the typed JDBC methods.
+ * Columns follow the same rules as {@code ModelMetadata}: every declared field that is neither static
+ * nor transient, in declaration order. A model whose fields or no-args constructor cannot be reached
+ * without reflection gets no binder, only a warning, and keeps using the reflective path at runtime.
+ */
+@SupportedAnnotationTypes({ModelBinderProcessor.PRIMARY_KEY, ModelBinderProcessor.TABLE})
+public class ModelBinderProcessor extends AbstractProcessor {
+    static final String PRIMARY_KEY = "org.phinix.lib.common.util.PrimaryKey";
+    static final String TABLE = "org.phinix.lib.common.util.Table";
+    private static final String MODEL = "org.phinix.lib.common.util.Model";
+    private static final String SUFFIX = "ModelBinder"; // Must match ModelBinder.SUFFIX
+
+    /**
+     * A column of the model together with the source templates used to read and write it, whose first
+     * {@code %s} is the model variable and second, for the setter, the value.
+     */
+    private record Column(String name, TypeMirror type, boolean primaryKey, String getter, String setter) {
+        String get(String target) {
+            return String.format(getter, target);
+        }
+
+        String set(String target, String value) {
+            return String.format(setter, target, value);
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> models = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    models.add((TypeElement) element);
+                } else if (element.getKind() == ElementKind.FIELD) {
+                    models.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement model : models) {
+            generateBinder(model);
+        }
+        return false; // Let other processors see the annotations too
+    }
+
+    private void generateBinder(TypeElement model) {
+        Messager messager = processingEnv.getMessager();
+        TypeElement modelInterface = processingEnv.getElementUtils().getTypeElement(MODEL);
+        if (modelInterface == null || !processingEnv.getTypeUtils().isAssignable(model.asType(),
+                processingEnv.getTypeUtils().erasure(modelInterface.asType()))) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Not a Model, no binder generated.", model);
+            return;
+        }
+        if (model.getModifiers().contains(Modifier.PRIVATE) || model.getModifiers().contains(Modifier.ABSTRACT)
+                || !model.getTypeParameters().isEmpty() || model.getNestingKind().isNested() && !model.getModifiers().contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Model cannot be instantiated by a generated binder, "
+                    + "reflection will be used.", model);
+            return;
+        }
+        if (!hasAccessibleNoArgsConstructor(model)) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Model has no non-private no-args constructor, "
+                    + "reflection will be used.", model);
+            return;
+        }
+
+        List<Column> columns = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(model.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            Column column = column(model, field);
+            if (column == null) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "Field has no getter or setter and is private, "
+                        + "reflection will be used for " + model.getSimpleName() + ".", field);
+                return;
+            }
+            columns.add(column);
+        }
+
+        try {
+            writeBinder(model, columns);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Error writing model binder: " + e.getMessage(), model);
+        }
+    }
+
+    private static boolean hasAccessibleNoArgsConstructor(TypeElement model) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(model.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves how the generated code reads and writes the field, preferring its accessors.
+     *
+     * @return the column, or {@code null} if the field cannot be reached without reflection
+     */
+    private Column column(TypeElement model, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        TypeMirror type = field.asType();
+        boolean directAccess = !field.getModifiers().contains(Modifier.PRIVATE);
+
+        String getter = null;
+        String setter = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(model.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            boolean getterName = methodName.equals("get" + capitalized)
+                    || type.getKind() == TypeKind.BOOLEAN && methodName.equals("is" + capitalized);
+            if (getterName && method.getParameters().isEmpty()
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), type)) {
+                getter = "%s." + methodName + "()";
+            } else if (methodName.equals("set" + capitalized) && method.getParameters().size() == 1
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), type)) {
+                setter = "%s." + methodName + "(%s)";
+            }
+        }
+        if (getter == null && directAccess) {
+            getter = "%s." + name;
+        }
+        if (setter == null && directAccess && !field.getModifiers().contains(Modifier.FINAL)) {
+            setter = "%s." + name + " = %s";
+        }
+        if (getter == null || setter == null) {
+            return null;
+        }
+        return new Column(name, type, field.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(PRIMARY_KEY)), getter, setter);
+    }
+
+    private void writeBinder(TypeElement model, List<Column> columns) throws IOException {
+        Filer filer = processingEnv.getFiler();
+        PackageElement modelPackage = processingEnv.getElementUtils().getPackageOf(model);
+        String packageName = modelPackage.isUnnamed() ? "" : modelPackage.getQualifiedName().toString();
+        String modelName = model.getQualifiedName().toString();
+        String binderName = model.getSimpleName() + SUFFIX;
+        List<Column> keys = columns.stream().filter(Column::primaryKey).toList();
+        List<Column> nonKeys = columns.stream().filter(column -> !column.primaryKey()).toList();
+        List<Column> updatable = nonKeys.isEmpty() ? columns : nonKeys; // As ModelMetadata.getUpdatableColumns()
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import java.sql.PreparedStatement;\n")
+                .append("import java.sql.ResultSet;\n")
+                .append("import java.sql.SQLException;\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * Generated by {@code ").append(getClass().getName()).append("}, do not edit.\n */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(binderName)
+                .append(" implements org.phinix.lib.common.util.metadata.ModelBinder<").append(modelName).append("> {\n")
+                .append("    private static final List<String> COLUMN_NAMES = List.of(").append(names(columns)).append(");\n")
+                .append("    private static final List<String> PRIMARY_KEY_NAMES = List.of(").append(names(keys)).append(");\n\n");
+
+        source.append("    @Override\n    public Class<").append(modelName).append("> getModelClass() {\n")
+                .append("        return ").append(modelName).append(".class;\n    }\n\n");
+        source.append("    @Override\n    public List<String> getColumnNames() {\n        return COLUMN_NAMES;\n    }\n\n");
+        source.append("    @Override\n    public List<String> getPrimaryKeyNames() {\n        return PRIMARY_KEY_NAMES;\n    }\n\n");
+
+        appendBind(source, "bindColumns", modelName, columns);
+        appendMaskedBind(source, modelName, columns);
+        appendBind(source, "bindUpdatableColumns", modelName, updatable);
+        appendBind(source, "bindPrimaryKeys", modelName, keys);
+        appendValues(source, "getPrimaryKeyValues", modelName, keys);
+        appendValues(source, "getColumnValues", modelName, columns);
+
+        source.append("    @Override\n    public ").append(modelName)
+                .append(" mapRow(ResultSet resultSet, int firstColumn) throws SQLException {\n")
+                .append("        ").append(modelName).append(" model = new ").append(modelName).append("();\n");
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            source.append("        ").append(column.set("model", readExpression(column.type(), "firstColumn + " + i)))
+                    .append(";\n");
+        }
+        source.append("        return model;\n    }\n\n");
+
+        source.append("    @Override\n    public ").append(modelName).append(" newInstance() {\n")
+                .append("        return new ").append(modelName).append("();\n    }\n\n");
+
+        source.append("    @Override\n    public ").append(modelName).append(" copy(").append(modelName).append(" model) {\n")
+                .append("        ").append(modelName).append(" copy = new ").append(modelName).append("();\n");
+        for (Column column : columns) {
+            source.append("        ").append(column.set("copy", column.get("model"))).append(";\n");
+        }
+        source.append("        return copy;\n    }\n}\n");
+
+        try (Writer writer = filer.createSourceFile(packageName.isEmpty() ? binderName : packageName + "." + binderName, model)
+                .openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private void appendBind(StringBuilder source, String methodName, String modelName, List<Column> columns) {
+        source.append("    @Override\n    public int ").append(methodName).append("(").append(modelName)
+                .append(" model, PreparedStatement preparedStatement, int index) throws SQLException {\n");
+        for (Column column : columns) {
+            source.append("        preparedStatement.").append(bindExpression(column)).append(";\n");
+        }
+        source.append("        return index;\n    }\n\n");
+    }
+
+    /**
+     * Binds the columns selected by a mask; only the first 64 columns can be selected.
+     */
+    private void appendMaskedBind(StringBuilder source, String modelName, List<Column> columns) {
+        source.append("    @Override\n    public int bindColumns(").append(modelName)
+                .append(" model, PreparedStatement preparedStatement, int index, long columnMask) throws SQLException {\n");
+        for (int i = 0; i < Math.min(columns.size(), Long.SIZE); i++) {
+            source.append("        if ((columnMask & 1L << ").append(i).append(") != 0) {\n")
+                    .append("            preparedStatement.").append(bindExpression(columns.get(i))).append(";\n")
+                    .append("        }\n");
+        }
+        source.append("        return index;\n    }\n\n");
+    }
+
+    private static void appendValues(StringBuilder source, String methodName, String modelName, List<Column> columns) {
+        source.append("    @Override\n    public Object[] ").append(methodName).append("(").append(modelName).append(" model) {\n")
+                .append("        return new Object[]{");
+        for (int i = 0; i < columns.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append(columns.get(i).get("model"));
+        }
+        source.append("};\n    }\n\n");
+    }
+
+    private static String names(List<Column> columns) {
+        StringBuilder names = new StringBuilder();
+        for (Column column : columns) {
+            names.append(names.isEmpty() ? "" : ", ").append('"').append(column.name()).append('"');
+        }
+        return names.toString();
+    }
+
+    /**
+     * Chooses the typed setter matching the column type, {@code setObject} for other reference types.
+     */
+    private String bindExpression(Column column) {
+        String setter = switch (column.type().getKind()) {
+            case INT -> "setInt";
+            case LONG -> "setLong";
+            case DOUBLE -> "setDouble";
+            case FLOAT -> "setFloat";
+            case SHORT -> "setShort";
+            case BYTE -> "setByte";
+            case BOOLEAN -> "setBoolean";
+            default -> isString(column.type()) ? "setString" : "setObject";
+        };
+        return setter + "(index++, " + column.get("model") + ")";
+    }
+
+    /**
+     * Chooses the typed getter matching the column type so that SQL NULL stays null for reference types.
+     */
+    private String readExpression(TypeMirror type, String columnIndex) {
+        return switch (type.getKind()) {
+            case INT -> "resultSet.getInt(" + columnIndex + ")";
+            case LONG -> "resultSet.getLong(" + columnIndex + ")";
+            case DOUBLE -> "resultSet.getDouble(" + columnIndex + ")";
+            case FLOAT -> "resultSet.getFloat(" + columnIndex + ")";
+            case SHORT -> "resultSet.getShort(" + columnIndex + ")";
+            case BYTE -> "resultSet.getByte(" + columnIndex + ")";
+            case BOOLEAN -> "resultSet.getBoolean(" + columnIndex + ")";
+            default -> isString(type) ? "resultSet.getString(" + columnIndex + ")"
+                    : "resultSet.getObject(" + columnIndex + ", " + processingEnv.getTypeUtils().erasure(type) + ".class)";
+        };
+    }
+
+    private static boolean isString(TypeMirror type) {
+        return type.toString().equals("java.lang.String");
+    }
+}
@@ -0,0 +1,103 @@
+package org.phinix.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.PrimaryKey;
+import org.phinix.lib.common.util.factories.DMLStatementFactory;
+import org.phinix.lib.common.util.factories.StatementTemplateCache;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-call reflection with the cached accessors of {@link ModelMetadata} when binding a
+ * model to a statement and when extracting its primary-key values.
+ * <p>
+ * The statement is prepared once and only bound, never executed, so the numbers isolate the
+ * accessor cost from the database.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessorBenchmark {
+
+    @Param({"Bus", "Driver", "Place", "Routes"})
+    public String model;
+
+    private Model instance;
+    private ModelMetadata<Model> metadata;
+    private Connection connection;
+    private PreparedStatement preparedStatement;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws SQLException {
+        instance = BenchmarkDatabase.sample(model, 1);
+        metadata = (ModelMetadata<Model>) ModelMetadata.of(BenchmarkDatabase.modelClass(model));
+        connection = BenchmarkDatabase.get().getConnection();
+        preparedStatement = connection.prepareStatement(StatementTemplateCache.get(metadata.getModelClass(), StatementType.INSERT));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        preparedStatement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public PreparedStatement bindReflective() throws SQLException, IllegalAccessException {
+        int index = 1;
+        for (Field field : instance.getClass().getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                continue; // Not columns, as in ModelMetadata
+            }
+            field.setAccessible(true);
+            preparedStatement.setObject(index++, field.get(instance));
+        }
+        return preparedStatement;
+    }
+
+    @Benchmark
+    public PreparedStatement bindCached() throws SQLException {
+        metadata.bindColumns(instance, preparedStatement, 1);
+        return preparedStatement;
+    }
+
+    @Benchmark
+    public Map<String, Object> primaryKeysReflective() throws IllegalAccessException {
+        Map<String, Object> primaryKeys = new HashMap<>();
+        for (Field field : instance.getClass().getDeclaredFields()) {
+            if (field.isAnnotationPresent(PrimaryKey.class)) {
+                field.setAccessible(true);
+                primaryKeys.put(field.getName(), field.get(instance));
+            }
+        }
+        return primaryKeys;
+    }
+
+    @Benchmark
+    public Map<String, Object> primaryKeysCached() {
+        return DMLStatementFactory.getPrimaryKeyValues(instance);
+    }
+}
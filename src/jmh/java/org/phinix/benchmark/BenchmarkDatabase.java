@@ -0,0 +1,140 @@
+package org.phinix.benchmark;
+
+import org.phinix.example.model.Bus;
+import org.phinix.example.model.Driver;
+import org.phinix.example.model.Place;
+import org.phinix.example.model.Routes;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.service.MySQLConnection;
+import org.phinix.lib.service.PoolConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded, MySQL-compatible database shared by the benchmarks of a forked JVM.
+ * <p>
+ * H2 runs in MySQL mode in memory and is loaded from {@code database.sql}, so the DAOs and the
+ * statement factories run unchanged without a MySQL server. Absolute numbers are therefore
+ * only comparable between runs of these benchmarks, not with a real server.
+ */
+final class BenchmarkDatabase {
+    static final String URL = "jdbc:h2:mem:busdriver;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String MODELS = "Bus,Driver,Place,Routes";
+
+    // Strong reference, otherwise the level set below is lost when the logger is collected
+    private static final Logger libraryLogger = Logger.getLogger("org.phinix");
+
+    private static MySQLConnection database;
+
+    private BenchmarkDatabase() {}
+
+    /**
+     * Returns the shared database, creating the schema on first use.
+     *
+     * @return              the connection provider backed by the embedded database
+     * @throws SQLException if the schema cannot be loaded
+     */
+    static synchronized MySQLConnection get() throws SQLException {
+        if (database == null) {
+            // Per-call DAO messages are FINE and built lazily, so this only keeps a logging.properties that
+            // lowers the level, and the INFO messages of the pool and the connection, out of the measurements
+            libraryLogger.setLevel(Level.WARNING);
+            Logger.getLogger(MySQLConnection.class.getName()).setLevel(Level.WARNING);
+
+            database = MySQLConnection.getInstance(URL, "sa", "benchmark");
+            loadSchema(database);
+        }
+        return database;
+    }
+
+    /**
+     * Runs every statement of {@code database.sql}, skipping the MySQL-only ones H2 does not need.
+     */
+    private static void loadSchema(MySQLConnection database) throws SQLException {
+        String script;
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream("/database.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("database.sql is not on the benchmark classpath.");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading database.sql", e);
+        }
+
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : script.split(";")) {
+                sql = sql.trim();
+                if (sql.isEmpty() || sql.startsWith("CREATE DATABASE") || sql.startsWith("USE") || sql.equals("COMMIT")) {
+                    continue;
+                }
+                statement.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Empties every table, children first.
+     *
+     * @throws SQLException if a table cannot be emptied
+     */
+    static void clear() throws SQLException {
+        try (Connection connection = get().getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM routes");
+            statement.execute("DELETE FROM bus");
+            statement.execute("DELETE FROM driver");
+            statement.execute("DELETE FROM place");
+        }
+    }
+
+    /**
+     * Returns the model class of the given simple name.
+     *
+     * @param name one of {@value #MODELS}
+     * @return     the model class
+     */
+    static Class<? extends Model> modelClass(String name) {
+        return switch (name) {
+            case "Bus" -> Bus.class;
+            case "Driver" -> Driver.class;
+            case "Place" -> Place.class;
+            case "Routes" -> Routes.class;
+            default -> throw new IllegalArgumentException("Unknown model: " + name);
+        };
+    }
+
+    /**
+     * Builds a fully populated sample of the given model whose keys derive from {@code id}.
+     *
+     * @param name one of {@value #MODELS}
+     * @param id   the value the primary key(s) are derived from
+     * @return     a new model instance
+     */
+    static Model sample(String name, int id) {
+        return switch (name) {
+            case "Bus" -> bus(id);
+            case "Driver" -> driver(id);
+            case "Place" -> place(id);
+            case "Routes" -> new Routes(bus(id), driver(id), place(id), "Monday");
+            default -> throw new IllegalArgumentException("Unknown model: " + name);
+        };
+    }
+
+    static Bus bus(int id) {
+        return new Bus("B-" + id, "L" + id, "Articulated");
+    }
+
+    static Driver driver(int id) {
+        return new Driver(id, "Name" + id, "Surname" + id);
+    }
+
+    static Place place(int id) {
+        return new Place(id, "City" + id, 10_000 + id, "Site" + id);
+    }
+}
@@ -0,0 +1,77 @@
+package org.phinix.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phinix.example.dao.BusDrivePlaceDMLDao;
+import org.phinix.example.model.Driver;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts the same number of {@link Driver} rows one statement at a time, as a JDBC batch and as
+ * multi-row VALUES statements.
+ * <p>
+ * Each invocation inserts fresh keys; the table is emptied between iterations.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InsertBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private BusDrivePlaceDMLDao dao;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dao = new BusDrivePlaceDMLDao(BenchmarkDatabase.get());
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() throws SQLException {
+        BenchmarkDatabase.clear();
+        nextId = 0;
+    }
+
+    private List<Driver> nextDrivers() {
+        List<Driver> drivers = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            drivers.add(BenchmarkDatabase.driver(nextId++));
+        }
+        return drivers;
+    }
+
+    @Benchmark
+    public int single() {
+        int affected = 0;
+        for (Driver driver : nextDrivers()) {
+            affected += dao.insert(driver);
+        }
+        return affected;
+    }
+
+    @Benchmark
+    public int[] batched() {
+        return dao.insertAll(nextDrivers());
+    }
+
+    @Benchmark
+    public int[] multiRowValues() {
+        return dao.bulkInsert(nextDrivers());
+    }
+}
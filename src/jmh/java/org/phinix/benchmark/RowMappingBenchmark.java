@@ -0,0 +1,101 @@
+package org.phinix.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phinix.example.dao.BusDrivePlaceDMLDao;
+import org.phinix.example.dao.BusDrivePlaceQueryDao;
+import org.phinix.lib.common.dao.queries.RowMapper;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.QueryFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a whole table and turns each row into a model, comparing the cached typed mapping of
+ * {@code findAll} with a per-row reflective mapper and with the untyped string rows.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowMappingBenchmark {
+    private static final int ROWS = 1000;
+
+    @Param({"Bus", "Driver", "Place", "Routes"})
+    public String model;
+
+    private BusDrivePlaceQueryDao dao;
+    private Class<? extends Model> modelClass;
+    private String selectAll;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.clear();
+        BusDrivePlaceDMLDao dml = new BusDrivePlaceDMLDao(BenchmarkDatabase.get());
+        for (String name : BenchmarkDatabase.MODELS.split(",")) {
+            List<Model> rows = new ArrayList<>(ROWS);
+            for (int id = 0; id < ROWS; id++) {
+                rows.add(BenchmarkDatabase.sample(name, id));
+            }
+            dml.bulkInsert(rows);
+        }
+        dao = new BusDrivePlaceQueryDao(BenchmarkDatabase.get());
+        modelClass = BenchmarkDatabase.modelClass(model);
+        selectAll = QueryFactory.buildSelectAllQuery(modelClass);
+    }
+
+    @Benchmark
+    public List<? extends Model> cachedMapping() throws SQLException {
+        return dao.findAll(modelClass);
+    }
+
+    @Benchmark
+    public List<? extends Model> reflectiveMapping() throws SQLException {
+        return dao.queryForList(selectAll, reflectiveMapper(modelClass));
+    }
+
+    @Benchmark
+    public List<String> untypedRows() throws SQLException {
+        try (ResultSet resultSet = dao.executeQuery(selectAll, null)) {
+            return dao.getResultSetAsList(resultSet);
+        }
+    }
+
+    /**
+     * Maps rows the way a naive implementation would: looking fields up, making them accessible
+     * and setting them through boxed values for every row.
+     */
+    private static RowMapper<Model> reflectiveMapper(Class<? extends Model> modelClass) {
+        return resultSet -> {
+            try {
+                Model instance = modelClass.getDeclaredConstructor().newInstance();
+                int columnIndex = 1;
+                for (Field field : modelClass.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    field.set(instance, resultSet.getObject(columnIndex++)); // Unboxed by Field.set for primitive fields
+                }
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package org.phinix.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phinix.example.dao.BusDrivePlaceDMLDao;
+import org.phinix.example.dao.BusDrivePlaceQueryDao;
+import org.phinix.example.model.Bus;
+import org.phinix.example.model.Driver;
+import org.phinix.example.model.Place;
+import org.phinix.example.model.Routes;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks rows up by primary key, for the single-key {@link Driver} and the composite-key {@link Routes},
+ * both as typed models and through the untyped {@code executeQuery} path.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SelectByPrimaryKeyBenchmark {
+    private static final int ROWS = 1000;
+
+    private BusDrivePlaceQueryDao dao;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.clear();
+        BusDrivePlaceDMLDao dml = new BusDrivePlaceDMLDao(BenchmarkDatabase.get());
+        List<Bus> buses = new ArrayList<>(ROWS);
+        List<Driver> drivers = new ArrayList<>(ROWS);
+        List<Place> places = new ArrayList<>(ROWS);
+        List<Routes> routes = new ArrayList<>(ROWS);
+        for (int id = 0; id < ROWS; id++) {
+            buses.add(BenchmarkDatabase.bus(id));
+            drivers.add(BenchmarkDatabase.driver(id));
+            places.add(BenchmarkDatabase.place(id));
+            routes.add((Routes) BenchmarkDatabase.sample("Routes", id));
+        }
+        dml.bulkInsert(buses);
+        dml.bulkInsert(drivers);
+        dml.bulkInsert(places);
+        dml.bulkInsert(routes);
+        dao = new BusDrivePlaceQueryDao(BenchmarkDatabase.get());
+    }
+
+    private int nextId() {
+        int id = nextId;
+        nextId = (nextId + 1) % ROWS;
+        return id;
+    }
+
+    @Benchmark
+    public Optional<Driver> driverById() throws SQLException {
+        return dao.findById(Driver.class, nextId());
+    }
+
+    @Benchmark
+    public Optional<Routes> routeByCompositeKey() throws SQLException {
+        int id = nextId();
+        return dao.findById(Routes.class, "B-" + id, id, id);
+    }
+
+    @Benchmark
+    public List<String> driverByIdUntyped() throws SQLException {
+        try (ResultSet resultSet = dao.executeQuery("SELECT * FROM driver WHERE numDriver = ?", new Driver(nextId()))) {
+            return dao.getResultSetAsList(resultSet);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.phinix.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.DMLStatementFactory;
+import org.phinix.lib.common.util.factories.QueryFactory;
+import org.phinix.lib.common.util.factories.StatementTemplateCache;
+import org.phinix.lib.common.util.factories.StatementType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the SQL of each model from scratch with the statement factories and compares it with
+ * the lookup in {@link StatementTemplateCache}.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatementBuildingBenchmark {
+
+    @Param({"Bus", "Driver", "Place", "Routes"})
+    public String model;
+
+    private Class<? extends Model> modelClass;
+    private String tableName;
+
+    @Setup
+    public void setUp() {
+        modelClass = BenchmarkDatabase.modelClass(model);
+        tableName = model.toLowerCase();
+    }
+
+    @Benchmark
+    public String buildInsert() {
+        return DMLStatementFactory.buildInsertStatements(modelClass, tableName);
+    }
+
+    @Benchmark
+    public String buildUpdate() {
+        return DMLStatementFactory.buildUpdateStatements(modelClass, tableName);
+    }
+
+    @Benchmark
+    public String buildSelectByPrimaryKey() {
+        return QueryFactory.buildSelectByPrimaryKeyQuery(modelClass);
+    }
+
+    @Benchmark
+    public String cachedInsert() {
+        return StatementTemplateCache.get(modelClass, StatementType.INSERT);
+    }
+
+    @Benchmark
+    public String cachedUpdate() {
+        return StatementTemplateCache.get(modelClass, StatementType.UPDATE);
+    }
+
+    @Benchmark
+    public String cachedSelectByPrimaryKey() {
+        return StatementTemplateCache.get(modelClass, StatementType.SELECT_BY_PRIMARY_KEY);
+    }
+}
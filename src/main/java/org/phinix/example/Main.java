@@ -6,6 +6,7 @@ import org.phinix.example.model.Bus;
 import org.phinix.example.model.Driver;
 import org.phinix.example.model.Place;
 import org.phinix.example.model.Routes;
+import org.phinix.lib.common.cache.EntityCache;
 import org.phinix.lib.service.MySQLConnection;
 
 import java.util.Scanner;
@@ -16,6 +17,12 @@ public class Main {
     );
     private static final BusDrivePlaceDMLDao dmlDao = new BusDrivePlaceDMLDao(connection);
     private static final BusDrivePlaceQueryDao queryDao = new BusDrivePlaceQueryDao(connection);
+    // Drivers and buses hardly ever change, so their lookups by primary key are cached
+    private static final EntityCache entityCache = new EntityCache(1024, 10 * 60 * 1000, Driver.class, Bus.class);
+    static {
+        dmlDao.addListener(entityCache);
+        queryDao.setEntityCache(entityCache);
+    }
     public static void main(String[] args) {
         System.out.flush();
 
@@ -4,12 +4,9 @@ import org.phinix.example.model.Driver;
 import org.phinix.example.model.Routes;
 import org.phinix.lib.common.dao.queries.AbstractQueryDao;
 import org.phinix.lib.common.util.FieldInputManager;
-import org.phinix.lib.common.util.factories.QueryFactory;
 import org.phinix.lib.service.MySQLConnection;
-import org.phinix.lib.common.util.Model;
 
-
-import java.sql.ResultSet;
+import java.util.Optional;
 
 /**
  * The {@code BusDrivePlaceQueryDao} class provides methods for executing queries
@@ -18,7 +15,7 @@ import java.sql.ResultSet;
  * <p>
  * This class extends {@link AbstractQueryDao} and leverages its functionality
  * to execute SELECT queries dynamically based on primary key values provided
- * by the user.
+ * by the user, materializing the rows as typed models.
  */
 public class BusDrivePlaceQueryDao extends AbstractQueryDao {
 
@@ -33,27 +30,22 @@ public class BusDrivePlaceQueryDao extends AbstractQueryDao {
 
     /**
      * Prompts the user to input the primary key(s) for a {@link Driver} object,
-     * constructs a SELECT query, and executes it to fetch the corresponding
-     * driver data from the database.
+     * looks it up by primary key, and prints the corresponding driver.
      * <p>
      * The method uses {@link FieldInputManager} to dynamically populate a
      * {@code Driver} object with the primary key(s), and
-     * {@link QueryFactory#buildSelectByPrimaryKeyQuery(Class, Model)} to construct
-     * the query.
+     * {@link AbstractQueryDao#findById(Class, Object...)} to fetch it as a typed model.
      */
     public void selectDriverAskingNumDriver() {
         try {
             // Dynamically creates a Driver model and populates it with primary key values
             Driver driver = FieldInputManager.createModelWithPrimaryKeys(Driver.class);
 
-            // Generates a SELECT query based on the Driver's primary key
-            String query = QueryFactory.buildSelectByPrimaryKeyQuery(Driver.class, driver);
-
-            // Executes the query and fetches the results
-            ResultSet results = super.executeQuery(query, driver);
+            // Fetches the Driver matching the primary key
+            Optional<Driver> result = super.findById(Driver.class, driver.getNumDriver());
 
-            // Prints the result set to the console
-            super.printResultSet(results);
+            // Prints the driver to the console
+            System.out.println(result.map(Driver::toString).orElse("Driver doesn't found."));
         } catch (Exception ignored) {
             // Exception is ignored for simplicity; in production, proper handling is advised
         }
@@ -61,27 +53,23 @@ public class BusDrivePlaceQueryDao extends AbstractQueryDao {
 
     /**
      * Prompts the user to input the primary key(s) for a {@link Routes} object,
-     * constructs a SELECT query, and executes it to fetch the corresponding
-     * route data from the database.
+     * looks it up by primary key, and prints the corresponding route.
      * <p>
      * The method uses {@link FieldInputManager} to dynamically populate a
      * {@code Routes} object with the primary key(s), and
-     * {@link QueryFactory#buildSelectByPrimaryKeyQuery(Class, Model)} to construct
-     * the query.
+     * {@link AbstractQueryDao#findById(Class, Object...)} to fetch it as a typed model.
      */
     public void selectRouteAskingKeys() {
         try {
             // Dynamically creates a Routes model and populates it with primary key values
             Routes routes = FieldInputManager.createModelWithPrimaryKeys(Routes.class);
 
-            // Generates a SELECT query based on the Routes' primary key
-            String query = QueryFactory.buildSelectByPrimaryKeyQuery(Routes.class, routes);
-
-            // Executes the query and fetches the results
-            ResultSet results = super.executeQuery(query, routes);
+            // Fetches the Routes matching the composite primary key
+            Optional<Routes> result = super.findById(Routes.class,
+                    routes.getRegister(), routes.getNumDriver(), routes.getIdPlace());
 
-            // Prints the result set to the console
-            super.printResultSet(results);
+            // Prints the route to the console
+            System.out.println(result.map(Routes::toString).orElse("Route doesn't found."));
         } catch (Exception ignored) {
             // Exception is ignored for simplicity; in production, proper handling is advised
         }
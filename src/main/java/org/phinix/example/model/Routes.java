@@ -1,36 +1,47 @@
 package org.phinix.example.model;
 
+import org.phinix.lib.common.util.Lazy;
 import org.phinix.lib.common.util.Model;
 import org.phinix.lib.common.util.PrimaryKey;
+import org.phinix.lib.common.util.References;
 
 public class Routes implements Model {
     @PrimaryKey
+    @References(Bus.class)
     private String register;
     @PrimaryKey
+    @References(Driver.class)
     private int numDriver;
     @PrimaryKey
+    @References(Place.class)
     private int idPlace;
     private String dayWeek;
+    private transient Lazy<Bus> bus; // Set by a join fetch or a BatchLoader, null otherwise
+    private transient Lazy<Driver> driver;
+    private transient Lazy<Place> place;
 
     public Routes(Bus bus, Driver driver, Place place, String dayWeek) {
         this.register = bus.getRegister();
         this.numDriver = driver.getNumDriver();
         this.idPlace = place.getIdPlace();
         this.dayWeek = dayWeek;
+        this.bus = Lazy.of(bus);
+        this.driver = Lazy.of(driver);
+        this.place = Lazy.of(place);
     }
 
     public Routes() {}
 
-    public Bus getBus(String busRegister) {
-        return new Bus(busRegister);
+    public Bus getBus() {
+        return bus != null ? bus.get() : null;
     }
 
-    public Driver getDriver(int driverNumber) {
-        return new Driver(driverNumber);
+    public Driver getDriver() {
+        return driver != null ? driver.get() : null;
     }
 
-    public Place getPlace(int placeId) {
-        return new Place(placeId);
+    public Place getPlace() {
+        return place != null ? place.get() : null;
     }
 
     public String getRegister() {
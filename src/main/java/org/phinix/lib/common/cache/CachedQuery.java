@@ -0,0 +1,37 @@
+package org.phinix.lib.common.cache;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A SELECT query opted in to the {@link QueryResultCache}, together with the tables it reads.
+ * <p>
+ * The tables are the tags of every result cached for the query: a write to any of them through
+ * {@link org.phinix.lib.common.dao.dml.AbstractDMLDao} drops those results. They are declared rather
+ * than parsed from the SQL, so views, subqueries and joins are tagged exactly as the author intends.
+ *
+ * @param sql    the SQL text of the query
+ * @param tables the lowercase names of the tables the query reads
+ */
+public record CachedQuery(String sql, Set<String> tables) {
+
+    public CachedQuery {
+        if (tables.isEmpty()) {
+            throw new IllegalArgumentException("A cached query must declare the tables it reads.");
+        }
+        tables = tables.stream().map(table -> table.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Declares a cacheable query.
+     *
+     * @param sql    the SQL text of the query
+     * @param tables the names of the tables the query reads
+     * @return       the cacheable query
+     */
+    public static CachedQuery of(String sql, String... tables) {
+        return new CachedQuery(sql, Stream.of(tables).collect(Collectors.toSet()));
+    }
+}
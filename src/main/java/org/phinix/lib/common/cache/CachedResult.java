@@ -0,0 +1,146 @@
+package org.phinix.lib.common.cache;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact, immutable copy of a query result: its column labels and one {@code Object[]} per row,
+ * holding the values as returned by {@link ResultSet#getObject(int)}.
+ * <p>
+ * Results are materialized once and shared by every caller hitting the {@link QueryResultCache},
+ * so rows are exposed read-only.
+ */
+public final class CachedResult {
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+
+    private final List<String> columnLabels;
+    private final List<Object[]> rows;
+    private final long estimatedBytes;
+
+    private CachedResult(List<String> columnLabels, List<Object[]> rows) {
+        this.columnLabels = columnLabels;
+        this.rows = rows;
+        this.estimatedBytes = estimateBytes(columnLabels, rows);
+    }
+
+    /**
+     * Reads every remaining row of a ResultSet.
+     *
+     * @param resultSet     the result set to materialize
+     * @return              the materialized result
+     * @throws SQLException if a row cannot be read
+     */
+    public static CachedResult materialize(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        while (resultSet.next()) {
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = resultSet.getObject(i + 1);
+            }
+            rows.add(row);
+        }
+        return new CachedResult(List.of(labels), Collections.unmodifiableList(rows));
+    }
+
+    /**
+     * Returns one value of the result.
+     *
+     * @param row    the 0-based row index
+     * @param column the 0-based column index
+     * @return       the value, {@code null} for SQL NULL
+     */
+    public Object get(int row, int column) {
+        return rows.get(row)[column];
+    }
+
+    /**
+     * Returns one value of the result by column label, ignoring case.
+     *
+     * @param row                       the 0-based row index
+     * @param columnLabel               the label of the column
+     * @return                          the value, {@code null} for SQL NULL
+     * @throws IllegalArgumentException if no column has this label
+     */
+    public Object get(int row, String columnLabel) {
+        for (int i = 0; i < columnLabels.size(); i++) {
+            if (columnLabels.get(i).equalsIgnoreCase(columnLabel)) {
+                return get(row, i);
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + columnLabel);
+    }
+
+    /**
+     * @return a copy of the values of a row
+     */
+    public Object[] getRow(int row) {
+        return rows.get(row).clone();
+    }
+
+    public List<String> getColumnLabels() {
+        return columnLabels;
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * @return a rough estimate of the heap used by this result, used against the cache's memory budget
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private static long estimateBytes(List<String> columnLabels, List<Object[]> rows) {
+        long bytes = OBJECT_OVERHEAD * 3L;
+        for (String label : columnLabels) {
+            bytes += estimateBytes(label);
+        }
+        for (Object[] row : rows) {
+            bytes += OBJECT_OVERHEAD + REFERENCE_SIZE * (row.length + 1L);
+            for (Object value : row) {
+                bytes += estimateBytes(value);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the heap used by one value; shared immutable values are still counted once per use.
+     */
+    static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String string) {
+            return OBJECT_OVERHEAD * 2L + string.length(); // Latin-1 compact strings
+        } else if (value instanceof byte[] bytes) {
+            return OBJECT_OVERHEAD + bytes.length;
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return OBJECT_OVERHEAD + 8;
+        }
+        return OBJECT_OVERHEAD * 4L; // Dates, times and other small driver types
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("CachedResult{columns=").append(columnLabels).append(", rows=[");
+        for (int i = 0; i < rows.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(Arrays.toString(rows.get(i)));
+        }
+        return builder.append("]}").toString();
+    }
+}
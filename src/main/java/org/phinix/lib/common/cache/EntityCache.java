@@ -0,0 +1,300 @@
+package org.phinix.lib.common.cache;
+
+import org.phinix.lib.common.dao.dml.DMLListener;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of models keyed by model class and primary-key values, meant for reference data
+ * such as drivers and buses that is read far more often than it changes.
+ * <p>
+ * The cache holds at most {@code maxSize} entries and evicts the least recently used one when full.
+ * Entries older than {@code ttlMillis} are dropped when next looked up. Models are copied on the way in
+ * and on the way out, so callers can modify what they get without corrupting the cache.
+ * <p>
+ * The cache is plugged in front of a query DAO with
+ * {@link org.phinix.lib.common.dao.queries.AbstractQueryDao#setEntityCache(EntityCache)} and kept
+ * consistent by registering it on the DML DAOs with
+ * {@link org.phinix.lib.common.dao.dml.AbstractDMLDao#addListener(DMLListener)}: a successful single-row
+ * UPDATE refreshes the entry, any other write invalidates it.
+ */
+public class EntityCache implements DMLListener {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Set<Class<? extends Model>> cachedClasses; // Empty means every model class
+    private final LinkedHashMap<EntityKey, Entry> entries;
+    private long writeCount; // Guarded by entries, bumped by every write the cache hears of
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Key of a cached model: its class and its primary-key values in declaration order.
+     */
+    private record EntityKey(Class<?> modelClass, List<Object> primaryKey) {}
+
+    /**
+     * A cached copy of a model and the time it expires at.
+     */
+    private record Entry(Model model, long expiresAt) {}
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize                   the maximum number of cached models
+     * @param ttlMillis                 how long a model stays cached, or 0 to keep it until evicted
+     * @param cachedClasses             the model classes to cache, every class if none is given
+     * @throws IllegalArgumentException if the size is lower than 1 or the TTL is negative
+     */
+    @SafeVarargs
+    public EntityCache(int maxSize, long ttlMillis, Class<? extends Model>... cachedClasses) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be at least 1.");
+        }
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("TTL cannot be negative.");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.cachedClasses = Set.of(cachedClasses);
+        // Access order turns the map into an LRU list, the eldest entry being the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EntityKey, Entry> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param modelClass the model class to check
+     * @return           {@code true} if models of this class are cached
+     */
+    public boolean isCached(Class<? extends Model> modelClass) {
+        return cachedClasses.isEmpty() || cachedClasses.contains(modelClass);
+    }
+
+    /**
+     * Looks a model up by primary key.
+     *
+     * @param modelClass the model class to look up
+     * @param keys       the primary-key values, in the declaration order of the @PrimaryKey fields
+     * @param <T>        the type of the model, which must extend {@link Model}
+     * @return           a copy of the cached model, or {@code null} if it is not cached or expired
+     */
+    public <T extends Model> T get(Class<T> modelClass, Object... keys) {
+        EntityKey key = new EntityKey(modelClass, Arrays.asList(keys.clone()));
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && isExpired(entry)) {
+                entries.remove(key);
+                evictionCount.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return modelClass.cast(ModelMetadata.of(modelClass).copy(modelClass.cast(entry.model())));
+    }
+
+    /**
+     * Caches a copy of the model, replacing any entry with the same primary key.
+     *
+     * @param model the model to cache
+     * @param <T>   the type of the model, which must extend {@link Model}
+     */
+    public <T extends Model> void put(T model) {
+        if (!isCached(model.getClass())) {
+            return;
+        }
+        EntityKey key = keyOf(model);
+        Entry entry = newEntry(model);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Marks the start of a database lookup whose result will be cached with {@link #putLoaded(Model, long)}.
+     *
+     * @return a stamp identifying the state of the cache before the lookup
+     */
+    public long beginLoad() {
+        synchronized (entries) {
+            return writeCount;
+        }
+    }
+
+    /**
+     * Caches a model read from the database, unless a write was reported since the lookup started,
+     * in which case the model may already be stale and is dropped.
+     *
+     * @param model the model read from the database
+     * @param stamp the stamp returned by {@link #beginLoad()} before the lookup
+     * @param <T>   the type of the model, which must extend {@link Model}
+     */
+    public <T extends Model> void putLoaded(T model, long stamp) {
+        if (!isCached(model.getClass())) {
+            return;
+        }
+        EntityKey key = keyOf(model);
+        Entry entry = newEntry(model);
+        synchronized (entries) {
+            if (writeCount == stamp) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Removes the cached model with the same primary key as the given one.
+     *
+     * @param model the model to invalidate
+     */
+    public void invalidate(Model model) {
+        EntityKey key = keyOf(model);
+        synchronized (entries) {
+            writeCount++;
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes every cached model of a class.
+     *
+     * @param modelClass the model class to invalidate
+     */
+    public void invalidateAll(Class<? extends Model> modelClass) {
+        synchronized (entries) {
+            writeCount++;
+            entries.keySet().removeIf(key -> key.modelClass() == modelClass);
+        }
+    }
+
+    /**
+     * Removes every cached model.
+     */
+    public void clear() {
+        synchronized (entries) {
+            writeCount++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Refreshes the entry after a successful single-row UPDATE and invalidates it after any other write,
+     * since inserts may get generated keys or defaults and failed or unreported writes leave the row unknown.
+     */
+    @Override
+    public void onWrite(StatementType type, Model model, int rowsAffected) {
+        if (!isCached(model.getClass())) {
+            return;
+        }
+        EntityKey key = keyOf(model);
+        if (type == StatementType.UPDATE && rowsAffected == 1) {
+            Entry entry = newEntry(model);
+            synchronized (entries) {
+                writeCount++;
+                entries.put(key, entry);
+            }
+        } else {
+            synchronized (entries) {
+                writeCount++;
+                entries.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void onTableWrite(Class<? extends Model> modelClass) {
+        if (modelClass == null) {
+            clear();
+        } else if (isCached(modelClass)) {
+            invalidateAll(modelClass);
+        }
+    }
+
+    private <T extends Model> EntityKey keyOf(T model) {
+        ModelMetadata<T> metadata = ModelMetadata.of(model);
+        return new EntityKey(metadata.getModelClass(), Arrays.asList(metadata.getPrimaryKeyValues(model).values().toArray()));
+    }
+
+    private <T extends Model> Entry newEntry(T model) {
+        return new Entry(ModelMetadata.of(model).copy(model), ttlNanos == 0 ? Long.MAX_VALUE : System.nanoTime() + ttlNanos);
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.expiresAt() != Long.MAX_VALUE && System.nanoTime() - entry.expiresAt() >= 0;
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to go to the database
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of entries dropped because the cache was full or they expired
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the share of lookups answered from the cache, between 0 and 1
+     */
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long lookups = hits + missCount.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of cached models, expired ones included until they are looked up
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCache{" +
+                "size=" + getSize() +
+                ", maxSize=" + maxSize +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+}
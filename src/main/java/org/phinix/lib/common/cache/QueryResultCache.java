@@ -0,0 +1,254 @@
+package org.phinix.lib.common.cache;
+
+import org.phinix.lib.common.dao.dml.DMLListener;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of materialized query results keyed by SQL text and bound parameter values, meant for
+ * dashboard-style queries re-run far more often than their tables change.
+ * <p>
+ * Only queries declared as a {@link CachedQuery} and run through
+ * {@link org.phinix.lib.common.dao.queries.AbstractQueryDao#queryCached(CachedQuery, Object...)} are cached.
+ * Each result is tagged with the tables of its query; registering the cache on the DML DAOs with
+ * {@link org.phinix.lib.common.dao.dml.AbstractDMLDao#addListener(DMLListener)} drops every result
+ * depending on a table as soon as that table is written.
+ * <p>
+ * The cache is bounded by an estimate of the memory its results use rather than by their count, and
+ * evicts the least recently used results once over budget. A result larger than the whole budget is
+ * returned to the caller but not cached.
+ */
+public class QueryResultCache implements DMLListener {
+    private final long maxBytes;
+    private final LinkedHashMap<ResultKey, Entry> entries;
+    private long usedBytes;  // Guarded by entries
+    private long writeCount; // Guarded by entries, bumped by every write the cache hears of
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    /**
+     * Key of a cached result: the SQL text and the bound parameter values.
+     */
+    private record ResultKey(String sql, List<Object> parameters) {}
+
+    /**
+     * A cached result, the tables it depends on and its accounted size.
+     */
+    private record Entry(CachedResult result, Set<String> tables, long bytes) {}
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes                  the memory budget of the cached results, in bytes
+     * @throws IllegalArgumentException if the budget is lower than 1
+     */
+    public QueryResultCache(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Memory budget must be at least 1 byte.");
+        }
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // Access order, eldest is least recently used
+    }
+
+    /**
+     * Looks a result up.
+     *
+     * @param query      the cacheable query
+     * @param parameters the values bound to the query placeholders, in order
+     * @return           the cached result, or {@code null} if it is not cached
+     */
+    public CachedResult get(CachedQuery query, Object... parameters) {
+        ResultKey key = new ResultKey(query.sql(), Arrays.asList(parameters.clone()));
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.result();
+    }
+
+    /**
+     * Marks the start of a database query whose result will be cached with
+     * {@link #putLoaded(CachedQuery, Object[], CachedResult, long)}.
+     *
+     * @return a stamp identifying the state of the cache before the query
+     */
+    public long beginLoad() {
+        synchronized (entries) {
+            return writeCount;
+        }
+    }
+
+    /**
+     * Caches a result read from the database, unless a write was reported since the query started,
+     * in which case the result may already be stale and is dropped.
+     *
+     * @param query      the cacheable query
+     * @param parameters the values bound to the query placeholders, in order
+     * @param result     the materialized result
+     * @param stamp      the stamp returned by {@link #beginLoad()} before the query
+     */
+    public void putLoaded(CachedQuery query, Object[] parameters, CachedResult result, long stamp) {
+        ResultKey key = new ResultKey(query.sql(), Arrays.asList(parameters.clone()));
+        long bytes = result.getEstimatedBytes() + CachedResult.estimateBytes(query.sql())
+                + parameters.length * 8L + 64; // Key, entry and map node
+        if (bytes > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            if (writeCount != stamp) {
+                return;
+            }
+            Entry previous = entries.put(key, new Entry(result, query.tables(), bytes));
+            if (previous != null) {
+                usedBytes -= previous.bytes();
+            }
+            usedBytes += bytes;
+            // Evict least recently used results until back under budget
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (usedBytes > maxBytes && iterator.hasNext()) {
+                usedBytes -= iterator.next().bytes();
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result depending on a table.
+     *
+     * @param table the name of the table, case-insensitive
+     */
+    public void invalidateTable(String table) {
+        String tag = table.toLowerCase(Locale.ROOT);
+        synchronized (entries) {
+            writeCount++;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.tables().contains(tag)) {
+                    usedBytes -= entry.bytes();
+                    iterator.remove();
+                    invalidationCount.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public void clear() {
+        synchronized (entries) {
+            writeCount++;
+            invalidationCount.add(entries.size());
+            entries.clear();
+            usedBytes = 0;
+        }
+    }
+
+    @Override
+    public void onWrite(StatementType type, Model model, int rowsAffected) {
+        invalidateTable(ModelMetadata.of(model).getTableName());
+    }
+
+    /**
+     * Invalidates the table of the batch once, rather than once per row.
+     */
+    @Override
+    public void onBatchWrite(StatementType type, Collection<? extends Model> models) {
+        if (!models.isEmpty()) {
+            invalidateTable(ModelMetadata.of(models.iterator().next()).getTableName());
+        }
+    }
+
+    @Override
+    public void onTableWrite(Class<? extends Model> modelClass) {
+        if (modelClass == null) {
+            clear();
+        } else {
+            invalidateTable(ModelMetadata.of(modelClass).getTableName());
+        }
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to go to the database
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of results dropped to stay within the memory budget
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the number of results dropped because a table they depend on was written
+     */
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    /**
+     * @return the estimated memory used by the cached results, in bytes
+     */
+    public long getUsedBytes() {
+        synchronized (entries) {
+            return usedBytes;
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryResultCache{" +
+                "size=" + getSize() +
+                ", usedBytes=" + getUsedBytes() +
+                ", maxBytes=" + maxBytes +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                ", invalidations=" + getInvalidationCount() +
+                '}';
+    }
+}
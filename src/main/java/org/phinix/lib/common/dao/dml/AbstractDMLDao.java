@@ -1,13 +1,29 @@
 package org.phinix.lib.common.dao.dml;
 
+import org.phinix.lib.common.dao.queries.StatementBinder;
 import org.phinix.lib.common.util.Model;
 import org.phinix.lib.common.util.factories.DMLStatementFactory;
-import org.phinix.lib.service.MySQLConnection;
+import org.phinix.lib.common.util.factories.StatementTemplateCache;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.common.util.metadata.ColumnMetadata;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.metrics.DaoOperation;
+import org.phinix.lib.metrics.MetricsRegistry;
+import org.phinix.lib.metrics.SlowQueryLog;
+import org.phinix.lib.metrics.jfr.DaoEvents;
+import org.phinix.lib.service.ConnectionProvider;
 
-import java.lang.reflect.Field;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Map;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,25 +32,40 @@ import java.util.logging.Logger;
  * for performing Data Manipulation Language (DML) operations (insert, update, delete).
  * <p>
  * This abstract class facilitates the implementation of DML operations for model objects
- * in a MySQL database. It uses reflection to dynamically build SQL statements based on the model's fields.
+ * in a MySQL database. It builds SQL statements dynamically from the cached {@link ModelMetadata} of each model.
+ * Registered {@link DMLListener}s are notified after every write, which keeps caches such as the
+ * {@link org.phinix.lib.common.cache.EntityCache} consistent, and every call is recorded in a {@link MetricsRegistry}
+ * and checked by its {@link SlowQueryLog}. The connection borrow, prepare and execute phases emit
+ * flight recorder events through {@link DaoEvents}.
  */
 public abstract class AbstractDMLDao implements DMLDao {
     private static final Logger logger = Logger.getLogger(AbstractDMLDao.class.getName());
-    private final MySQLConnection mySQLConnection;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_MAX_ROWS_PER_STATEMENT = 4096;
+    private static final long DEFAULT_MAX_ALLOWED_PACKET = 4L * 1024 * 1024;
+    private final ConnectionProvider connectionProvider;
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile int maxRowsPerStatement = DEFAULT_MAX_ROWS_PER_STATEMENT;
+    private volatile long maxAllowedPacket = -1;
+    private final List<DMLListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile MetricsRegistry metricsRegistry = MetricsRegistry.global();
 
     /**
-     * Constructor to initialize the DAO with a MySQL connection instance.
+     * Constructor to initialize the DAO with a connection provider.
+     * <p>
+     * A connection is borrowed from the provider for every operation and given back
+     * as soon as the operation completes.
      *
-     * @param database the MySQL connection instance to be used for database operations
+     * @param database the connection provider to be used for database operations
      */
-    public AbstractDMLDao(MySQLConnection database) {
-        this.mySQLConnection = database;
+    public AbstractDMLDao(ConnectionProvider database) {
+        this.connectionProvider = database;
     }
 
     /**
      * Inserts a new model object into the database.
      * <p>
-     * This method generates an SQL INSERT statement using the model's fields, binds the field values
+     * This method uses the cached SQL INSERT statement of the model's class, binds the field values
      * to a PreparedStatement, and executes the insert operation on the database.
      *
      * @param model the model object to be inserted into the database
@@ -43,24 +74,31 @@ public abstract class AbstractDMLDao implements DMLDao {
      */
     @Override
     public <T extends Model> int insert(T model) {
-        // Get the table name based on the model's dynamic name
-        String tableName = model.getDynamicModelName();
+        // Get the table name from the model's metadata, the one its cached statement targets
+        String tableName = ModelMetadata.of(model).getTableName();
 
-        // Generate the SQL INSERT statement using the model and table name
-        String statement = DMLStatementFactory.buildInsertStatements(model, tableName);
-        logger.info("Generated Insert Statement: " + statement);
+        // Get the cached SQL INSERT statement of the model class
+        String statement = StatementTemplateCache.get(model.getClass(), StatementType.INSERT);
 
-        try (PreparedStatement preparedStatement = mySQLConnection.getDatabase().prepareStatement(statement)) {
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.INSERT, model.getClass());
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, DaoOperation.INSERT, model.getClass())) {
             // Bind the model's field values to the PreparedStatement
-            bindModelToPreparedStatement(model, preparedStatement);
+            bindStatement(StatementType.INSERT, model, preparedStatement);
 
             // Execute the insert operation and get the number of affected rows
-            int rowsAffected = preparedStatement.executeUpdate();
-            logger.info("Insert " + tableName + ": " + rowsAffected + " row(s) affected.");
+            int rowsAffected = DaoEvents.executeUpdate(preparedStatement, DaoOperation.INSERT, model.getClass());
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(StatementType.INSERT, model.getClass(), elapsed, rowsAffected);
+            traceStatement(connection, statement, StatementType.INSERT, model, rowsAffected, elapsed);
+            logger.fine(() -> "Insert " + tableName + ": " + rowsAffected + " row(s) affected.");
+            notifyWrite(StatementType.INSERT, model, rowsAffected);
             return rowsAffected;
 
-        } catch (SQLException | IllegalAccessException e) {
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(StatementType.INSERT, model.getClass(), System.nanoTime() - start);
             logger.log(Level.SEVERE, "Error inserting model: " + model.getClass().getSimpleName(), e);
+            notifyWrite(StatementType.INSERT, model, -1);
             return -1;
         }
     }
@@ -68,9 +106,10 @@ public abstract class AbstractDMLDao implements DMLDao {
     /**
      * Updates an existing model object in the database.
      * <p>
-     * This method generates an SQL UPDATE statement using the model's fields, binds the field values
+     * This method uses the cached SQL UPDATE statement of the model's class, binds the non-key field values
      * to a PreparedStatement, and executes the update operation. Primary key fields are also bound
-     * to the statement to identify the row to update.
+     * to the statement to identify the row to update. Use {@link #updateChanged(TrackedEntity)} to send
+     * only the columns that changed.
      *
      * @param model the model object to be updated in the database
      * @param <T>   the type of the model, which must extend {@link Model}
@@ -78,30 +117,141 @@ public abstract class AbstractDMLDao implements DMLDao {
      */
     @Override
     public <T extends Model> int update(T model) {
-        // Get the table name based on the model's dynamic name
-        String tableName = model.getDynamicModelName();
-
-        // Generate the SQL UPDATE statement using the model and table name
-        String statement = DMLStatementFactory.buildUpdateStatements(model, tableName);
-        logger.info("Generated Update Statement: " + statement);
+        // Get the table name from the model's metadata, the one its cached statement targets
+        String tableName = ModelMetadata.of(model).getTableName();
 
-        try (PreparedStatement preparedStatement = mySQLConnection.getDatabase().prepareStatement(statement)) {
-            // Bind the model's field values to the PreparedStatement
-            int index = bindModelToPreparedStatement(model, preparedStatement);
+        // Get the cached SQL UPDATE statement of the model class
+        String statement = StatementTemplateCache.get(model.getClass(), StatementType.UPDATE);
 
-            // Get the primary key values from the model and bind them to the statement
-            Map<String, Object> primaryKeys = DMLStatementFactory.getPrimaryKeyValues(model);
-            for (Object value : primaryKeys.values()) {
-                preparedStatement.setObject(index++, value); // Bind primary key values
-            }
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.UPDATE, model.getClass());
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, DaoOperation.UPDATE, model.getClass())) {
+            // Bind the model's field values and then its primary key values to the WHERE clause
+            bindStatement(StatementType.UPDATE, model, preparedStatement);
 
             // Execute the update operation and get the number of affected rows
-            int rowsAffected = preparedStatement.executeUpdate();
-            logger.info("Update " + tableName + ": " + rowsAffected + " row(s) affected.");
+            int rowsAffected = DaoEvents.executeUpdate(preparedStatement, DaoOperation.UPDATE, model.getClass());
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(StatementType.UPDATE, model.getClass(), elapsed, rowsAffected);
+            traceStatement(connection, statement, StatementType.UPDATE, model, rowsAffected, elapsed);
+            logger.fine(() -> "Update " + tableName + ": " + rowsAffected + " row(s) affected.");
+            notifyWrite(StatementType.UPDATE, model, rowsAffected);
+            return rowsAffected;
+
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(StatementType.UPDATE, model.getClass(), System.nanoTime() - start);
+            logger.log(Level.SEVERE, "Error updating model: " + model.getClass().getSimpleName(), e);
+            notifyWrite(StatementType.UPDATE, model, -1);
+            return -1;
+        }
+    }
+
+    /**
+     * Inserts a model object, or overwrites the non-key columns of the existing row with the same key.
+     * <p>
+     * This method uses the cached {@code INSERT ... ON DUPLICATE KEY UPDATE} statement of the model's class
+     * and binds every field value to it, so re-ingesting master data takes one statement per row instead
+     * of a lookup followed by an INSERT or an UPDATE.
+     *
+     * @param model the model object to be inserted or updated in the database
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      the number of rows affected: 1 for an insert, 2 for an update, 0 for an unchanged row
+     */
+    @Override
+    public <T extends Model> int upsert(T model) {
+        // Get the table name from the model's metadata, the one its cached statement targets
+        String tableName = ModelMetadata.of(model).getTableName();
+
+        // Get the cached SQL upsert statement of the model class
+        String statement = StatementTemplateCache.get(model.getClass(), StatementType.UPSERT);
+
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.UPSERT, model.getClass());
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, DaoOperation.UPSERT, model.getClass())) {
+            // Bind every field value, the update clause reuses them through VALUES()
+            bindStatement(StatementType.UPSERT, model, preparedStatement);
+
+            // Execute the upsert operation and get the number of affected rows
+            int rowsAffected = DaoEvents.executeUpdate(preparedStatement, DaoOperation.UPSERT, model.getClass());
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(StatementType.UPSERT, model.getClass(), elapsed, rowsAffected);
+            traceStatement(connection, statement, StatementType.UPSERT, model, rowsAffected, elapsed);
+            logger.fine(() -> "Upsert " + tableName + ": " + rowsAffected + " row(s) affected.");
+            notifyWrite(StatementType.UPSERT, model, rowsAffected);
+            return rowsAffected;
+
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(StatementType.UPSERT, model.getClass(), System.nanoTime() - start);
+            logger.log(Level.SEVERE, "Error upserting model: " + model.getClass().getSimpleName(), e);
+            notifyWrite(StatementType.UPSERT, model, -1);
+            return -1;
+        }
+    }
+
+    /**
+     * Starts tracking the changes made to a model, typically one just loaded from the database.
+     *
+     * @param model                     the model to track, whose current state is the snapshot
+     * @param <T>                       the type of the model, which must extend {@link Model}
+     * @return                          the tracked model, to be written with {@link #updateChanged(TrackedEntity)}
+     * @throws IllegalArgumentException if the model has more than 64 columns
+     */
+    public <T extends Model> TrackedEntity<T> track(T model) {
+        return new TrackedEntity<>(model);
+    }
+
+    /**
+     * Updates only the columns of a tracked model that changed since its snapshot.
+     * <p>
+     * The statement sets the changed columns and matches the row on the primary key of the snapshot, so
+     * changed key columns are written too. Each set of changed columns gets its own cached statement shape.
+     * Nothing is sent when no column changed. After a successful update the snapshot is refreshed.
+     *
+     * @param tracked the tracked model to write
+     * @param <T>     the type of the model, which must extend {@link Model}
+     * @return        the number of rows affected by the update, 0 if nothing changed, or -1 on error
+     */
+    public <T extends Model> int updateChanged(TrackedEntity<T> tracked) {
+        T model = tracked.get();
+        ModelMetadata<T> metadata = tracked.getMetadata();
+        long changedColumns = tracked.getChangedColumnMask();
+        if (changedColumns == 0) {
+            return 0; // Nothing to write, skip the round-trip
+        }
+
+        String statement = StatementTemplateCache.get(metadata.getModelClass(), StatementType.PARTIAL_UPDATE, changedColumns);
+
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.UPDATE, metadata.getModelClass());
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, DaoOperation.UPDATE, metadata.getModelClass())) {
+            // Bind the changed values, then the key the row had when it was loaded
+            int index = metadata.bindColumns(model, preparedStatement, 1, changedColumns);
+            metadata.bindPrimaryKeys(tracked.getSnapshot(), preparedStatement, index);
+
+            int rowsAffected = DaoEvents.executeUpdate(preparedStatement, DaoOperation.UPDATE, metadata.getModelClass());
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(StatementType.PARTIAL_UPDATE, metadata.getModelClass(), elapsed, rowsAffected);
+            SlowQueryLog slowQueryLog = metricsRegistry.getSlowQueryLog();
+            if (slowQueryLog.isTraced(elapsed)) {
+                T snapshot = tracked.getSnapshot();
+                StatementBinder binder = target -> metadata.bindPrimaryKeys(snapshot, target,
+                        metadata.bindColumns(model, target, 1, changedColumns));
+                slowQueryLog.trace(connection, statement, binder, rowsAffected, elapsed, AbstractDMLDao.class);
+            }
+            logger.fine(() -> "Update " + metadata.getTableName() + " " + tracked.getChangedColumns() + ": "
+                    + rowsAffected + " row(s) affected.");
+            if (!metadata.getPrimaryKeyValues(tracked.getSnapshot()).equals(metadata.getPrimaryKeyValues(model))) {
+                notifyWrite(StatementType.DELETE, tracked.getSnapshot(), rowsAffected); // The old key is gone
+            }
+            notifyWrite(StatementType.UPDATE, model, rowsAffected);
+            tracked.markClean();
             return rowsAffected;
 
-        } catch (SQLException | IllegalAccessException e) {
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(StatementType.PARTIAL_UPDATE, metadata.getModelClass(), System.nanoTime() - start);
             logger.log(Level.SEVERE, "Error updating model: " + model.getClass().getSimpleName(), e);
+            notifyWrite(StatementType.UPDATE, tracked.getSnapshot(), -1);
+            notifyWrite(StatementType.UPDATE, model, -1);
             return -1;
         }
     }
@@ -109,7 +259,7 @@ public abstract class AbstractDMLDao implements DMLDao {
     /**
      * Deletes a model object from the database.
      * <p>
-     * This method generates an SQL DELETE statement using the primary key fields of the model,
+     * This method uses the cached SQL DELETE statement built from the primary key fields of the model,
      * binds the values to a PreparedStatement, and executes the delete operation on the database.
      *
      * @param model the model object to be deleted from the database
@@ -118,28 +268,31 @@ public abstract class AbstractDMLDao implements DMLDao {
      */
     @Override
     public <T extends Model> int delete(T model) {
-        // Get the table name based on the model's dynamic name
-        String tableName = model.getDynamicModelName();
-
-        // Generate the SQL DELETE statement using the model and table name
-        String statement = DMLStatementFactory.buildDeleteStatements(model, tableName);
-        logger.info("Generated Delete Statement: " + statement);
-
-        try (PreparedStatement preparedStatement = mySQLConnection.getDatabase().prepareStatement(statement)) {
-            // Get the primary key values from the model and bind them to the statement
-            Map<String, Object> primaryKeys = DMLStatementFactory.getPrimaryKeyValues(model);
-            int index = 1;
-            for (Object value : primaryKeys.values()) {
-                preparedStatement.setObject(index++, value); // Bind primary key values
-            }
+        // Get the table name from the model's metadata, the one its cached statement targets
+        String tableName = ModelMetadata.of(model).getTableName();
+
+        // Get the cached SQL DELETE statement of the model class
+        String statement = StatementTemplateCache.get(model.getClass(), StatementType.DELETE);
+
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.DELETE, model.getClass());
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, DaoOperation.DELETE, model.getClass())) {
+            // Bind the primary key values of the model to the WHERE clause
+            bindStatement(StatementType.DELETE, model, preparedStatement);
 
             // Execute the delete operation and get the number of affected rows
-            int rowsAffected = preparedStatement.executeUpdate();
-            logger.info("Delete " + tableName + ": " + rowsAffected + " row(s) affected.");
+            int rowsAffected = DaoEvents.executeUpdate(preparedStatement, DaoOperation.DELETE, model.getClass());
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(StatementType.DELETE, model.getClass(), elapsed, rowsAffected);
+            traceStatement(connection, statement, StatementType.DELETE, model, rowsAffected, elapsed);
+            logger.fine(() -> "Delete " + tableName + ": " + rowsAffected + " row(s) affected.");
+            notifyWrite(StatementType.DELETE, model, rowsAffected);
             return rowsAffected;
 
-        } catch (SQLException e) {
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(StatementType.DELETE, model.getClass(), System.nanoTime() - start);
             logger.log(Level.SEVERE, "Error deleting model: " + model.getClass().getSimpleName(), e);
+            notifyWrite(StatementType.DELETE, model, -1);
             return -1;
         }
     }
@@ -147,7 +300,7 @@ public abstract class AbstractDMLDao implements DMLDao {
     /**
      * Deletes all records from the table associated with the given model class.
      * <p>
-     * This method generates an SQL DELETE statement that removes all rows from the table,
+     * This method uses the cached SQL DELETE statement that removes all rows from the table,
      * and then executes the delete operation.
      *
      * @param modelClass the class of the model whose table's data is to be deleted
@@ -155,22 +308,260 @@ public abstract class AbstractDMLDao implements DMLDao {
      * @return           the number of rows affected by the delete operation
      */
     public <T extends Model> int deleteAll(Class<T> modelClass) {
-        // Generate the SQL DELETE ALL statement for the table
-        String statement = DMLStatementFactory.buildDeleteAllStatement(modelClass);
-        logger.info("Generated Delete All Statement: " + statement);
+        // Get the cached SQL DELETE ALL statement for the table
+        String statement = StatementTemplateCache.get(modelClass, StatementType.DELETE_ALL);
 
-        try (PreparedStatement preparedStatement = mySQLConnection.getDatabase().prepareStatement(statement)) {
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.DELETE, modelClass);
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, DaoOperation.DELETE, modelClass)) {
             // Execute the delete operation and get the number of affected rows
-            int rowsAffected = preparedStatement.executeUpdate();
-            logger.info("Delete All " + modelClass.getSimpleName().toLowerCase() + ": " + rowsAffected + " row(s) affected.");
+            int rowsAffected = DaoEvents.executeUpdate(preparedStatement, DaoOperation.DELETE, modelClass);
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(StatementType.DELETE_ALL, modelClass, elapsed, rowsAffected);
+            traceStatement(connection, statement, StatementType.DELETE_ALL, null, rowsAffected, elapsed);
+            logger.fine(() -> "Delete All " + modelClass.getSimpleName().toLowerCase() + ": " + rowsAffected + " row(s) affected.");
+            notifyTableWrite(modelClass);
             return rowsAffected;
 
-        } catch (SQLException e) {
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(StatementType.DELETE_ALL, modelClass, System.nanoTime() - start);
             logger.log(Level.SEVERE, "Error deleting all rows from table: " + modelClass.getSimpleName().toLowerCase(), e);
+            notifyTableWrite(modelClass);
             return -1;
         }
     }
 
+    /**
+     * Inserts every model of the collection using JDBC batching and the default chunk size.
+     *
+     * @param models the model objects to be inserted, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     * @see #insertAll(Collection, int)
+     */
+    @Override
+    public <T extends Model> int[] insertAll(Collection<T> models) {
+        return insertAll(models, batchSize);
+    }
+
+    /**
+     * Inserts every model of the collection using JDBC batching.
+     * <p>
+     * One PreparedStatement is prepared from the cached INSERT statement and reused for every row.
+     * Rows are added with {@code addBatch()} and sent with {@code executeBatch()} every
+     * {@code chunkSize} rows, each chunk being committed as one transaction. With Connector/J's
+     * {@code rewriteBatchedStatements} enabled, each chunk travels as a multi-row INSERT.
+     *
+     * @param models    the model objects to be inserted, all of the same class
+     * @param chunkSize the number of rows sent per batch
+     * @param <T>       the type of the model, which must extend {@link Model}
+     * @return          the number of rows affected by each chunk, -1 for chunks that failed or did not run
+     */
+    public <T extends Model> int[] insertAll(Collection<T> models, int chunkSize) {
+        return executeBatch(StatementType.INSERT, models, chunkSize);
+    }
+
+    /**
+     * Updates every model of the collection using JDBC batching and the default chunk size.
+     *
+     * @param models the model objects to be updated, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     * @see #updateAll(Collection, int)
+     */
+    @Override
+    public <T extends Model> int[] updateAll(Collection<T> models) {
+        return updateAll(models, batchSize);
+    }
+
+    /**
+     * Updates every model of the collection using JDBC batching, reusing one PreparedStatement
+     * and committing every {@code chunkSize} rows.
+     *
+     * @param models    the model objects to be updated, all of the same class
+     * @param chunkSize the number of rows sent per batch
+     * @param <T>       the type of the model, which must extend {@link Model}
+     * @return          the number of rows affected by each chunk, -1 for chunks that failed or did not run
+     */
+    public <T extends Model> int[] updateAll(Collection<T> models, int chunkSize) {
+        return executeBatch(StatementType.UPDATE, models, chunkSize);
+    }
+
+    /**
+     * Upserts every model of the collection using JDBC batching and the default chunk size.
+     *
+     * @param models the model objects to be upserted, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     * @see #upsertAll(Collection, int)
+     */
+    @Override
+    public <T extends Model> int[] upsertAll(Collection<T> models) {
+        return upsertAll(models, batchSize);
+    }
+
+    /**
+     * Upserts every model of the collection using JDBC batching, reusing one PreparedStatement
+     * and committing every {@code chunkSize} rows. With Connector/J's {@code rewriteBatchedStatements}
+     * enabled, each chunk travels as a single multi-row {@code INSERT ... ON DUPLICATE KEY UPDATE}.
+     *
+     * @param models    the model objects to be upserted, all of the same class
+     * @param chunkSize the number of rows sent per batch
+     * @param <T>       the type of the model, which must extend {@link Model}
+     * @return          the number of rows affected by each chunk, -1 for chunks that failed or did not run
+     * @see #upsert(Model)
+     */
+    public <T extends Model> int[] upsertAll(Collection<T> models, int chunkSize) {
+        return executeBatch(StatementType.UPSERT, models, chunkSize);
+    }
+
+    /**
+     * Deletes every model of the collection using JDBC batching and the default chunk size.
+     *
+     * @param models the model objects to be deleted, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     * @see #deleteAll(Collection, int)
+     */
+    @Override
+    public <T extends Model> int[] deleteAll(Collection<T> models) {
+        return deleteAll(models, batchSize);
+    }
+
+    /**
+     * Deletes every model of the collection by primary key using JDBC batching, reusing one
+     * PreparedStatement and committing every {@code chunkSize} rows.
+     *
+     * @param models    the model objects to be deleted, all of the same class
+     * @param chunkSize the number of rows sent per batch
+     * @param <T>       the type of the model, which must extend {@link Model}
+     * @return          the number of rows affected by each chunk, -1 for chunks that failed or did not run
+     */
+    public <T extends Model> int[] deleteAll(Collection<T> models, int chunkSize) {
+        return executeBatch(StatementType.DELETE, models, chunkSize);
+    }
+
+    /**
+     * Inserts every model of the collection using multi-row {@code INSERT ... VALUES (...),(...)} statements.
+     * <p>
+     * Unlike {@link #insertAll(Collection)}, which relies on JDBC batching, this builds the multi-row
+     * statements itself. The number of rows per statement is bounded by the server's
+     * {@code max_allowed_packet}, by {@link DMLStatementFactory#MAX_PLACEHOLDERS} and by
+     * {@link #setMaxRowsPerStatement(int)}, and is always a power of two so that only a handful of
+     * statement shapes per model class reach the statement caches. Each statement is committed on its own.
+     *
+     * @param models the model objects to be inserted, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows inserted by each statement, -1 for statements that failed or did not run
+     */
+    public <T extends Model> int[] bulkInsert(Collection<T> models) {
+        if (models.isEmpty()) {
+            return new int[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        ModelMetadata<T> metadata = ModelMetadata.of((Class<T>) requireSingleModelClass(models));
+        Class<T> modelClass = metadata.getModelClass();
+        int[] shapes = new int[0];
+        int[] statementRows = new int[0];
+        int statementIndex = 0;
+
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.INSERT, modelClass)) {
+            // Plan the statements up front: full statements first, then the remainder split in powers of two
+            int rowsPerStatement = rowsPerMultiRowInsert(connection, metadata, models);
+            shapes = planMultiRowInsert(models.size(), rowsPerStatement);
+            statementRows = new int[shapes.length];
+            Arrays.fill(statementRows, -1);
+
+            Iterator<T> iterator = models.iterator();
+            PreparedStatement preparedStatement = null;
+            try {
+                for (; statementIndex < shapes.length; statementIndex++) {
+                    int rows = shapes[statementIndex];
+                    // Consecutive statements of the same shape reuse the same PreparedStatement
+                    if (preparedStatement == null || rows != shapes[statementIndex - 1]) {
+                        if (preparedStatement != null) {
+                            preparedStatement.close();
+                        }
+                        preparedStatement = DaoEvents.prepare(connection,
+                                StatementTemplateCache.get(modelClass, StatementType.MULTI_ROW_INSERT, rows),
+                                DaoOperation.INSERT, modelClass);
+                    }
+
+                    int index = 1;
+                    for (int row = 0; row < rows; row++) {
+                        index = metadata.bindColumns(iterator.next(), preparedStatement, index);
+                    }
+                    statementRows[statementIndex] = DaoEvents.executeUpdate(preparedStatement, DaoOperation.INSERT, modelClass);
+                }
+            } finally {
+                if (preparedStatement != null) {
+                    preparedStatement.close();
+                }
+            }
+
+            long elapsed = System.nanoTime() - start;
+            long rows = sumRows(statementRows);
+            metricsRegistry.record(StatementType.MULTI_ROW_INSERT, modelClass, elapsed, rows);
+            if (shapes.length > 0) {
+                traceStatement(connection, StatementTemplateCache.get(modelClass, StatementType.MULTI_ROW_INSERT, shapes[0]),
+                        StatementType.MULTI_ROW_INSERT, null, rows, elapsed);
+            }
+            int statements = shapes.length;
+            logger.fine(() -> "Bulk insert " + metadata.getTableName() + ": " + models.size() + " row(s) in "
+                    + statements + " statement(s).");
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(StatementType.MULTI_ROW_INSERT, modelClass, System.nanoTime() - start);
+            logger.log(Level.SEVERE, "Error bulk inserting model: " + modelClass.getSimpleName()
+                    + " at statement " + (statementIndex + 1) + " of " + shapes.length, e);
+        }
+        notifyWrites(StatementType.INSERT, models);
+        return statementRows;
+    }
+
+    /**
+     * Sets the upper bound of rows sent in one multi-row INSERT by {@link #bulkInsert(Collection)}.
+     * The effective bound is the largest power of two not above this value.
+     *
+     * @param maxRowsPerStatement       the maximum number of rows per statement
+     * @throws IllegalArgumentException if the value is lower than 1
+     */
+    public void setMaxRowsPerStatement(int maxRowsPerStatement) {
+        this.maxRowsPerStatement = requireValidChunkSize(maxRowsPerStatement);
+    }
+
+    public int getMaxRowsPerStatement() {
+        return maxRowsPerStatement;
+    }
+
+    /**
+     * Sets the chunk size used by the batch operations when none is given explicitly.
+     *
+     * @param batchSize                 the number of rows sent per batch
+     * @throws IllegalArgumentException if the size is lower than 1
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = requireValidChunkSize(batchSize);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Checks whether a connection can currently be borrowed, closing it straight away.
+     *
+     * @return {@code true} if the provider handed out a connection
+     */
+    boolean canConnect() {
+        try (Connection ignored = connectionProvider.getConnection()) {
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
     /**
      * Drops a database by its name.
      * <p>
@@ -182,37 +573,349 @@ public abstract class AbstractDMLDao implements DMLDao {
         // Generate the SQL DROP DATABASE statement
         String statement = "DROP DATABASE " + databaseName + ";";
 
-        try (PreparedStatement preparedStatement = mySQLConnection.getDatabase().prepareStatement(statement)) {
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.DELETE, null);
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, DaoOperation.DELETE, null)) {
             // Execute the drop database statement
-            preparedStatement.executeUpdate();
+            int rowsAffected = DaoEvents.executeUpdate(preparedStatement, DaoOperation.DELETE, null);
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(DaoOperation.DELETE, null, elapsed, rowsAffected);
+            SlowQueryLog slowQueryLog = metricsRegistry.getSlowQueryLog();
+            if (slowQueryLog.isTraced(elapsed)) {
+                // No connection, a DROP has no plan to explain
+                slowQueryLog.trace(null, statement, StatementBinder.NONE, rowsAffected, elapsed, AbstractDMLDao.class);
+            }
             logger.info(databaseName + " Erased.");
+            notifyTableWrite(null);
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(DaoOperation.DELETE, null, System.nanoTime() - start);
+            logger.log(Level.SEVERE, "Error deleting database: " + databaseName, e);
+        }
+    }
+
+    /**
+     * Sets the registry the calls of this DAO are recorded into, {@link MetricsRegistry#global()} by default.
+     *
+     * @param metricsRegistry the registry to record into
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = Objects.requireNonNull(metricsRegistry);
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Registers a listener notified after every write of this DAO.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(DMLListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addListener(DMLListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(DMLListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notifies the listeners that the row of a model was written.
+     */
+    private void notifyWrite(StatementType type, Model model, int rowsAffected) {
+        for (DMLListener listener : listeners) {
+            try {
+                listener.onWrite(type, model, rowsAffected);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "DML listener failed: " + listener, e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners that the rows of a batch were written; per-row counts are not reported.
+     */
+    private void notifyWrites(StatementType type, Collection<? extends Model> models) {
+        for (DMLListener listener : listeners) {
+            try {
+                listener.onBatchWrite(type, models);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "DML listener failed: " + listener, e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners that any row of a table, or of every table if {@code null}, may have changed.
+     */
+    private void notifyTableWrite(Class<? extends Model> modelClass) {
+        for (DMLListener listener : listeners) {
+            try {
+                listener.onTableWrite(modelClass);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "DML listener failed: " + listener, e);
+            }
+        }
+    }
+
+    /**
+     * Runs a batched statement of the given type over every model of the collection.
+     * <p>
+     * The models are bound one by one to a single PreparedStatement and sent every {@code chunkSize}
+     * rows. Each chunk is committed on its own, so a failure rolls back only the chunk being sent
+     * and stops the remaining ones.
+     *
+     * @param type      the kind of statement to execute for each model
+     * @param models    the model objects to bind, all of the same class
+     * @param chunkSize the number of rows sent per batch
+     * @param <T>       the type of the model, which must extend {@link Model}
+     * @return          the number of rows affected by each chunk, -1 for chunks that failed or did not run
+     */
+    private <T extends Model> int[] executeBatch(StatementType type, Collection<T> models, int chunkSize) {
+        requireValidChunkSize(chunkSize);
+        if (models.isEmpty()) {
+            return new int[0];
+        }
+
+        // A single statement is reused for the whole collection, so every model must share its class
+        Class<? extends Model> modelClass = requireSingleModelClass(models);
+        String statement = StatementTemplateCache.get(modelClass, type);
+        int[] chunkRows = new int[(models.size() + chunkSize - 1) / chunkSize];
+        Arrays.fill(chunkRows, -1);
+        int chunk = 0;
+        DaoOperation operation = DaoOperation.of(type);
+
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, operation, modelClass);
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, statement, operation, modelClass)) {
+            connection.setAutoCommit(false);
+            try {
+                int pending = 0;
+                for (T model : models) {
+                    bindStatement(type, model, preparedStatement);
+                    preparedStatement.addBatch();
+                    if (++pending == chunkSize) {
+                        chunkRows[chunk++] = executeChunk(connection, preparedStatement, operation, modelClass);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    chunkRows[chunk] = executeChunk(connection, preparedStatement, operation, modelClass);
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            long rows = sumRows(chunkRows);
+            metricsRegistry.record(type, modelClass, elapsed, rows);
+            traceStatement(connection, statement, type, null, rows, elapsed);
+            logger.fine(() -> "Batch " + type + " " + modelClass.getSimpleName().toLowerCase() + ": "
+                    + models.size() + " row(s) in " + chunkRows.length + " chunk(s).");
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(type, modelClass, System.nanoTime() - start);
+            logger.log(Level.SEVERE, "Error executing batch " + type + " of model: " + modelClass.getSimpleName()
+                    + " at chunk " + (chunk + 1) + " of " + chunkRows.length, e);
+        }
+        notifyWrites(type, models);
+        return chunkRows;
+    }
+
+    /**
+     * Reports a statement to the slow query log of the registry, which only binds it again if it is logged.
+     *
+     * @param connection   the connection the statement ran on
+     * @param statement    the SQL of the statement
+     * @param type         the kind of statement
+     * @param model        the model bound to the statement, or {@code null} for batches and statements without values
+     * @param rows         the rows affected by the statement
+     * @param elapsedNanos the duration of the statement in nanoseconds
+     */
+    private void traceStatement(Connection connection, String statement, StatementType type, Model model, long rows,
+                                long elapsedNanos) {
+        SlowQueryLog slowQueryLog = metricsRegistry.getSlowQueryLog();
+        if (slowQueryLog.isTraced(elapsedNanos)) {
+            StatementBinder binder;
+            if (type == StatementType.DELETE_ALL) {
+                binder = StatementBinder.NONE;
+            } else if (model != null) {
+                binder = preparedStatement -> bindStatement(type, model, preparedStatement);
+            } else {
+                binder = null; // A batch binds many models, its values are not reported
+            }
+            slowQueryLog.trace(connection, statement, binder, rows, elapsedNanos, AbstractDMLDao.class);
+        }
+    }
+
+    /**
+     * Adds up the row counts of chunks or statements, ignoring those the driver could not report.
+     */
+    private static long sumRows(int[] rows) {
+        long sum = 0;
+        for (int count : rows) {
+            if (count > 0) {
+                sum += count;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sends the pending batch of the statement and commits it.
+     *
+     * @param connection        the connection the batch runs on
+     * @param preparedStatement the statement holding the pending batch
+     * @param operation         the operation of the batch, for its flight recorder event
+     * @param modelClass        the model class of the batch
+     * @return                  the total number of rows affected by the chunk, or
+     *                          {@link Statement#SUCCESS_NO_INFO} if the driver cannot report it
+     * @throws SQLException     if the batch fails
+     */
+    private static int executeChunk(Connection connection, PreparedStatement preparedStatement, DaoOperation operation,
+                                    Class<? extends Model> modelClass) throws SQLException {
+        int[] counts = DaoEvents.executeBatch(preparedStatement, operation, modelClass);
+        connection.commit();
+
+        int rowsAffected = 0;
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                return Statement.SUCCESS_NO_INFO; // Rewritten batches may not report per-row counts
+            }
+            rowsAffected += count;
+        }
+        return rowsAffected;
+    }
+
+    /**
+     * Computes how many rows of the collection fit in one multi-row INSERT.
+     * <p>
+     * The bound is the smallest of the configured maximum, the placeholder limit and the number of
+     * rows that fit in half of {@code max_allowed_packet} given the widest row of the collection.
+     * It is rounded down to a power of two to keep the number of statement shapes small.
+     */
+    private <T extends Model> int rowsPerMultiRowInsert(Connection connection, ModelMetadata<T> metadata,
+                                                        Collection<T> models) {
+        long widestRow = 1;
+        for (T model : models) {
+            long rowBytes = 2L + 2L * metadata.getColumns().size(); // The "(?,?,...)," text of the row
+            for (ColumnMetadata column : metadata.getColumns()) {
+                rowBytes += estimateBytes(column.get(model));
+            }
+            widestRow = Math.max(widestRow, rowBytes);
+        }
+
+        long rowsByPacket = Math.max(1, maxAllowedPacket(connection) / 2 / widestRow);
+        long rows = Math.min(rowsByPacket, Math.min(maxRowsPerStatement,
+                DMLStatementFactory.maxRowsPerInsert(metadata.getModelClass())));
+        return Integer.highestOneBit((int) rows);
+    }
+
+    /**
+     * Splits a row count into statement sizes: as many full statements as possible,
+     * then the remainder broken down into decreasing powers of two.
+     */
+    private static int[] planMultiRowInsert(int totalRows, int rowsPerStatement) {
+        int fullStatements = totalRows / rowsPerStatement;
+        int remainder = totalRows % rowsPerStatement;
+        int[] shapes = new int[fullStatements + Integer.bitCount(remainder)];
+        Arrays.fill(shapes, 0, fullStatements, rowsPerStatement);
+        for (int i = fullStatements; remainder > 0; i++) {
+            shapes[i] = Integer.highestOneBit(remainder);
+            remainder -= shapes[i];
+        }
+        return shapes;
+    }
+
+    /**
+     * Returns the server's {@code max_allowed_packet}, read once and then cached.
+     * Falls back to the MySQL 5.7 default of 4 MiB if the server does not expose it.
+     */
+    private long maxAllowedPacket(Connection connection) {
+        long packet = maxAllowedPacket;
+        if (packet > 0) {
+            return packet;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT @@max_allowed_packet")) {
+            packet = resultSet.next() ? resultSet.getLong(1) : DEFAULT_MAX_ALLOWED_PACKET;
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error deleting database: " + databaseName);
+            logger.log(Level.FINE, "Could not read max_allowed_packet, assuming " + DEFAULT_MAX_ALLOWED_PACKET + " bytes.", e);
+            packet = DEFAULT_MAX_ALLOWED_PACKET;
+        }
+        maxAllowedPacket = packet;
+        return packet;
+    }
+
+    /**
+     * Estimates, on the high side, the number of bytes a bound value takes on the wire.
+     */
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 1;
+        } else if (value instanceof CharSequence text) {
+            return 9L + 4L * text.length(); // Length prefix plus worst case utf8mb4
+        } else if (value instanceof byte[] bytes) {
+            return 9L + bytes.length;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        }
+        return 9L + 4L * value.toString().length();
+    }
+
+    /**
+     * Returns the class shared by every model of a non-empty collection.
+     *
+     * @param models                    the models to check
+     * @param <T>                       the type of the model, which must extend {@link Model}
+     * @return                          the class of the models
+     * @throws IllegalArgumentException if the models are not all of the same class
+     */
+    private static <T extends Model> Class<? extends Model> requireSingleModelClass(Collection<T> models) {
+        Class<? extends Model> modelClass = models.iterator().next().getClass();
+        for (T model : models) {
+            if (model.getClass() != modelClass) {
+                throw new IllegalArgumentException("Batch models must all be of class " + modelClass.getSimpleName() + ".");
+            }
         }
+        return modelClass;
+    }
+
+    private static int requireValidChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+        return chunkSize;
     }
 
     /**
-     * Binds the fields of the given model to the provided PreparedStatement.
+     * Binds the given model to the placeholders of a statement of the given type.
      * <p>
-     * This method iterates over the fields of the model and sets their values
-     * to the corresponding placeholders in the PreparedStatement.
+     * INSERT and UPSERT bind every column, UPDATE binds its updatable columns (the non-key columns,
+     * or every column when all of them are keys) followed by the primary keys of its WHERE clause,
+     * and DELETE binds only the primary keys. The values are read through the cached column
+     * accessors of the model's metadata.
      *
+     * @param type                    the kind of statement the PreparedStatement was prepared from
      * @param model                   the model object whose fields are to be bound
      * @param preparedStatement       the PreparedStatement to bind the model fields to
      * @param <T>                     the type of the model, which must extend {@link Model}
-     * @return                        the next index to be used in the PreparedStatement
-     * @throws IllegalAccessException if an error occurs while accessing the model's fields
      * @throws SQLException           if an error occurs while setting values to the PreparedStatement
      */
-    private <T extends Model> int bindModelToPreparedStatement(T model, PreparedStatement preparedStatement) throws IllegalAccessException, SQLException {
-        Field[] fields = model.getClass().getDeclaredFields();
-        int index = 1;
-
-        // Iterate over the fields and set their values in the PreparedStatement
-        for (Field field : fields) {
-            field.setAccessible(true); // Make field accessible for reflection
-            preparedStatement.setObject(index++, field.get(model)); // Bind the field value to the statement
+    private <T extends Model> void bindStatement(StatementType type, T model, PreparedStatement preparedStatement) throws SQLException {
+        ModelMetadata<T> metadata = ModelMetadata.of(model);
+        switch (type) {
+            case INSERT, UPSERT -> metadata.bindColumns(model, preparedStatement, 1);
+            case UPDATE -> metadata.bindPrimaryKeys(model, preparedStatement, metadata.bindUpdatableColumns(model, preparedStatement, 1));
+            case DELETE -> metadata.bindPrimaryKeys(model, preparedStatement, 1);
+            default -> throw new IllegalArgumentException("Statement type " + type + " cannot be bound to a model.");
         }
-        return index;
     }
 }
@@ -0,0 +1,101 @@
+package org.phinix.lib.common.dao.dml;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.service.BoundedVirtualThreadExecutor;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over an {@link AbstractDMLDao}.
+ * <p>
+ * Every call runs the corresponding blocking DAO method on a virtual thread of the given
+ * {@link BoundedVirtualThreadExecutor} and returns immediately with a {@link CompletableFuture}.
+ * Results follow the wrapped DAO, including its {@code -1} error convention.
+ */
+public class AsyncDMLDao {
+    private final AbstractDMLDao dao;
+    private final BoundedVirtualThreadExecutor executor;
+
+    /**
+     * Creates the facade.
+     *
+     * @param dao      the blocking DAO the calls are delegated to
+     * @param executor the executor running the calls, usually bounded by the connection pool size
+     * @see org.phinix.lib.service.MySQLConnection#getAsyncExecutor()
+     */
+    public AsyncDMLDao(AbstractDMLDao dao, BoundedVirtualThreadExecutor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    /**
+     * @see AbstractDMLDao#insert(Model)
+     */
+    public <T extends Model> CompletableFuture<Integer> insert(T model) {
+        return executor.submit(() -> dao.insert(model));
+    }
+
+    /**
+     * @see AbstractDMLDao#update(Model)
+     */
+    public <T extends Model> CompletableFuture<Integer> update(T model) {
+        return executor.submit(() -> dao.update(model));
+    }
+
+    /**
+     * @see AbstractDMLDao#upsert(Model)
+     */
+    public <T extends Model> CompletableFuture<Integer> upsert(T model) {
+        return executor.submit(() -> dao.upsert(model));
+    }
+
+    /**
+     * @see AbstractDMLDao#delete(Model)
+     */
+    public <T extends Model> CompletableFuture<Integer> delete(T model) {
+        return executor.submit(() -> dao.delete(model));
+    }
+
+    /**
+     * @see AbstractDMLDao#insertAll(Collection)
+     */
+    public <T extends Model> CompletableFuture<int[]> insertAll(Collection<T> models) {
+        return executor.submit(() -> dao.insertAll(models));
+    }
+
+    /**
+     * @see AbstractDMLDao#updateAll(Collection)
+     */
+    public <T extends Model> CompletableFuture<int[]> updateAll(Collection<T> models) {
+        return executor.submit(() -> dao.updateAll(models));
+    }
+
+    /**
+     * @see AbstractDMLDao#upsertAll(Collection)
+     */
+    public <T extends Model> CompletableFuture<int[]> upsertAll(Collection<T> models) {
+        return executor.submit(() -> dao.upsertAll(models));
+    }
+
+    /**
+     * @see AbstractDMLDao#deleteAll(Collection)
+     */
+    public <T extends Model> CompletableFuture<int[]> deleteAll(Collection<T> models) {
+        return executor.submit(() -> dao.deleteAll(models));
+    }
+
+    /**
+     * @see AbstractDMLDao#bulkInsert(Collection)
+     */
+    public <T extends Model> CompletableFuture<int[]> bulkInsert(Collection<T> models) {
+        return executor.submit(() -> dao.bulkInsert(models));
+    }
+
+    /**
+     * @return the blocking DAO wrapped by this facade
+     */
+    public AbstractDMLDao getDao() {
+        return dao;
+    }
+}
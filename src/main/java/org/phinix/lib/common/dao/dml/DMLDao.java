@@ -2,10 +2,13 @@ package org.phinix.lib.common.dao.dml;
 
 import org.phinix.lib.common.util.Model;
 
+import java.util.Collection;
+
 /**
  * Data Access Object (DAO) interface for performing Data Manipulation Language (DML) operations.
  * <p>
- * This interface defines methods for inserting, updating, and deleting model objects in the database.
+ * This interface defines methods for inserting, updating, and deleting model objects in the database,
+ * either one at a time or in batches.
  * The operations work generically with any class that implements the {@link Model} interface.
  */
 public interface DMLDao {
@@ -33,6 +36,18 @@ public interface DMLDao {
      */
     <T extends Model> int update(T model);
 
+    /**
+     * Inserts a model object, or overwrites the non-key columns of the row with the same key if one exists.
+     * <p>
+     * This method typically generates an SQL {@code INSERT ... ON DUPLICATE KEY UPDATE} statement.
+     *
+     * @param model the model object to be inserted or updated in the database
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      the number of rows affected, as reported by MySQL: 1 for an insert,
+     *              2 for an update and 0 if the existing row already held the same values
+     */
+    <T extends Model> int upsert(T model);
+
     /**
      * Deletes a model object from the database.
      * <p>
@@ -44,4 +59,44 @@ public interface DMLDao {
      * @return      the number of rows affected by the delete operation
      */
     <T extends Model> int delete(T model);
+
+    /**
+     * Inserts a collection of model objects into the database in batches.
+     * <p>
+     * The models are sent in chunks that share one prepared statement, instead of paying
+     * one network round-trip per row.
+     *
+     * @param models the model objects to be inserted, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     */
+    <T extends Model> int[] insertAll(Collection<T> models);
+
+    /**
+     * Updates a collection of model objects in the database in batches.
+     *
+     * @param models the model objects to be updated, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     */
+    <T extends Model> int[] updateAll(Collection<T> models);
+
+    /**
+     * Inserts or updates a collection of model objects in the database in batches.
+     *
+     * @param models the model objects to be upserted, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     * @see #upsert(Model)
+     */
+    <T extends Model> int[] upsertAll(Collection<T> models);
+
+    /**
+     * Deletes a collection of model objects from the database in batches, by primary key.
+     *
+     * @param models the model objects to be deleted, all of the same class
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       the number of rows affected by each chunk
+     */
+    <T extends Model> int[] deleteAll(Collection<T> models);
 }
@@ -0,0 +1,49 @@
+package org.phinix.lib.common.dao.dml;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.StatementType;
+
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * Listener notified by {@link AbstractDMLDao} after it wrote to the database, used to keep caches
+ * in front of the query DAOs consistent.
+ * <p>
+ * Listeners run on the writing thread, after the statement completed, and must be quick.
+ * Exceptions they throw are logged and never fail the write.
+ *
+ * @see AbstractDMLDao#addListener(DMLListener)
+ */
+public interface DMLListener {
+    /**
+     * Called after a statement wrote the row of a single model.
+     *
+     * @param type         the kind of statement that ran
+     * @param model        the model that was written
+     * @param rowsAffected the number of rows the statement affected, {@link java.sql.Statement#SUCCESS_NO_INFO}
+     *                     when the driver did not report it per row, or -1 if the statement failed
+     */
+    void onWrite(StatementType type, Model model, int rowsAffected);
+
+    /**
+     * Called after a batch wrote the rows of several models of one class. Per-row counts are not known;
+     * by default each model is passed to {@link #onWrite(StatementType, Model, int)} with
+     * {@link Statement#SUCCESS_NO_INFO}. Listeners that only care about the table override it to act once.
+     *
+     * @param type   the kind of statement that ran
+     * @param models the models that were written, all of the same class
+     */
+    default void onBatchWrite(StatementType type, Collection<? extends Model> models) {
+        for (Model model : models) {
+            onWrite(type, model, Statement.SUCCESS_NO_INFO);
+        }
+    }
+
+    /**
+     * Called after a statement that may have changed any row of a table.
+     *
+     * @param modelClass the model class of the table, or {@code null} if every table may have changed
+     */
+    void onTableWrite(Class<? extends Model> modelClass);
+}
@@ -0,0 +1,61 @@
+package org.phinix.lib.common.dao.dml;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.StatementType;
+
+import java.time.Instant;
+
+/**
+ * A queued write that a {@link WriteBehindDMLDao} could not send, even after retrying it on its own.
+ * <p>
+ * It holds the copy of the model taken when the write was queued, so the application can inspect it,
+ * store it elsewhere or queue it again once the cause is fixed.
+ */
+public final class FailedWrite {
+    private final StatementType operation;
+    private final Model model;
+    private final int attempts;
+    private final Instant failedAt;
+
+    FailedWrite(StatementType operation, Model model, int attempts, Instant failedAt) {
+        this.operation = operation;
+        this.model = model;
+        this.attempts = attempts;
+        this.failedAt = failedAt;
+    }
+
+    /**
+     * Returns the statement that failed; the delete or the insert step for a coalesced delete and insert.
+     *
+     * @return {@link StatementType#INSERT}, {@link StatementType#UPDATE}, {@link StatementType#UPSERT}
+     *         or {@link StatementType#DELETE}
+     */
+    public StatementType getOperation() {
+        return operation;
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * @return the number of times the write was sent, its batch included
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getFailedAt() {
+        return failedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "FailedWrite{" +
+                "operation=" + operation +
+                ", model=" + model +
+                ", attempts=" + attempts +
+                ", failedAt=" + failedAt +
+                '}';
+    }
+}
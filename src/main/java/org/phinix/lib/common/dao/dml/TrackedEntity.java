@@ -0,0 +1,85 @@
+package org.phinix.lib.common.dao.dml;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.metadata.ColumnMetadata;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A model together with a snapshot of the state it was loaded or last written with.
+ * <p>
+ * The model returned by {@link #get()} is modified freely; {@link AbstractDMLDao#updateChanged(TrackedEntity)}
+ * then diffs it against the snapshot and sends an UPDATE setting only the changed columns, or nothing at
+ * all when no column changed. The snapshot is refreshed after every successful update.
+ *
+ * @param <T> the type of the tracked model
+ * @see AbstractDMLDao#track(Model)
+ */
+public final class TrackedEntity<T extends Model> {
+    private final ModelMetadata<T> metadata;
+    private final T entity;
+    private T snapshot;
+
+    TrackedEntity(T entity) {
+        this.metadata = ModelMetadata.of(entity);
+        metadata.requireMaskableColumns();
+        this.entity = entity;
+        this.snapshot = metadata.copy(entity);
+    }
+
+    /**
+     * @return the tracked model, to be modified in place
+     */
+    public T get() {
+        return entity;
+    }
+
+    /**
+     * @return {@code true} if any column differs from the snapshot
+     */
+    public boolean isDirty() {
+        return getChangedColumnMask() != 0;
+    }
+
+    /**
+     * @return the names of the columns that differ from the snapshot, in declaration order
+     */
+    public List<String> getChangedColumns() {
+        long mask = getChangedColumnMask();
+        List<String> changed = new ArrayList<>();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            if ((mask & (1L << column.getIndex())) != 0) {
+                changed.add(column.getName());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return a mask with bit {@code i} set if column {@code i} differs from the snapshot
+     */
+    long getChangedColumnMask() {
+        return metadata.changedColumns(snapshot, entity);
+    }
+
+    /**
+     * @return the state the model was loaded or last written with, which still holds the row's
+     *         primary key even if the key columns of the model were changed
+     */
+    T getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Takes a new snapshot once the current state has been written.
+     */
+    void markClean() {
+        snapshot = metadata.copy(entity);
+    }
+
+    ModelMetadata<T> getMetadata() {
+        return metadata;
+    }
+}
@@ -0,0 +1,693 @@
+package org.phinix.lib.common.dao.dml;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.service.MySQLConnection;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link DMLDao} that queues writes in memory and sends them later, in batches, through another DAO.
+ * <p>
+ * Operations on the same primary key are coalesced while they wait: the last write wins, and an
+ * insert followed by a delete cancels out. A background virtual thread flushes the queue once it holds
+ * {@code flushSize} keys or its oldest operation is {@code flushIntervalMillis} old. Operations are
+ * written in the order their keys were first queued, consecutive operations of the same kind and model
+ * class being sent as one JDBC batch through {@link AbstractDMLDao#insertAll(Collection)} and friends.
+ * <p>
+ * The queue holds at most {@code maxPending} keys; writers beyond that wait for a flush, up to the offer
+ * timeout, then are refused. Queued writes are not visible to queries until flushed, and their outcome
+ * is only known at flush time, so the write methods return {@link #QUEUED} rather than a row count.
+ * Closing the DAO, or shutting down the {@link MySQLConnection} it was registered on, flushes what is left.
+ * <p>
+ * When a batch fails, the rows of its failed chunks are sent again one by one, up to
+ * {@link #setMaxRetries(int) maxRetries} times each with a doubling backoff between attempts. Rows that still
+ * fail are kept as {@link FailedWrite}s, drained with {@link #drainFailedWrites()} and passed to the
+ * {@link #setFailureListener(Consumer) failure listener}. Retries only help rows the database refused: when
+ * no connection can be borrowed, the rest of the run is reported at once rather than retried row by row.
+ * <p>
+ * Coalescing keeps the order of operations on one key, but not across keys: a key is written at the place
+ * it was first queued, with its last operation. Writes that depend on each other across tables, such as
+ * deleting a route then the bus it references and inserting both again, may reach the database in an order
+ * the foreign keys refuse. Call {@link #flush()} between such writes, or send them through the delegate.
+ */
+public class WriteBehindDMLDao implements DMLDao, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(WriteBehindDMLDao.class.getName());
+    private static final int DEFAULT_MAX_PENDING = 10_000;
+    private static final int DEFAULT_FLUSH_SIZE = 500;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 5000;
+    private static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = 30_000;
+    private static final int DEFAULT_MAX_RETRIES = 2;
+    private static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100;
+
+    /**
+     * Returned by the write methods when the operation was queued.
+     */
+    public static final int QUEUED = 0;
+
+    private final AbstractDMLDao delegate;
+    private final int maxPending;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final WriteBehindMetrics metrics = new WriteBehindMetrics();
+    private volatile int maxRetries = DEFAULT_MAX_RETRIES;
+    private volatile long retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
+    private volatile long closeTimeoutMillis = DEFAULT_CLOSE_TIMEOUT_MILLIS;
+    private volatile Consumer<FailedWrite> failureListener;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock(); // Keeps flushes in queue order
+    private LinkedHashMap<PendingKey, PendingOperation> pending = new LinkedHashMap<>(); // Guarded by lock
+    private long oldestEnqueuedAt;                                                        // Guarded by lock
+    private boolean closed;                                                               // Guarded by lock
+    private final ArrayDeque<FailedWrite> failedWrites = new ArrayDeque<>();              // Guarded by lock
+    private final Thread flusher;
+
+    /**
+     * Kind of a pending operation; {@code REPLACE} is a delete followed by an insert of the same key.
+     */
+    enum Operation {
+        INSERT(StatementType.INSERT),
+        UPDATE(StatementType.UPDATE),
+        UPSERT(StatementType.UPSERT),
+        DELETE(StatementType.DELETE),
+        REPLACE(null);
+
+        private final StatementType statementType;
+
+        Operation(StatementType statementType) {
+            this.statementType = statementType;
+        }
+    }
+
+    /**
+     * Key of a pending operation: the model class and its primary-key values.
+     */
+    private record PendingKey(Class<?> modelClass, List<Object> primaryKey) {}
+
+    /**
+     * The coalesced operation waiting for a key and the copy of the model it writes.
+     */
+    private static final class PendingOperation {
+        private Operation operation;
+        private Model model;
+        private final long enqueuedAt;
+
+        private PendingOperation(Operation operation, Model model, long enqueuedAt) {
+            this.operation = operation;
+            this.model = model;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * Creates a write-behind DAO with the default queue bound, flush size and flush interval, and
+     * registers it to be flushed when the connection shuts down.
+     *
+     * @param delegate   the DAO the batches are written through
+     * @param connection the connection whose shutdown flushes and closes this DAO
+     */
+    public WriteBehindDMLDao(AbstractDMLDao delegate, MySQLConnection connection) {
+        this(delegate, DEFAULT_MAX_PENDING, DEFAULT_FLUSH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_OFFER_TIMEOUT_MILLIS);
+        connection.addShutdownListener(this::close);
+    }
+
+    /**
+     * Creates a write-behind DAO.
+     * <p>
+     * The DAO is not flushed on shutdown unless registered with
+     * {@link MySQLConnection#addShutdownListener(Runnable)} or closed explicitly.
+     *
+     * @param delegate                  the DAO the batches are written through
+     * @param maxPending                the maximum number of keys waiting in the queue
+     * @param flushSize                 the number of keys that triggers a flush
+     * @param flushIntervalMillis       the maximum age of the oldest queued operation before a flush
+     * @param offerTimeoutMillis        how long a writer waits for room in a full queue before being refused
+     * @throws IllegalArgumentException if a bound is lower than 1 or the flush size exceeds the queue bound
+     */
+    public WriteBehindDMLDao(AbstractDMLDao delegate, int maxPending, int flushSize, long flushIntervalMillis,
+                             long offerTimeoutMillis) {
+        if (flushSize < 1 || maxPending < flushSize) {
+            throw new IllegalArgumentException("Flush size must be between 1 and the max pending operations.");
+        }
+        if (flushIntervalMillis < 1 || offerTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Flush interval must be positive and offer timeout not negative.");
+        }
+        this.delegate = delegate;
+        this.maxPending = maxPending;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        this.flusher = Thread.ofVirtual().name("write-behind-flusher").start(this::runFlusher);
+    }
+
+    /**
+     * Queues the insert of a model.
+     *
+     * @param model the model object to be inserted into the database
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      {@link #QUEUED}, or -1 if the queue stayed full or the DAO is closed
+     */
+    @Override
+    public <T extends Model> int insert(T model) {
+        return enqueue(Operation.INSERT, model);
+    }
+
+    /**
+     * Queues the update of a model.
+     *
+     * @param model the model object to be updated in the database
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      {@link #QUEUED}, or -1 if the queue stayed full or the DAO is closed
+     */
+    @Override
+    public <T extends Model> int update(T model) {
+        return enqueue(Operation.UPDATE, model);
+    }
+
+    /**
+     * Queues the upsert of a model.
+     *
+     * @param model the model object to be inserted or updated in the database
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      {@link #QUEUED}, or -1 if the queue stayed full or the DAO is closed
+     */
+    @Override
+    public <T extends Model> int upsert(T model) {
+        return enqueue(Operation.UPSERT, model);
+    }
+
+    /**
+     * Queues the delete of a model.
+     *
+     * @param model the model object to be deleted from the database
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      {@link #QUEUED}, or -1 if the queue stayed full or the DAO is closed
+     */
+    @Override
+    public <T extends Model> int delete(T model) {
+        return enqueue(Operation.DELETE, model);
+    }
+
+    /**
+     * Queues the insert of every model of the collection.
+     *
+     * @param models the model objects to be inserted
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       for each model, {@link #QUEUED} or -1 if it was refused
+     */
+    @Override
+    public <T extends Model> int[] insertAll(Collection<T> models) {
+        return enqueueAll(Operation.INSERT, models);
+    }
+
+    /**
+     * Queues the update of every model of the collection.
+     *
+     * @param models the model objects to be updated
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       for each model, {@link #QUEUED} or -1 if it was refused
+     */
+    @Override
+    public <T extends Model> int[] updateAll(Collection<T> models) {
+        return enqueueAll(Operation.UPDATE, models);
+    }
+
+    /**
+     * Queues the upsert of every model of the collection.
+     *
+     * @param models the model objects to be upserted
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       for each model, {@link #QUEUED} or -1 if it was refused
+     */
+    @Override
+    public <T extends Model> int[] upsertAll(Collection<T> models) {
+        return enqueueAll(Operation.UPSERT, models);
+    }
+
+    /**
+     * Queues the delete of every model of the collection.
+     *
+     * @param models the model objects to be deleted
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @return       for each model, {@link #QUEUED} or -1 if it was refused
+     */
+    @Override
+    public <T extends Model> int[] deleteAll(Collection<T> models) {
+        return enqueueAll(Operation.DELETE, models);
+    }
+
+    /**
+     * Writes every operation queued so far and waits until it is done.
+     */
+    public void flush() {
+        writePending();
+    }
+
+    /**
+     * Stops accepting operations, flushes the queue and stops the background thread. Safe to call twice.
+     * <p>
+     * Waits at most the close timeout for the flusher. If a flush is still running then, for instance on a
+     * database that stopped answering, the call returns and the flusher writes what is left once that flush ends.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            flushNeeded.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (!flusher.join(Duration.ofMillis(closeTimeoutMillis))) {
+                logger.severe("Write-behind flush still running after " + closeTimeoutMillis + " ms, closing with "
+                        + getQueueDepth() + " operation(s) queued.");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writePending(); // In case the flusher was interrupted before emptying the queue
+    }
+
+    /**
+     * Sets how many times each row of a failed batch is sent again on its own before it is reported
+     * as a {@link FailedWrite}.
+     *
+     * @param maxRetries                the number of single-row attempts, 0 to report failed rows at once
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries must not be negative.");
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets the wait before the first single-row retry of a row, doubled before each following one.
+     *
+     * @param retryBackoffMillis        the initial backoff in milliseconds, 0 to retry at once
+     * @throws IllegalArgumentException if the backoff is negative
+     */
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        if (retryBackoffMillis < 0) {
+            throw new IllegalArgumentException("Retry backoff must not be negative.");
+        }
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    /**
+     * Sets how long {@link #close()} waits for the background flusher to finish.
+     *
+     * @param closeTimeoutMillis        the timeout in milliseconds
+     * @throws IllegalArgumentException if the timeout is lower than 1
+     */
+    public void setCloseTimeoutMillis(long closeTimeoutMillis) {
+        if (closeTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Close timeout must be positive.");
+        }
+        this.closeTimeoutMillis = closeTimeoutMillis;
+    }
+
+    public long getCloseTimeoutMillis() {
+        return closeTimeoutMillis;
+    }
+
+    /**
+     * Sets the listener told of every write that failed after its retries. It runs on the flushing thread,
+     * so it should return quickly; an exception it throws is logged and ignored.
+     *
+     * @param failureListener the listener, or {@code null} to remove it
+     */
+    public void setFailureListener(Consumer<FailedWrite> failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Takes the writes that failed after their retries, oldest first. At most {@code maxPending} are kept,
+     * older ones being dropped once that many wait.
+     *
+     * @return the failed writes since the last call, possibly empty
+     */
+    public List<FailedWrite> drainFailedWrites() {
+        lock.lock();
+        try {
+            List<FailedWrite> drained = new ArrayList<>(failedWrites);
+            failedWrites.clear();
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of keys waiting to be flushed
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public WriteBehindMetrics getMetrics() {
+        return metrics;
+    }
+
+    private <T extends Model> int[] enqueueAll(Operation operation, Collection<T> models) {
+        int[] results = new int[models.size()];
+        int i = 0;
+        for (T model : models) {
+            results[i++] = enqueue(operation, model);
+        }
+        return results;
+    }
+
+    /**
+     * Queues an operation, merging it into the pending operation on the same key if there is one,
+     * and waits for room if the queue is full.
+     */
+    private <T extends Model> int enqueue(Operation operation, T model) {
+        ModelMetadata<T> metadata = ModelMetadata.of(model);
+        PendingKey key = new PendingKey(metadata.getModelClass(),
+                Arrays.asList(metadata.getPrimaryKeyValues(model).values().toArray()));
+        Model copy = metadata.copy(model); // Later changes by the caller must not leak into the queue
+
+        lock.lock();
+        try {
+            long remainingNanos = offerTimeoutNanos;
+            while (!closed && pending.size() >= maxPending && !pending.containsKey(key)) {
+                flushNeeded.signal();
+                if (remainingNanos <= 0) {
+                    break;
+                }
+                remainingNanos = notFull.awaitNanos(remainingNanos);
+            }
+            if (closed || pending.size() >= maxPending && !pending.containsKey(key)) {
+                metrics.recordRejected();
+                logger.warning("Write-behind " + (closed ? "closed" : "queue full") + ", " + operation
+                        + " of " + metadata.getTableName() + " refused.");
+                return -1;
+            }
+
+            PendingOperation existing = pending.get(key);
+            if (existing == null) {
+                if (pending.isEmpty()) {
+                    oldestEnqueuedAt = System.nanoTime();
+                }
+                pending.put(key, new PendingOperation(operation, copy, System.nanoTime()));
+                if (pending.size() >= flushSize) {
+                    flushNeeded.signal();
+                }
+            } else {
+                coalesce(key, existing, operation, copy);
+                metrics.recordCoalesced();
+            }
+            metrics.recordEnqueued(pending.size());
+            return QUEUED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.recordRejected();
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merges a new operation into the one already pending for its key; the key keeps its place in the queue.
+     */
+    private void coalesce(PendingKey key, PendingOperation existing, Operation operation, Model model) {
+        Operation merged = coalesce(existing.operation, operation);
+        if (merged == null) {
+            pending.remove(key);
+            notFull.signalAll();
+        } else {
+            existing.operation = merged;
+            existing.model = model;
+        }
+    }
+
+    /**
+     * Returns the single operation with the same effect as a pending operation followed by a new one on the same key.
+     *
+     * @param existing  the operation already pending for the key
+     * @param operation the new operation, one of {@code INSERT}, {@code UPDATE}, {@code UPSERT} or {@code DELETE}
+     * @return          the merged operation, or {@code null} if the two cancel out
+     */
+    static Operation coalesce(Operation existing, Operation operation) {
+        if (operation == Operation.REPLACE) {
+            throw new IllegalArgumentException("Replace is only produced by coalescing.");
+        }
+        return switch (existing) {
+            case INSERT -> switch (operation) {
+                case INSERT, UPDATE -> Operation.INSERT; // Still a new row, with the latest values
+                case UPSERT -> Operation.UPSERT;         // The caller expects the row may already exist
+                default -> null;                         // Deleted before reaching the database, nothing to do
+            };
+            case UPDATE -> switch (operation) {
+                case INSERT, UPSERT -> Operation.UPSERT; // The row may exist or not, the last values win
+                case UPDATE -> Operation.UPDATE;
+                default -> Operation.DELETE;
+            };
+            case UPSERT -> operation == Operation.DELETE ? Operation.DELETE : Operation.UPSERT;
+            case DELETE -> operation == Operation.INSERT || operation == Operation.UPSERT ? Operation.REPLACE : Operation.DELETE;
+            case REPLACE -> operation == Operation.DELETE ? Operation.DELETE : Operation.REPLACE;
+        };
+    }
+
+    /**
+     * Background loop flushing the queue on the size or time trigger until the DAO is closed and empty.
+     */
+    private void runFlusher() {
+        while (true) {
+            lock.lock();
+            try {
+                while (!closed && pending.size() < flushSize) {
+                    if (pending.isEmpty()) {
+                        flushNeeded.await();
+                    } else {
+                        long remainingNanos = oldestEnqueuedAt + flushIntervalNanos - System.nanoTime();
+                        if (remainingNanos <= 0) {
+                            break;
+                        }
+                        flushNeeded.awaitNanos(remainingNanos);
+                    }
+                }
+                if (closed && pending.isEmpty()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            writePending();
+        }
+    }
+
+    /**
+     * Takes every pending operation out of the queue and writes it, in queue order.
+     */
+    private void writePending() {
+        flushLock.lock();
+        try {
+            LinkedHashMap<PendingKey, PendingOperation> batch;
+            long oldest;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                oldest = oldestEnqueuedAt;
+                pending = new LinkedHashMap<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            long start = System.nanoTime();
+            int operations = write(batch.values());
+            metrics.recordFlush(operations, System.nanoTime() - start, start - oldest);
+            logger.fine(() -> "Write-behind flushed " + operations + " operation(s) in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Error flushing write-behind queue", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the operations, grouping consecutive ones of the same kind and model class into one batch.
+     *
+     * @return the number of statements sent, a replace counting as two
+     */
+    private int write(Collection<PendingOperation> operations) {
+        List<Model> run = new ArrayList<>();
+        Operation runOperation = null;
+        Class<?> runClass = null;
+        int written = 0;
+        for (PendingOperation pendingOperation : operations) {
+            // A replace is written as a delete followed by an insert of the same row
+            Operation[] steps = pendingOperation.operation == Operation.REPLACE
+                    ? new Operation[]{Operation.DELETE, Operation.INSERT}
+                    : new Operation[]{pendingOperation.operation};
+            for (Operation step : steps) {
+                if (step != runOperation || pendingOperation.model.getClass() != runClass) {
+                    writeRun(runOperation, run);
+                    run = new ArrayList<>();
+                    runOperation = step;
+                    runClass = pendingOperation.model.getClass();
+                }
+                run.add(pendingOperation.model);
+                written++;
+            }
+        }
+        writeRun(runOperation, run);
+        return written;
+    }
+
+    /**
+     * Writes a run as one batch, then retries the rows of its failed chunks one by one. The chunks before
+     * a failed one are committed, so only the rows of chunks reported as -1 are sent again. Once the database
+     * cannot be reached, after the batch or after a row that failed every retry, the rows left are reported
+     * without further attempts, so an outage costs one probe rather than a borrow timeout per row.
+     */
+    private void writeRun(Operation operation, List<Model> models) {
+        if (models.isEmpty()) {
+            return;
+        }
+        int chunkSize = delegate.getBatchSize();
+        int[] chunkRows = switch (operation) {
+            case INSERT -> delegate.insertAll(models, chunkSize);
+            case UPDATE -> delegate.updateAll(models, chunkSize);
+            case UPSERT -> delegate.upsertAll(models, chunkSize);
+            case DELETE -> delegate.deleteAll(models, chunkSize);
+            case REPLACE -> throw new IllegalStateException("Replace is written as delete and insert.");
+        };
+        List<Model> failedRows = new ArrayList<>();
+        for (int chunk = 0; chunk < chunkRows.length; chunk++) {
+            if (chunkRows[chunk] == -1) {
+                failedRows.addAll(models.subList(chunk * chunkSize, Math.min((chunk + 1) * chunkSize, models.size())));
+            }
+        }
+        if (failedRows.isEmpty()) {
+            return;
+        }
+
+        int failed = 0;
+        int unsent = 0;
+        boolean retrying = maxRetries > 0 && delegate.canConnect();
+        for (Model model : failedRows) {
+            if (!retrying) {
+                reportFailure(new FailedWrite(operation.statementType, model, 1, Instant.now()));
+                unsent++;
+            } else if (!retry(operation, model)) {
+                failed++;
+                retrying = !Thread.currentThread().isInterrupted() && delegate.canConnect();
+            }
+        }
+        String table = ModelMetadata.of(models.get(0)).getTableName();
+        if (failed > 0) {
+            logger.severe("Write-behind " + operation + " of " + failed + " " + table
+                    + " row(s) failed after their retries, see the previous errors.");
+        }
+        if (unsent > 0) {
+            logger.severe("Write-behind " + operation + " of " + unsent + " " + table
+                    + " row(s) failed without retries, the database is unreachable or retries are disabled.");
+        }
+    }
+
+    /**
+     * Sends one row of a failed batch on its own, up to {@code maxRetries} times with a doubling backoff,
+     * and reports it if it still fails. An interrupt ends the retries.
+     *
+     * @return {@code true} if an attempt succeeded
+     */
+    private boolean retry(Operation operation, Model model) {
+        int retries = maxRetries;
+        long backoffMillis = retryBackoffMillis;
+        int attempt = 1;
+        for (; attempt <= retries; attempt++) {
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMillis *= 2;
+            metrics.recordRetried();
+            try {
+                int rows = switch (operation) {
+                    case INSERT -> delegate.insert(model);
+                    case UPDATE -> delegate.update(model);
+                    case UPSERT -> delegate.upsert(model);
+                    case DELETE -> delegate.delete(model);
+                    case REPLACE -> throw new IllegalStateException("Replace is written as delete and insert.");
+                };
+                if (rows != -1) {
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error retrying write-behind " + operation, e);
+            }
+        }
+        reportFailure(new FailedWrite(operation.statementType, model, attempt, Instant.now()));
+        return false;
+    }
+
+    private void reportFailure(FailedWrite failedWrite) {
+        metrics.recordFailed(1);
+        lock.lock();
+        try {
+            if (failedWrites.size() >= maxPending) {
+                failedWrites.removeFirst();
+                logger.warning("Write-behind failed writes not drained, dropping the oldest.");
+            }
+            failedWrites.addLast(failedWrite);
+        } finally {
+            lock.unlock();
+        }
+        Consumer<FailedWrite> listener = failureListener;
+        if (listener != null) {
+            try {
+                listener.accept(failedWrite);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Write-behind failure listener threw", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.phinix.lib.common.dao.dml;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the activity of a {@link WriteBehindDMLDao}.
+ * <p>
+ * Counters are cumulative since the DAO was created and can be read at any time without
+ * blocking writers. The queue depth itself is read from {@link WriteBehindDMLDao#getQueueDepth()}.
+ */
+public class WriteBehindMetrics {
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder retriedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong maxDelayNanos = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+
+    void recordEnqueued(int queueDepth) {
+        enqueuedCount.increment();
+        maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+    }
+
+    void recordCoalesced() {
+        coalescedCount.increment();
+    }
+
+    void recordRejected() {
+        rejectedCount.increment();
+    }
+
+    void recordFlush(int operations, long flushNanos, long oldestDelayNanos) {
+        flushCount.increment();
+        writtenCount.add(operations);
+        totalFlushNanos.add(flushNanos);
+        maxFlushNanos.accumulateAndGet(flushNanos, Math::max);
+        maxDelayNanos.accumulateAndGet(oldestDelayNanos, Math::max);
+    }
+
+    void recordRetried() {
+        retriedCount.increment();
+    }
+
+    void recordFailed(int operations) {
+        failedCount.add(operations);
+    }
+
+    /**
+     * @return the number of operations accepted, coalesced ones included
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount.sum();
+    }
+
+    /**
+     * @return the number of operations merged into a pending operation on the same primary key
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * @return the number of operations refused because the queue stayed full or the DAO was closed
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * @return the number of operations sent to the database, failed ones included
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * @return the number of single-row attempts made for rows of failed batches
+     */
+    public long getRetriedCount() {
+        return retriedCount.sum();
+    }
+
+    /**
+     * @return the number of operations that still failed after their retries
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * @return the mean time a flush took to write its operations, in milliseconds
+     */
+    public double getAverageFlushMillis() {
+        long flushes = flushCount.sum();
+        return flushes == 0 ? 0 : (double) totalFlushNanos.sum() / flushes / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the longest time a flush took to write its operations, in milliseconds
+     */
+    public double getMaxFlushMillis() {
+        return (double) maxFlushNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the longest time an operation waited in the queue before its flush started, in milliseconds
+     */
+    public double getMaxDelayMillis() {
+        return (double) maxDelayNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the highest number of pending operations seen
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindMetrics{" +
+                "enqueued=" + getEnqueuedCount() +
+                ", coalesced=" + getCoalescedCount() +
+                ", rejected=" + getRejectedCount() +
+                ", flushes=" + getFlushCount() +
+                ", written=" + getWrittenCount() +
+                ", retried=" + getRetriedCount() +
+                ", failed=" + getFailedCount() +
+                ", averageFlushMillis=" + getAverageFlushMillis() +
+                ", maxFlushMillis=" + getMaxFlushMillis() +
+                ", maxDelayMillis=" + getMaxDelayMillis() +
+                ", maxQueueDepth=" + getMaxQueueDepth() +
+                '}';
+    }
+}
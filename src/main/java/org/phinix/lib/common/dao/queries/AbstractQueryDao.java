@@ -1,36 +1,78 @@
 package org.phinix.lib.common.dao.queries;
 
+import org.phinix.lib.common.cache.CachedQuery;
+import org.phinix.lib.common.cache.CachedResult;
+import org.phinix.lib.common.cache.EntityCache;
+import org.phinix.lib.common.cache.QueryResultCache;
 import org.phinix.lib.common.util.Model;
-import org.phinix.lib.common.util.factories.DMLStatementFactory;
-import org.phinix.lib.service.MySQLConnection;
+import org.phinix.lib.common.util.factories.StatementTemplateCache;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.common.util.metadata.ColumnMetadata;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.metrics.DaoOperation;
+import org.phinix.lib.metrics.MetricsRegistry;
+import org.phinix.lib.metrics.SlowQueryLog;
+import org.phinix.lib.metrics.jfr.DaoEvents;
+import org.phinix.lib.metrics.jfr.ResultFetchEvent;
+import org.phinix.lib.service.ConnectionProvider;
 import org.phinix.lib.common.util.factories.QueryFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * {@code AbstractQueryDao} is an abstract class that implements the {@link QueryDao} interface.
  * This class handles the execution of SQL queries, delegating the construction of statements to {@link QueryFactory}.
+ * <p>
+ * Besides the raw {@link ResultSet} API, it materializes typed models through {@link RowMapper}s,
+ * see {@link #findById(Class, Object...)}, {@link #findAllById(Class, Collection)}, {@link #findAll(Class)} and {@link #queryForList(String, RowMapper, Object...)}.
+ * Large results can be consumed lazily through {@link #stream(String, RowMapper, Object...)}, and
+ * {@link #query(String, StatementBinder, ResultSetHandler)} gives full control over a result set
+ * while still owning the statement lifecycle. Every query is recorded in a {@link MetricsRegistry}
+ * and checked by its {@link SlowQueryLog}, and its phases emit flight recorder events through {@link DaoEvents}.
  */
 public abstract class AbstractQueryDao implements QueryDao {
     private static final Logger logger = Logger.getLogger(AbstractQueryDao.class.getName());
-    private final MySQLConnection mySQLConnection;
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int DEFAULT_CURSOR_FETCH_SIZE = 1000;
+    private static final int[] KEY_CHUNK_SHAPES = {1, 4, 16, 64, 256};
+    private final ConnectionProvider connectionProvider;
+    private volatile int fetchSize = MYSQL_STREAMING_FETCH_SIZE;
+    private volatile EntityCache entityCache;
+    private volatile QueryResultCache resultCache;
+    private volatile MetricsRegistry metricsRegistry = MetricsRegistry.global();
 
     /**
-     * Constructor that initializes the DAO with a database connection.
+     * Constructor that initializes the DAO with a connection provider.
      *
-     * @param database the MySQL connection to be used for executing queries
+     * @param database the connection provider to be used for executing queries
      */
-    public AbstractQueryDao(MySQLConnection database) {
-        this.mySQLConnection = database;
+    public AbstractQueryDao(ConnectionProvider database) {
+        this.connectionProvider = database;
     }
 
     /**
-     * Executes a SELECT query without parameters and returns a result set.
+     * Executes a SELECT query bound to the model's primary keys and returns a result set.
+     * <p>
+     * The returned ResultSet keeps its pooled connection borrowed; closing the ResultSet
+     * closes its statement and gives the connection back to the pool. Result sets that are
+     * never closed are reported by the {@link ResourceLeakDetector}. Prefer
+     * {@link #query(String, StatementBinder, ResultSetHandler)}, which cannot leak.
      *
      * @param query         the SQL query to be executed
      * @return              the ResultSet containing the query results
@@ -38,22 +80,579 @@ public abstract class AbstractQueryDao implements QueryDao {
      */
     @Override
     public ResultSet executeQuery(String query, Model model) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.SELECT, model.getClass());
+        PreparedStatement preparedStatement = null;
         try {
-            PreparedStatement preparedStatement = mySQLConnection.getDatabase().prepareStatement(query);
+            preparedStatement = DaoEvents.prepare(connection, query, DaoOperation.SELECT, model.getClass());
             // Bind the primary key values to the PreparedStatement
-            Map<String, Object> primaryKeys = DMLStatementFactory.getPrimaryKeyValues(model);
-            int index = 1;
-            for (Object value : primaryKeys.values()) {
-                preparedStatement.setObject(index++, value); // Bind primary key values
+            ModelMetadata.of(model).bindPrimaryKeys(model, preparedStatement, 1);
+
+            ResultSet resultSet = DaoEvents.executeQuery(preparedStatement, DaoOperation.SELECT, model.getClass());
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(DaoOperation.SELECT, model.getClass(), elapsed, -1);
+            // The result set is still open, the plan cannot run on its connection
+            traceQuery(null, query, target -> ModelMetadata.of(model).bindPrimaryKeys(model, target, 1), -1, elapsed);
+            return ConnectionBoundResultSet.wrap(resultSet, preparedStatement, connection);
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(DaoOperation.SELECT, model.getClass(), System.nanoTime() - start);
+            logger.log(Level.SEVERE, "Error executing query", e);
+            if (preparedStatement != null) {
+                preparedStatement.close();
+            }
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the model whose primary key matches the given values.
+     * <p>
+     * When an {@link EntityCache} is set and caches the model class, the cache is looked up first
+     * and the model read from the database is cached for the next lookups.
+     *
+     * @param modelClass                the model class to look up
+     * @param keys                      the primary key values, in the declaration order of the @PrimaryKey fields
+     * @param <T>                       the type of the model, which must extend {@link Model}
+     * @return                          the matching model, or an empty Optional if there is none
+     * @throws SQLException             if an error occurs during query execution
+     * @throws IllegalArgumentException if the number of keys does not match the model's primary key
+     */
+    public <T extends Model> Optional<T> findById(Class<T> modelClass, Object... keys) throws SQLException {
+        int keyColumns = ModelMetadata.of(modelClass).requirePrimaryKeyColumns().size();
+        if (keys.length != keyColumns) {
+            throw new IllegalArgumentException(modelClass.getSimpleName() + " has " + keyColumns
+                    + " primary key column(s) but " + keys.length + " value(s) were given.");
+        }
+
+        EntityCache cache = entityCache;
+        if (cache == null || !cache.isCached(modelClass)) {
+            return selectById(modelClass, keys);
+        }
+
+        // Hot reference data is answered from the cache without a round-trip
+        T cached = cache.get(modelClass, keys);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.beginLoad();
+        Optional<T> result = selectById(modelClass, keys);
+        result.ifPresent(model -> cache.putLoaded(model, stamp));
+        return result;
+    }
+
+    /**
+     * Finds the models whose primary keys are in the given collection, in a few round-trips.
+     * <p>
+     * Keys are looked up in chunks with {@code WHERE id IN (...)}, or {@code WHERE (a,b,c) IN ((...),...)}
+     * for composite keys. Chunks hold 1, 4, 16, 64 or 256 keys, the last chunk being padded with copies
+     * of its last key, so only five statements per model class reach the statement caches. Keys found in
+     * the {@link EntityCache}, when one is set and caches the model class, are not queried.
+     * <p>
+     * A single-column key is given as its value; a composite key as a {@link List} of its values in the
+     * declaration order of the @PrimaryKey fields, for example {@code List.of(register, numDriver, idPlace)}.
+     * Values must have the boxed type of their field to be matched with the rows read back.
+     *
+     * @param modelClass                the model class to look up
+     * @param keys                      the primary keys to look up; duplicates are looked up once
+     * @param <K>                       the type of the keys
+     * @param <T>                       the type of the model, which must extend {@link Model}
+     * @return                          the models found, keyed by the requested key, in request order;
+     *                                  keys without a row are absent
+     * @throws SQLException             if an error occurs during query execution
+     * @throws IllegalArgumentException if a composite key is not a list of the right size
+     */
+    public <K, T extends Model> Map<K, T> findAllById(Class<T> modelClass, Collection<K> keys) throws SQLException {
+        ModelMetadata<T> metadata = ModelMetadata.of(modelClass);
+        List<ColumnMetadata> keyColumns = metadata.requirePrimaryKeyColumns();
+
+        // Normalized key values, as read back from the rows, to the key the caller asked for
+        Map<List<Object>, K> requested = new LinkedHashMap<>();
+        for (K key : keys) {
+            requested.putIfAbsent(keyValues(modelClass, keyColumns.size(), key), key);
+        }
+
+        EntityCache cache = entityCache;
+        boolean cached = cache != null && cache.isCached(modelClass);
+        Map<List<Object>, T> found = new HashMap<>();
+        List<List<Object>> missing = new ArrayList<>();
+        for (List<Object> key : requested.keySet()) {
+            T model = cached ? cache.get(modelClass, key.toArray()) : null;
+            if (model != null) {
+                found.put(key, model);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        long stamp = cached ? cache.beginLoad() : 0;
+        ModelRowMapper<T> rowMapper = ModelRowMapper.of(modelClass);
+        int offset = 0;
+        while (offset < missing.size()) {
+            int shape = keyChunkShape(missing.size() - offset);
+            int count = Math.min(shape, missing.size() - offset);
+            Object[] parameters = new Object[shape * keyColumns.size()];
+            for (int i = 0; i < shape; i++) {
+                List<Object> key = missing.get(offset + Math.min(i, count - 1)); // Pad with the last key
+                for (int column = 0; column < key.size(); column++) {
+                    parameters[i * key.size() + column] = key.get(column);
+                }
+            }
+
+            String query = StatementTemplateCache.get(modelClass, StatementType.SELECT_BY_PRIMARY_KEYS, shape);
+            for (T model : queryForList(modelClass, query, rowMapper, parameters)) {
+                List<Object> key = new ArrayList<>(keyColumns.size());
+                for (ColumnMetadata column : keyColumns) {
+                    key.add(column.get(model));
+                }
+                found.put(key, model);
+                if (cached) {
+                    cache.putLoaded(model, stamp);
+                }
+            }
+            offset += count;
+        }
+
+        Map<K, T> results = new LinkedHashMap<>();
+        requested.forEach((key, requestedKey) -> {
+            T model = found.get(key);
+            if (model != null) {
+                results.put(requestedKey, model);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Reads one page of the model's table in primary key order, using keyset (seek) pagination.
+     * <p>
+     * The page holds the first {@code limit} rows whose primary key is greater than {@code afterKey},
+     * read with {@code WHERE (a,b) > (?,?) ORDER BY a,b LIMIT ?}. Since the server seeks straight to the
+     * key instead of skipping rows like {@code OFFSET} does, the latency of a page does not grow with its
+     * depth. Rows inserted or deleted between two pages are seen or skipped consistently with their key.
+     * <pre>{@code
+     * Page<Routes> page = dao.page(Routes.class, null, 500);
+     * while (page.hasNext()) {
+     *     page = dao.page(Routes.class, page.getNextKey(), 500);
+     * }
+     * }</pre>
+     *
+     * @param modelClass                the model class to read
+     * @param afterKey                  the key of the last model of the previous page, as returned by
+     *                                  {@link Page#getNextKey()}, or {@code null} for the first page
+     * @param limit                     the maximum number of models of the page
+     * @param <T>                       the type of the model, which must extend {@link Model}
+     * @return                          the page, whose next key is {@code null} once the table is exhausted
+     * @throws SQLException             if an error occurs during query execution
+     * @throws IllegalArgumentException if the limit is lower than 1 or a composite key is not a list of the right size
+     */
+    public <T extends Model> Page<T> page(Class<T> modelClass, Object afterKey, int limit) throws SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1: " + limit);
+        }
+        List<ColumnMetadata> keyColumns = ModelMetadata.of(modelClass).requirePrimaryKeyColumns();
+
+        // One extra row tells whether another page follows without a further round-trip
+        Object[] parameters;
+        String query;
+        if (afterKey == null) {
+            query = StatementTemplateCache.get(modelClass, StatementType.SELECT_FIRST_PAGE);
+            parameters = new Object[]{limit + 1};
+        } else {
+            query = StatementTemplateCache.get(modelClass, StatementType.SELECT_PAGE_AFTER);
+            List<Object> key = keyValues(modelClass, keyColumns.size(), afterKey);
+            parameters = key.toArray(new Object[key.size() + 1]);
+            parameters[key.size()] = limit + 1;
+        }
+        List<T> items = queryForList(modelClass, query, ModelRowMapper.of(modelClass), parameters);
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+
+        items = items.subList(0, limit);
+        T last = items.get(limit - 1);
+        Object nextKey;
+        if (keyColumns.size() == 1) {
+            nextKey = keyColumns.get(0).get(last);
+        } else {
+            List<Object> values = new ArrayList<>(keyColumns.size());
+            for (ColumnMetadata column : keyColumns) {
+                values.add(column.get(last));
+            }
+            nextKey = List.copyOf(values);
+        }
+        return new Page<>(items, nextKey);
+    }
+
+    /**
+     * Returns the values of a key given to {@link #findAllById(Class, Collection)} or
+     * {@link #page(Class, Object, int)} as a list.
+     */
+    private static List<Object> keyValues(Class<? extends Model> modelClass, int keyColumns, Object key) {
+        if (keyColumns == 1) {
+            return Collections.singletonList(key);
+        }
+        if (!(key instanceof List<?> values) || values.size() != keyColumns) {
+            throw new IllegalArgumentException(modelClass.getSimpleName() + " has a composite primary key of "
+                    + keyColumns + " columns, each key must be a List of " + keyColumns + " values: " + key);
+        }
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * Returns the smallest chunk shape holding the remaining keys, or the largest shape.
+     */
+    private static int keyChunkShape(int remaining) {
+        for (int shape : KEY_CHUNK_SHAPES) {
+            if (shape >= remaining) {
+                return shape;
+            }
+        }
+        return KEY_CHUNK_SHAPES[KEY_CHUNK_SHAPES.length - 1];
+    }
+
+    /**
+     * Runs the cached SELECT by primary key of the model class.
+     */
+    private <T extends Model> Optional<T> selectById(Class<T> modelClass, Object... keys) throws SQLException {
+        String query = StatementTemplateCache.get(modelClass, StatementType.SELECT_BY_PRIMARY_KEY);
+        List<T> results = queryForList(modelClass, query, ModelRowMapper.of(modelClass), keys);
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /**
+     * Finds every row of the model's table.
+     *
+     * @param modelClass    the model class to load
+     * @param <T>           the type of the model, which must extend {@link Model}
+     * @return              every model of the table
+     * @throws SQLException if an error occurs during query execution
+     */
+    public <T extends Model> List<T> findAll(Class<T> modelClass) throws SQLException {
+        String query = StatementTemplateCache.get(modelClass, StatementType.SELECT_ALL);
+        return queryForList(modelClass, query, ModelRowMapper.of(modelClass));
+    }
+
+    /**
+     * Finds every row of the model's table together with the models it references, in a single JOIN.
+     * <p>
+     * Every {@link org.phinix.lib.common.util.References} field with a transient holder is resolved by a
+     * {@code LEFT JOIN} on the referenced table, and the referenced model is stored in the holder; a holder
+     * stays {@code null} when the referenced row does not exist. Referenced models are shared through an
+     * {@link IdentityMap}, so a bus serving a thousand routes is materialized once.
+     *
+     * @param modelClass                the model class to load
+     * @param <T>                       the type of the model, which must extend {@link Model}
+     * @return                          every model of the table, with its references loaded
+     * @throws SQLException             if an error occurs during query execution
+     * @throws IllegalArgumentException if the model has no reference with a holder
+     */
+    public <T extends Model> List<T> findAllJoined(Class<T> modelClass) throws SQLException {
+        String query = StatementTemplateCache.get(modelClass, StatementType.JOIN_FETCH_ALL);
+        return queryForList(modelClass, query, new JoinFetchRowMapper<>(modelClass, new IdentityMap()));
+    }
+
+    /**
+     * Finds the model whose primary key matches the given values together with the models it references,
+     * in a single JOIN. The entity cache is not used.
+     *
+     * @param modelClass                the model class to look up
+     * @param keys                      the primary key values, in the declaration order of the @PrimaryKey fields
+     * @param <T>                       the type of the model, which must extend {@link Model}
+     * @return                          the matching model with its references loaded, or an empty Optional
+     * @throws SQLException             if an error occurs during query execution
+     * @throws IllegalArgumentException if the model has no reference with a holder
+     * @see #findAllJoined(Class)
+     */
+    public <T extends Model> Optional<T> findByIdJoined(Class<T> modelClass, Object... keys) throws SQLException {
+        String query = StatementTemplateCache.get(modelClass, StatementType.JOIN_FETCH_BY_PRIMARY_KEY);
+        List<T> results = queryForList(modelClass, query, new JoinFetchRowMapper<>(modelClass, new IdentityMap()), keys);
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    /**
+     * Creates a loader resolving {@link org.phinix.lib.common.util.Lazy} references in batches through
+     * {@link #findAllById(Class, Collection)}, and through the entity cache when one is set.
+     * <pre>{@code
+     * BatchLoader loader = dao.newBatchLoader();
+     * List<Routes> routes = loader.attach(dao.findAll(Routes.class));
+     * routes.forEach(route -> route.getDriver()); // One query per 256 distinct drivers
+     * }</pre>
+     *
+     * @return a new loader, meant for one unit of work
+     */
+    public BatchLoader newBatchLoader() {
+        return new BatchLoader(this);
+    }
+
+    /**
+     * Executes a SELECT query and maps every row with the given row mapper.
+     * <p>
+     * The statement, the result set and the pooled connection are all released before returning.
+     *
+     * @param query         the SQL query to be executed
+     * @param rowMapper     the mapper applied to each row
+     * @param parameters    the values bound to the query placeholders, in order
+     * @param <R>           the type each row is mapped to
+     * @return              the mapped rows, in result set order
+     * @throws SQLException if an error occurs during query execution
+     */
+    public <R> List<R> queryForList(String query, RowMapper<R> rowMapper, Object... parameters) throws SQLException {
+        return queryForList(null, query, rowMapper, parameters);
+    }
+
+    /**
+     * Runs {@link #queryForList(String, RowMapper, Object...)}, recording the call under the model class.
+     */
+    private <R> List<R> queryForList(Class<? extends Model> modelClass, String query, RowMapper<R> rowMapper,
+                                     Object... parameters) throws SQLException {
+        return query(modelClass, query, StatementBinder.of(parameters), resultSet -> {
+            List<R> results = new ArrayList<>();
+            while (resultSet.next()) {
+                results.add(DaoEvents.mapRow(rowMapper, resultSet, modelClass, results.size() + 1));
             }
+            return results;
+        }, List::size);
+    }
+
+    /**
+     * Executes a SELECT query, letting the caller bind its parameters and consume its result set.
+     * <p>
+     * This method owns the whole lifecycle of the statement: it borrows a connection, prepares the
+     * statement, hands it to the binder, executes it, hands the result set to the handler and then
+     * closes the result set, the statement and the connection, whether the handler succeeds or not.
+     * Nothing the handler receives may be used after it returns.
+     *
+     * @param query         the SQL query to be executed
+     * @param binder        binds the values of the query placeholders
+     * @param handler       consumes the result set and produces the result
+     * @param <R>           the type of the result
+     * @return              the value returned by the handler
+     * @throws SQLException if an error occurs during query execution
+     */
+    public <R> R query(String query, StatementBinder binder, ResultSetHandler<R> handler) throws SQLException {
+        return query(null, query, binder, handler, result -> -1);
+    }
+
+    /**
+     * Runs {@link #query(String, StatementBinder, ResultSetHandler)} and records the call, with its row count
+     * when the result can tell it, under the model class or as raw SQL when the class is {@code null}.
+     */
+    private <R> R query(Class<? extends Model> modelClass, String query, StatementBinder binder,
+                        ResultSetHandler<R> handler, ToLongFunction<R> rowCount) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.SELECT, modelClass);
+             PreparedStatement preparedStatement = DaoEvents.prepare(connection, query, DaoOperation.SELECT, modelClass)) {
+            binder.bind(preparedStatement);
 
-            return preparedStatement.executeQuery();
-        } catch (SQLException e) {
+            R result;
+            ResultFetchEvent fetchEvent;
+            try (ResultSet resultSet = DaoEvents.executeQuery(preparedStatement, DaoOperation.SELECT, modelClass)) {
+                fetchEvent = DaoEvents.beginFetch();
+                result = handler.handle(resultSet);
+            }
+            long elapsed = System.nanoTime() - start;
+            long rows = rowCount.applyAsLong(result);
+            DaoEvents.endFetch(fetchEvent, DaoOperation.SELECT, modelClass, rows);
+            metricsRegistry.record(DaoOperation.SELECT, modelClass, elapsed, rows);
+            traceQuery(connection, query, binder, rows, elapsed);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(DaoOperation.SELECT, modelClass, System.nanoTime() - start);
             logger.log(Level.SEVERE, "Error executing query", e);
             throw e;
         }
     }
 
+    /**
+     * Executes a SELECT query opted in to result caching and returns its rows materialized.
+     * <p>
+     * When a {@link QueryResultCache} is set, a result already cached for the same SQL and parameters is
+     * returned without a round-trip; otherwise the query runs and its result is cached, tagged with the
+     * tables the query declares. Without a cache the query simply runs.
+     *
+     * @param query         the cacheable query and the tables it reads
+     * @param parameters    the values bound to the query placeholders, in order
+     * @return              the materialized result, shared with other callers and read-only
+     * @throws SQLException if an error occurs during query execution
+     */
+    public CachedResult queryCached(CachedQuery query, Object... parameters) throws SQLException {
+        QueryResultCache cache = resultCache;
+        if (cache == null) {
+            return query(null, query.sql(), StatementBinder.of(parameters), CachedResult::materialize, CachedResult::getRowCount);
+        }
+
+        CachedResult cached = cache.get(query, parameters);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.beginLoad();
+        CachedResult result = query(null, query.sql(), StatementBinder.of(parameters), CachedResult::materialize,
+                CachedResult::getRowCount);
+        cache.putLoaded(query, parameters, result, stamp);
+        return result;
+    }
+
+    /**
+     * Streams every row of the model's table without loading the whole table in memory.
+     *
+     * @param modelClass    the model class to load
+     * @param <T>           the type of the model, which must extend {@link Model}
+     * @return              a lazily fetched stream of models, which must be closed
+     * @throws SQLException if an error occurs during query execution
+     * @see #stream(String, RowMapper, Object...)
+     */
+    public <T extends Model> Stream<T> streamAll(Class<T> modelClass) throws SQLException {
+        String query = StatementTemplateCache.get(modelClass, StatementType.SELECT_ALL);
+        return stream(modelClass, query, ModelRowMapper.of(modelClass));
+    }
+
+    /**
+     * Executes a SELECT query and returns its rows as a lazily fetched stream.
+     * <p>
+     * Rows are fetched from the server as the stream is consumed, so memory stays flat whatever
+     * the number of rows. With the default fetch size, Connector/J streams the result row by row;
+     * a positive fetch size uses a server-side cursor instead (see {@link #setFetchSize(int)}).
+     * The stream keeps a pooled connection borrowed until it is closed or fully consumed, so it
+     * should be used in a try-with-resources block.
+     *
+     * @param query         the SQL query to be executed
+     * @param rowMapper     the mapper applied to each row
+     * @param parameters    the values bound to the query placeholders, in order
+     * @param <R>           the type each row is mapped to
+     * @return              a lazily fetched stream of mapped rows, which must be closed
+     * @throws SQLException if an error occurs during query execution
+     */
+    public <R> Stream<R> stream(String query, RowMapper<R> rowMapper, Object... parameters) throws SQLException {
+        return stream(null, query, rowMapper, parameters);
+    }
+
+    /**
+     * Runs {@link #stream(String, RowMapper, Object...)}, recording the time to the first row under the model class.
+     */
+    private <R> Stream<R> stream(Class<? extends Model> modelClass, String query, RowMapper<R> rowMapper,
+                                 Object... parameters) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = DaoEvents.borrow(connectionProvider, DaoOperation.SELECT, modelClass);
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = DaoEvents.prepare(connection, query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                    DaoOperation.SELECT, modelClass);
+            preparedStatement.setFetchSize(effectiveFetchSize(connection));
+            StatementBinder binder = StatementBinder.of(parameters);
+            binder.bind(preparedStatement);
+
+            ResultSetIterator<R> iterator = new ResultSetIterator<>(
+                    DaoEvents.executeQuery(preparedStatement, DaoOperation.SELECT, modelClass),
+                    preparedStatement, connection, rowMapper, modelClass);
+            long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(DaoOperation.SELECT, modelClass, elapsed, -1);
+            traceQuery(null, query, binder, -1, elapsed); // Rows are still being streamed
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+        } catch (SQLException | RuntimeException e) {
+            metricsRegistry.recordError(DaoOperation.SELECT, modelClass, System.nanoTime() - start);
+            logger.log(Level.SEVERE, "Error executing streaming query", e);
+            if (preparedStatement != null) {
+                preparedStatement.close();
+            }
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reports a query to the slow query log of the registry, which only binds it again if it is logged.
+     *
+     * @param connection   the connection the query ran on, or {@code null} if its result set is still open
+     * @param query        the SQL of the query
+     * @param binder       the binder of the query
+     * @param rows         the rows returned, or -1 if unknown
+     * @param elapsedNanos the duration of the query in nanoseconds
+     */
+    private void traceQuery(Connection connection, String query, StatementBinder binder, long rows, long elapsedNanos) {
+        SlowQueryLog slowQueryLog = metricsRegistry.getSlowQueryLog();
+        if (slowQueryLog.isTraced(elapsedNanos)) {
+            slowQueryLog.trace(connection, query, binder, rows, elapsedNanos, AbstractQueryDao.class);
+        }
+    }
+
+    /**
+     * Sets the fetch size used by {@link #stream(String, RowMapper, Object...)}.
+     * <p>
+     * {@link Integer#MIN_VALUE} (the default) makes Connector/J stream rows one by one. A positive
+     * value fetches that many rows per round-trip through a server-side cursor, which requires
+     * {@code useCursorFetch} (enabled by {@link org.phinix.lib.service.MySQLConnection}).
+     *
+     * @param fetchSize the fetch size hint handed to the driver
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the cache answering {@link #findById(Class, Object...)} lookups, or {@code null} to disable it.
+     * <p>
+     * The cache only stays consistent if it is also registered as a listener on the DML DAOs writing
+     * the cached tables.
+     *
+     * @param entityCache the cache to use, or {@code null}
+     * @see org.phinix.lib.common.dao.dml.AbstractDMLDao#addListener(org.phinix.lib.common.dao.dml.DMLListener)
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Sets the cache answering {@link #queryCached(CachedQuery, Object...)}, or {@code null} to disable it.
+     * <p>
+     * The cache only stays consistent if it is also registered as a listener on the DML DAOs writing
+     * the tables of the cached queries.
+     *
+     * @param resultCache the cache to use, or {@code null}
+     * @see org.phinix.lib.common.dao.dml.AbstractDMLDao#addListener(org.phinix.lib.common.dao.dml.DMLListener)
+     */
+    public void setResultCache(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Sets the registry the queries of this DAO are recorded into, {@link MetricsRegistry#global()} by default.
+     *
+     * @param metricsRegistry the registry to record into
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = Objects.requireNonNull(metricsRegistry);
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Row by row streaming through {@link Integer#MIN_VALUE} is specific to Connector/J, other
+     * drivers reject a negative fetch size and get a regular cursor fetch size instead.
+     */
+    private int effectiveFetchSize(Connection connection) throws SQLException {
+        int size = fetchSize;
+        if (size == MYSQL_STREAMING_FETCH_SIZE && !"MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return DEFAULT_CURSOR_FETCH_SIZE;
+        }
+        return size;
+    }
+
     /**
      * Processes the ResultSet and prints it to the console.
      *
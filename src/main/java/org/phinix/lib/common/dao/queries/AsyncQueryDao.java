@@ -0,0 +1,91 @@
+package org.phinix.lib.common.dao.queries;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.service.BoundedVirtualThreadExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over an {@link AbstractQueryDao}.
+ * <p>
+ * Every call runs the corresponding blocking DAO method on a virtual thread of the given
+ * {@link BoundedVirtualThreadExecutor} and returns immediately with a {@link CompletableFuture},
+ * so independent lookups, for example the bus, driver and place behind one route, can run at
+ * the same time. A {@link java.sql.SQLException} completes the future exceptionally.
+ */
+public class AsyncQueryDao {
+    private final AbstractQueryDao dao;
+    private final BoundedVirtualThreadExecutor executor;
+
+    /**
+     * Creates the facade.
+     *
+     * @param dao      the blocking DAO the calls are delegated to
+     * @param executor the executor running the calls, usually bounded by the connection pool size
+     * @see org.phinix.lib.service.MySQLConnection#getAsyncExecutor()
+     */
+    public AsyncQueryDao(AbstractQueryDao dao, BoundedVirtualThreadExecutor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    /**
+     * @see AbstractQueryDao#findById(Class, Object...)
+     */
+    public <T extends Model> CompletableFuture<Optional<T>> findById(Class<T> modelClass, Object... keys) {
+        return executor.submit(() -> dao.findById(modelClass, keys));
+    }
+
+    /**
+     * @see AbstractQueryDao#findAllById(Class, Collection)
+     */
+    public <K, T extends Model> CompletableFuture<Map<K, T>> findAllById(Class<T> modelClass, Collection<K> keys) {
+        return executor.submit(() -> dao.findAllById(modelClass, keys));
+    }
+
+    /**
+     * @see AbstractQueryDao#page(Class, Object, int)
+     */
+    public <T extends Model> CompletableFuture<Page<T>> page(Class<T> modelClass, Object afterKey, int limit) {
+        return executor.submit(() -> dao.page(modelClass, afterKey, limit));
+    }
+
+    /**
+     * @see AbstractQueryDao#findAll(Class)
+     */
+    public <T extends Model> CompletableFuture<List<T>> findAll(Class<T> modelClass) {
+        return executor.submit(() -> dao.findAll(modelClass));
+    }
+
+    /**
+     * @see AbstractQueryDao#findAllJoined(Class)
+     */
+    public <T extends Model> CompletableFuture<List<T>> findAllJoined(Class<T> modelClass) {
+        return executor.submit(() -> dao.findAllJoined(modelClass));
+    }
+
+    /**
+     * @see AbstractQueryDao#queryForList(String, RowMapper, Object...)
+     */
+    public <R> CompletableFuture<List<R>> queryForList(String query, RowMapper<R> rowMapper, Object... parameters) {
+        return executor.submit(() -> dao.queryForList(query, rowMapper, parameters));
+    }
+
+    /**
+     * @see AbstractQueryDao#query(String, StatementBinder, ResultSetHandler)
+     */
+    public <R> CompletableFuture<R> query(String query, StatementBinder binder, ResultSetHandler<R> handler) {
+        return executor.submit(() -> dao.query(query, binder, handler));
+    }
+
+    /**
+     * @return the blocking DAO wrapped by this facade
+     */
+    public AbstractQueryDao getDao() {
+        return dao;
+    }
+}
@@ -0,0 +1,206 @@
+package org.phinix.lib.common.dao.queries;
+
+import org.phinix.lib.common.util.Lazy;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.common.util.metadata.ReferenceMetadata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Loads the {@link Lazy} references of a set of models in batches, avoiding one query per model.
+ * <p>
+ * {@link #attach(Collection)} fills every {@code Lazy} holder of the models with a pending reference.
+ * The first {@link Lazy#get()} on a reference of some class loads every key of that class still pending,
+ * through {@link AbstractQueryDao#findAllById(Class, Collection)}, so reading the driver of 10,000 routes
+ * costs one query per 256 distinct drivers instead of 10,000 queries. Each (model class, key) gets a single
+ * shared {@code Lazy}, so models referencing the same row share one instance.
+ * <p>
+ * A loader keeps every model it loaded for as long as it is reachable; it is meant for one unit of work,
+ * such as an export or a request, and is thread-safe. Batches are queried outside its lock, so loads of other
+ * classes proceed meanwhile, while a load of a key already in flight waits for that batch instead of querying it again.
+ */
+public final class BatchLoader implements Lazy.Loader {
+    private static final Logger logger = Logger.getLogger(BatchLoader.class.getName());
+
+    private final AbstractQueryDao dao;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Class<?>, Map<Object, Lazy<?>>> references = new HashMap<>();                 // Guarded by lock
+    private final Map<Class<?>, Set<Object>> pending = new HashMap<>();                             // Guarded by lock
+    private final Map<Class<?>, Map<Object, CompletableFuture<Void>>> inFlight = new HashMap<>();  // Guarded by lock
+    private final Map<Class<?>, Map<Object, Model>> loaded = new HashMap<>();                       // Guarded by lock
+    private int batchCount;                                                                         // Guarded by lock
+
+    BatchLoader(AbstractQueryDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Fills the {@link Lazy} holder of every reference of the given models with a pending reference.
+     * References whose holder is not lazy are left untouched.
+     *
+     * @param models the models whose references are attached, usually just read from the database
+     * @param <T>    the type of the model, which must extend {@link Model}
+     * @param <C>    the type of the collection
+     * @return       the given collection
+     */
+    public <T extends Model, C extends Collection<T>> C attach(C models) {
+        for (T model : models) {
+            for (ReferenceMetadata reference : ModelMetadata.of(model).getReferences()) {
+                if (reference.isLazy()) {
+                    reference.setLazy(model, reference(reference.getReferencedClass(), reference.getColumn().get(model)));
+                }
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Returns the shared lazy reference to the model of the given key, registering the key as pending.
+     *
+     * @param modelClass the referenced model class
+     * @param key        the primary key value of the referenced model, or {@code null} for no reference
+     * @param <T>        the type of the model, which must extend {@link Model}
+     * @return           the lazy reference
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Model> Lazy<T> reference(Class<T> modelClass, Object key) {
+        if (key == null) {
+            return Lazy.of(null);
+        }
+        lock.lock();
+        try {
+            Map<Object, Lazy<?>> lazies = references.computeIfAbsent(modelClass, type -> new HashMap<>());
+            Lazy<?> lazy = lazies.get(key);
+            if (lazy == null) {
+                lazy = Lazy.pending(modelClass, key, this);
+                lazies.put(key, lazy);
+                if (!loaded.getOrDefault(modelClass, Map.of()).containsKey(key)) {
+                    pending.computeIfAbsent(modelClass, type -> new LinkedHashSet<>()).add(key);
+                }
+            }
+            return (Lazy<T>) lazy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the model of the given key together with every other pending key of its class. The pending keys
+     * are taken under the lock and queried outside it; if the key is already part of a batch in flight, the
+     * call waits for that batch, and loads the key again itself if the batch failed.
+     *
+     * @param modelClass        the referenced model class
+     * @param key               the primary key value of the referenced model
+     * @param <T>               the type of the model, which must extend {@link Model}
+     * @return                  the referenced model, or {@code null} if it does not exist
+     * @throws RuntimeException if the batched query fails
+     */
+    @Override
+    public <T extends Model> T load(Class<T> modelClass, Object key) {
+        while (true) {
+            Set<Object> keys = null;
+            CompletableFuture<Void> batch;
+            lock.lock();
+            try {
+                Map<Object, Model> models = loaded.computeIfAbsent(modelClass, type -> new HashMap<>());
+                if (models.containsKey(key)) {
+                    return modelClass.cast(models.get(key));
+                }
+                Map<Object, CompletableFuture<Void>> loading = inFlight.computeIfAbsent(modelClass, type -> new HashMap<>());
+                batch = loading.get(key);
+                if (batch == null) {
+                    keys = pending.remove(modelClass);
+                    if (keys == null) {
+                        keys = new LinkedHashSet<>();
+                    }
+                    keys.add(key);
+                    batch = new CompletableFuture<>();
+                    for (Object pendingKey : keys) {
+                        loading.put(pendingKey, batch);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (keys == null) {
+                batch.join(); // Completes normally even when the batch failed, the key is then pending again
+            } else {
+                loadBatch(modelClass, keys, batch);
+            }
+        }
+    }
+
+    /**
+     * Queries the given keys outside the lock, then stores the models found, or gives the keys back to the
+     * pending set if the query failed. Either way, the batch is completed so that waiting loads resume.
+     */
+    private <T extends Model> void loadBatch(Class<T> modelClass, Set<Object> keys, CompletableFuture<Void> batch) {
+        Map<Object, T> found = null;
+        try {
+            found = dao.findAllById(modelClass, new ArrayList<>(keys));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error batch loading " + modelClass.getSimpleName() + " references.", e);
+        } finally {
+            lock.lock();
+            try {
+                Map<Object, Model> models = loaded.computeIfAbsent(modelClass, type -> new HashMap<>());
+                Map<Object, CompletableFuture<Void>> loading = inFlight.get(modelClass);
+                for (Object pendingKey : keys) {
+                    loading.remove(pendingKey);
+                    if (found != null) {
+                        models.put(pendingKey, found.get(pendingKey)); // Null marks a key without a row
+                    }
+                }
+                if (found != null) {
+                    batchCount++;
+                } else {
+                    pending.computeIfAbsent(modelClass, type -> new LinkedHashSet<>()).addAll(keys);
+                }
+            } finally {
+                lock.unlock();
+            }
+            batch.complete(null);
+        }
+        int count = keys.size();
+        logger.fine(() -> "Batch loaded " + count + " " + modelClass.getSimpleName() + " reference(s).");
+    }
+
+    /**
+     * @return the number of batches loaded so far, each being one {@code findAllById} call
+     */
+    public int getBatchCount() {
+        lock.lock();
+        try {
+            return batchCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of keys registered but not loaded yet, all classes included
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            int count = 0;
+            for (Set<Object> keys : pending.values()) {
+                count += keys.size();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
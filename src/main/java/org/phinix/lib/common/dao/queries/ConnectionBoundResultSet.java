@@ -0,0 +1,74 @@
+package org.phinix.lib.common.dao.queries;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * A {@link ResultSet} wrapper that owns the statement and the pooled connection it was read from.
+ * <p>
+ * Closing the wrapper closes the result set, then its statement, and finally gives the
+ * connection back to its provider, so a result set handed out of a DAO never pins a
+ * pooled connection after the caller is done with it. The three resources are registered with the
+ * {@link ResourceLeakDetector}, which reports and closes them if the caller never does.
+ */
+final class ConnectionBoundResultSet implements InvocationHandler {
+    private final ResultSet resultSet;
+    private ResourceLeakDetector.Tracker tracker;
+    private volatile boolean closed;
+
+    private ConnectionBoundResultSet(ResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    /**
+     * Wraps a result set so that closing it also releases its statement and connection.
+     *
+     * @param resultSet  the result set to wrap
+     * @param statement  the statement that produced the result set
+     * @param connection the pooled connection the statement runs on
+     * @return           a result set proxy owning the three resources
+     */
+    static ResultSet wrap(ResultSet resultSet, Statement statement, Connection connection) {
+        ConnectionBoundResultSet handler = new ConnectionBoundResultSet(resultSet);
+        ResultSet proxy = (ResultSet) Proxy.newProxyInstance(ConnectionBoundResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, handler);
+        handler.tracker = ResourceLeakDetector.track(proxy, "ResultSet", resultSet, statement, connection);
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close" -> {
+                close();
+                return null;
+            }
+            case "isClosed" -> {
+                return closed;
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            default -> {
+                try {
+                    return method.invoke(resultSet, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        }
+    }
+
+    private void close() throws Exception {
+        closed = true;
+        tracker.close(); // Closes the result set, the statement and the connection in that order, once
+    }
+}
@@ -0,0 +1,55 @@
+package org.phinix.lib.common.dao.queries;
+
+import org.phinix.lib.common.util.Model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps a single instance per (model class, primary key) while a set of rows is materialized.
+ * <p>
+ * A join fetch reads the same parent row once per child, for example the same {@code bus} for every
+ * route it serves; looking the parent up here first lets every child share one instance instead of
+ * holding its own copy. An identity map lives for one query and is not thread-safe.
+ */
+public final class IdentityMap {
+    private final Map<Class<?>, Map<Object, Model>> models = new HashMap<>();
+
+    /**
+     * Returns the instance already registered for the key.
+     *
+     * @param modelClass the model class
+     * @param key        the primary key value, or the {@link java.util.List} of values of a composite key
+     * @param <T>        the type of the model, which must extend {@link Model}
+     * @return           the registered instance, or {@code null} if there is none
+     */
+    public <T extends Model> T get(Class<T> modelClass, Object key) {
+        Map<Object, Model> instances = models.get(modelClass);
+        return instances == null ? null : modelClass.cast(instances.get(key));
+    }
+
+    /**
+     * Registers an instance for the key, unless one is already registered.
+     *
+     * @param model the model instance
+     * @param key   the primary key value, or the {@link java.util.List} of values of a composite key
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      the instance registered for the key, which is the given one if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Model> T putIfAbsent(T model, Object key) {
+        Model existing = models.computeIfAbsent(model.getClass(), type -> new HashMap<>()).putIfAbsent(key, model);
+        return existing == null ? model : (T) existing;
+    }
+
+    /**
+     * @return the number of registered instances, all classes included
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Object, Model> instances : models.values()) {
+            size += instances.size();
+        }
+        return size;
+    }
+}
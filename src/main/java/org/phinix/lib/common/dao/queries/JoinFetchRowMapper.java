@@ -0,0 +1,73 @@
+package org.phinix.lib.common.dao.queries;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.common.util.metadata.ReferenceMetadata;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link RowMapper} for the rows of a join-fetch query, which materializes the model and stores each
+ * referenced model in its holder field.
+ * <p>
+ * The row is expected to list the model's columns, then the columns of each referenced model in reference
+ * order, as {@link org.phinix.lib.common.util.factories.QueryFactory#buildJoinFetchQuery(Class, boolean)}
+ * does. Referenced models go through an {@link IdentityMap}, so a parent row repeated across children is
+ * materialized once and shared. A mapper holds its identity map and is meant for a single query.
+ *
+ * @param <T> the model type produced for each row
+ */
+public final class JoinFetchRowMapper<T extends Model> implements RowMapper<T> {
+    private final ModelMetadata<T> metadata;
+    private final List<ReferenceMetadata> references = new ArrayList<>();
+    private final List<ModelMetadata<? extends Model>> referencedMetadata = new ArrayList<>();
+    private final IdentityMap identityMap;
+
+    /**
+     * Creates a mapper for one join-fetch query.
+     *
+     * @param modelClass  the model class to materialize
+     * @param identityMap the identity map sharing the referenced models
+     */
+    public JoinFetchRowMapper(Class<T> modelClass, IdentityMap identityMap) {
+        this.metadata = ModelMetadata.of(modelClass);
+        this.identityMap = identityMap;
+        for (ReferenceMetadata reference : metadata.getReferences()) {
+            if (reference.hasHolder()) {
+                references.add(reference);
+                referencedMetadata.add(ModelMetadata.of(reference.getReferencedClass()));
+            }
+        }
+    }
+
+    @Override
+    public T mapRow(ResultSet resultSet) throws SQLException {
+        T model = metadata.mapRow(resultSet, 1);
+        int firstColumn = metadata.getColumns().size() + 1;
+        for (int i = 0; i < references.size(); i++) {
+            ReferenceMetadata reference = references.get(i);
+            ModelMetadata<? extends Model> referenced = referencedMetadata.get(i);
+
+            // The foreign key has the field type of the referenced key, so it is a valid identity map key
+            Object key = reference.getColumn().get(model);
+            Model parent = key == null ? null : identityMap.get(referenced.getModelClass(), key);
+            int keyColumn = firstColumn + referenced.getPrimaryKeyColumns().get(0).getIndex();
+            if (parent == null && key != null && resultSet.getObject(keyColumn) != null) {
+                parent = identityMap.putIfAbsent(referenced.mapRow(resultSet, firstColumn), key);
+            }
+            reference.setReferenced(model, parent);
+            firstColumn += referenced.getColumns().size();
+        }
+        return model;
+    }
+
+    /**
+     * @return the identity map the referenced models are shared through
+     */
+    public IdentityMap getIdentityMap() {
+        return identityMap;
+    }
+}
@@ -0,0 +1,49 @@
+package org.phinix.lib.common.dao.queries;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link RowMapper} that materializes model instances using their cached {@link ModelMetadata}.
+ * <p>
+ * The row is expected to list the model's columns in declaration order, as the cached SELECT
+ * statements do. Each column is read with the typed getter of its field type, so primitive
+ * columns are read with {@code getInt}/{@code getLong} rather than {@code getString}.
+ *
+ * @param <T> the model type produced for each row
+ */
+public final class ModelRowMapper<T extends Model> implements RowMapper<T> {
+    private static final ConcurrentMap<Class<?>, ModelRowMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    private final ModelMetadata<T> metadata;
+
+    private ModelRowMapper(ModelMetadata<T> metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * Returns the shared row mapper of the given model class.
+     *
+     * @param modelClass the model class to materialize
+     * @param <T>        the type of the model, which must extend {@link Model}
+     * @return           the row mapper of the model class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Model> ModelRowMapper<T> of(Class<T> modelClass) {
+        ModelRowMapper<?> mapper = mappers.get(modelClass);
+        if (mapper == null) {
+            mapper = mappers.computeIfAbsent(modelClass, type -> new ModelRowMapper<>(ModelMetadata.of(modelClass)));
+        }
+        return (ModelRowMapper<T>) mapper;
+    }
+
+    @Override
+    public T mapRow(ResultSet resultSet) throws SQLException {
+        return metadata.mapRow(resultSet, 1);
+    }
+}
@@ -0,0 +1,54 @@
+package org.phinix.lib.common.dao.queries;
+
+import java.util.List;
+
+/**
+ * One page of models read by {@link AbstractQueryDao#page(Class, Object, int)}, in primary key order.
+ * <p>
+ * The next page is requested with the key of the last model of this one, see {@link #getNextKey()},
+ * so reading page after page costs the same at any depth, unlike {@code LIMIT ... OFFSET ...},
+ * which reads and discards every row before the offset.
+ *
+ * @param <T> the type of the models
+ */
+public final class Page<T> {
+    private final List<T> items;
+    private final Object nextKey;
+
+    Page(List<T> items, Object nextKey) {
+        this.items = List.copyOf(items);
+        this.nextKey = nextKey;
+    }
+
+    /**
+     * @return the models of the page, in primary key order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return {@code true} if rows remain after this page
+     */
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+
+    /**
+     * Returns the key to pass as {@code afterKey} to read the next page: the value of a single-column key,
+     * or the {@link List} of the values of a composite key.
+     *
+     * @return the primary key of the last model of the page, or {@code null} if this is the last page
+     */
+    public Object getNextKey() {
+        return nextKey;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", nextKey=" + nextKey +
+                '}';
+    }
+}
@@ -0,0 +1,209 @@
+package org.phinix.lib.common.dao.queries;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks the query resources (result sets, statements and pooled connections) that the DAOs hand
+ * out to callers, and reports the ones that are never closed.
+ * <p>
+ * Every open cursor is registered with its allocation site. If the object owning the cursor becomes
+ * unreachable without having been closed, the leak is logged at SEVERE together with that site
+ * and the resources are closed, giving the connection back to the pool. The cursors still open
+ * at any moment can be listed with {@link #getOpenResources()}.
+ * <p>
+ * The detection level is read from the {@code phinix.leakDetection} system property
+ * ({@code disabled}, {@code simple} or {@code paranoid}) and can be changed with {@link #setMode(Mode)}.
+ */
+public final class ResourceLeakDetector {
+    private static final Logger logger = Logger.getLogger(ResourceLeakDetector.class.getName());
+    private static final String QUERIES_PACKAGE = ResourceLeakDetector.class.getPackageName();
+    private static final Cleaner cleaner = Cleaner.create();
+    private static final Set<Tracker> openResources = ConcurrentHashMap.newKeySet();
+    private static final LongAdder leakCount = new LongAdder();
+    private static volatile Mode mode = parseMode(System.getProperty("phinix.leakDetection"));
+
+    /**
+     * How much work the detector does for every tracked cursor.
+     */
+    public enum Mode {
+        /** No tracking at all, resources are only closed explicitly. */
+        DISABLED,
+        /** Tracks open cursors and records the calling frame that opened them. */
+        SIMPLE,
+        /** Like {@link #SIMPLE} but records the full stack trace of the allocation. */
+        PARANOID
+    }
+
+    private ResourceLeakDetector() {}
+
+    /**
+     * Starts tracking the resources behind an object handed out to a caller.
+     *
+     * @param owner       the object the caller holds, whose unreachability signals a leak
+     * @param description a short description of the resource, used in reports
+     * @param resources   the resources to close, in closing order
+     * @return            the tracker that closes the resources
+     */
+    static Tracker track(Object owner, String description, AutoCloseable... resources) {
+        Mode current = mode;
+        if (current == Mode.DISABLED) {
+            return new Tracker(description, null, null, resources);
+        }
+
+        Throwable stackTrace = current == Mode.PARANOID ? new Throwable("Allocation site of " + description) : null;
+        Tracker tracker = new Tracker(description, findAllocationSite(), stackTrace, resources);
+        openResources.add(tracker);
+        tracker.cleanable = cleaner.register(owner, tracker);
+        return tracker;
+    }
+
+    /**
+     * Returns a description of every tracked resource that is still open, with its allocation site and age.
+     *
+     * @return one line per open resource
+     */
+    public static List<String> getOpenResources() {
+        List<String> report = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Tracker tracker : openResources) {
+            report.add(tracker.description + " opened at " + tracker.allocationSite + " "
+                    + TimeUnit.NANOSECONDS.toMillis(now - tracker.createdNanos) + " ms ago");
+        }
+        return report;
+    }
+
+    /**
+     * Logs every tracked resource that is still open at WARNING level.
+     */
+    public static void reportOpenResources() {
+        for (String resource : getOpenResources()) {
+            logger.warning("Open " + resource);
+        }
+    }
+
+    public static int getOpenCount() {
+        return openResources.size();
+    }
+
+    /**
+     * @return the number of resources that were reclaimed without ever being closed
+     */
+    public static long getLeakCount() {
+        return leakCount.sum();
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode mode) {
+        ResourceLeakDetector.mode = mode;
+    }
+
+    private static Mode parseMode(String value) {
+        if (value == null) {
+            return Mode.SIMPLE;
+        }
+        try {
+            return Mode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Unknown leak detection mode '" + value + "', using SIMPLE.");
+            return Mode.SIMPLE;
+        }
+    }
+
+    /**
+     * Finds the first frame outside this package, which is the code that opened the cursor.
+     */
+    private static String findAllocationSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith(QUERIES_PACKAGE + "."))
+                .findFirst()
+                .map(frame -> frame.toStackTraceElement().toString())
+                .orElse("unknown"));
+    }
+
+    /**
+     * Owns a set of resources and closes them exactly once, either explicitly or when their owner is reclaimed.
+     * It must never reference the owner, otherwise the owner would never become unreachable.
+     */
+    static final class Tracker implements Runnable {
+        private final String description;
+        private final String allocationSite;
+        private final Throwable stackTrace;
+        private final AutoCloseable[] resources;
+        private final long createdNanos = System.nanoTime();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Cleaner.Cleanable cleanable;
+
+        private Tracker(String description, String allocationSite, Throwable stackTrace, AutoCloseable[] resources) {
+            this.description = description;
+            this.allocationSite = allocationSite;
+            this.stackTrace = stackTrace;
+            this.resources = resources;
+        }
+
+        /**
+         * Closes the resources in order. Safe to call more than once.
+         *
+         * @throws Exception the first failure met while closing, the remaining resources are still closed
+         */
+        void close() throws Exception {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            openResources.remove(this);
+            Cleaner.Cleanable registration = cleanable;
+            if (registration != null) {
+                registration.clean(); // Unregisters, run() sees the tracker already closed
+            }
+            closeResources();
+        }
+
+        /**
+         * Called by the cleaner once the owner is unreachable, or by {@link #close()} to unregister.
+         */
+        @Override
+        public void run() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            openResources.remove(this);
+            leakCount.increment();
+            logger.log(Level.SEVERE, "Leaked " + description + " opened at " + allocationSite
+                    + " was never closed, closing it now.", stackTrace);
+            try {
+                closeResources();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Error closing leaked " + description + ".", e);
+            }
+        }
+
+        private void closeResources() throws Exception {
+            Exception failure = null;
+            for (AutoCloseable resource : resources) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.phinix.lib.common.dao.queries;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Consumes a whole {@link ResultSet} and turns it into a result.
+ * <p>
+ * The handler is called while the result set is open and must not keep a reference
+ * to it, the result set is closed as soon as the handler returns.
+ *
+ * @param <R> the type of the result produced from the result set
+ */
+@FunctionalInterface
+public interface ResultSetHandler<R> {
+    /**
+     * Processes the result set, which is positioned before its first row.
+     *
+     * @param resultSet     the result set to consume
+     * @return              the result built from the rows
+     * @throws SQLException if the result set cannot be read
+     */
+    R handle(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,99 @@
+package org.phinix.lib.common.dao.queries;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.metrics.DaoOperation;
+import org.phinix.lib.metrics.jfr.DaoEvents;
+import org.phinix.lib.metrics.jfr.ResultFetchEvent;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A closeable {@link Iterator} that maps the rows of a {@link ResultSet} lazily, one at a time.
+ * <p>
+ * The iterator owns the result set, its statement and the pooled connection. They are released
+ * when {@link #close()} is called or as soon as the last row has been read, whichever comes first.
+ * They are registered with the {@link ResourceLeakDetector}, which reports and closes them if the
+ * iterator, or the stream built on it, is dropped while still open.
+ *
+ * @param <T> the type each row is mapped to
+ */
+final class ResultSetIterator<T> implements Iterator<T>, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ResultSetIterator.class.getName());
+
+    private final ResultSet resultSet;
+    private final ResourceLeakDetector.Tracker tracker;
+    private final RowMapper<T> rowMapper;
+    private final Class<? extends Model> modelClass;
+    private final ResultFetchEvent fetchEvent;
+    private long rowCount;
+    private boolean hasPendingRow;
+    private boolean closed;
+
+    ResultSetIterator(ResultSet resultSet, Statement statement, Connection connection, RowMapper<T> rowMapper,
+                      Class<? extends Model> modelClass) {
+        this.resultSet = resultSet;
+        this.tracker = ResourceLeakDetector.track(this, "streamed ResultSet", resultSet, statement, connection);
+        this.rowMapper = rowMapper;
+        this.modelClass = modelClass;
+        this.fetchEvent = DaoEvents.beginFetch();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasPendingRow) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        try {
+            hasPendingRow = resultSet.next();
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("Error fetching the next streamed row.", e);
+        }
+        if (!hasPendingRow) {
+            close(); // Exhausted, give the connection back without waiting for the caller
+        }
+        return hasPendingRow;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasPendingRow = false;
+        try {
+            return DaoEvents.mapRow(rowMapper, resultSet, modelClass, ++rowCount);
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("Error mapping a streamed row.", e);
+        }
+    }
+
+    /**
+     * Closes the result set, its statement and gives the connection back. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hasPendingRow = false;
+        DaoEvents.endFetch(fetchEvent, DaoOperation.SELECT, modelClass, rowCount);
+        try {
+            tracker.close(); // Closes the result set, the statement and the connection in that order
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error closing streamed result set.", e);
+        }
+    }
+}
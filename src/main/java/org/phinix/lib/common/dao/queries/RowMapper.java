@@ -0,0 +1,23 @@
+package org.phinix.lib.common.dao.queries;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} to an object.
+ * <p>
+ * Implementations must only read the current row and must not move the cursor.
+ *
+ * @param <T> the type of object produced for each row
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    /**
+     * Maps the row the result set is currently positioned on.
+     *
+     * @param resultSet     the result set positioned on the row to map
+     * @return              the object built from the row
+     * @throws SQLException if a column cannot be read
+     */
+    T mapRow(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,40 @@
+package org.phinix.lib.common.dao.queries;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds values to the placeholders of a {@link PreparedStatement} before it is executed.
+ */
+@FunctionalInterface
+public interface StatementBinder {
+    /**
+     * A binder that binds nothing, for statements without placeholders.
+     */
+    StatementBinder NONE = preparedStatement -> {};
+
+    /**
+     * Binds the values of the statement.
+     *
+     * @param preparedStatement the statement to bind to
+     * @throws SQLException     if a value cannot be bound
+     */
+    void bind(PreparedStatement preparedStatement) throws SQLException;
+
+    /**
+     * Returns a binder that binds the given values to the placeholders in order, with {@code setObject}.
+     *
+     * @param parameters the values to bind
+     * @return           the binder
+     */
+    static StatementBinder of(Object... parameters) {
+        if (parameters.length == 0) {
+            return NONE;
+        }
+        return preparedStatement -> {
+            for (int i = 0; i < parameters.length; i++) {
+                preparedStatement.setObject(i + 1, parameters[i]);
+            }
+        };
+    }
+}
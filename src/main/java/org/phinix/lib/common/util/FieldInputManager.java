@@ -1,10 +1,8 @@
 package org.phinix.lib.common.util;
 
-import org.phinix.lib.common.util.factories.DMLStatementFactory;
+import org.phinix.lib.common.util.metadata.ColumnMetadata;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -19,8 +17,9 @@ import java.util.Scanner;
  *     <li>{@link #createModelWithPrimaryKeys(Class)}: Creates a new model instance and populates
  *     only its primary key fields.</li>
  * </ul>
- * The class makes use of reflection to interact with the model's fields and setters, ensuring
- * flexibility and extensibility for various model types.
+ * The class reads the model's columns from its cached {@link ModelMetadata} and writes them through
+ * the setters the metadata resolved once per field, ensuring flexibility and extensibility for
+ * various model types.
  */
 public class FieldInputManager {
     private static final Scanner scanner = new Scanner(System.in);
@@ -34,14 +33,13 @@ public class FieldInputManager {
      * @throws Exception if there are issues with instantiation or reflection
      */
     public static <T extends Model> T createAndPopulateModel(Class<T> modelClass) throws Exception {
+        ModelMetadata<T> metadata = ModelMetadata.of(modelClass);
         // Create a new instance of the model using the no-args constructor
-        T instance = modelClass.getDeclaredConstructor().newInstance();
+        T instance = metadata.newInstance();
 
-        // Iterate over all fields of the model class to populate them
-        for (Field field : modelClass.getDeclaredFields()) {
-            String input = getUserInput(field); // Get input from the user for the field
-            Object value = parseValue(input, field.getType()); // Parse the input string to the correct field type
-            invokeSetter(instance, field, value); // Invoke the setter method to set the field's value
+        // Iterate over all columns of the model class to populate them
+        for (ColumnMetadata column : metadata.getColumns()) {
+            setFieldValue(instance, column);
         }
         return instance;
     }
@@ -56,16 +54,13 @@ public class FieldInputManager {
      * @throws Exception if there are issues with instantiation or reflection
      */
     public static <T extends Model> T createModelWithPrimaryKeys(Class<T> modelClass) throws Exception {
+        ModelMetadata<T> metadata = ModelMetadata.of(modelClass);
         // Create a new instance of the model using the no-args constructor
-        T instance = modelClass.getDeclaredConstructor().newInstance();
+        T instance = metadata.newInstance();
 
-        // Get the primary key values from the model instance
-        Map<String, Object> primaryKeys = DMLStatementFactory.getPrimaryKeyValues(instance);
-
-        // Iterate over the primary key entries to set their values
-        for (Map.Entry<String, Object> entry : primaryKeys.entrySet()) {
-            Field field = modelClass.getDeclaredField(entry.getKey());
-            setFieldValue(instance, field);
+        // Iterate over the primary key columns to set their values
+        for (ColumnMetadata column : metadata.requirePrimaryKeyColumns()) {
+            setFieldValue(instance, column);
         }
         return instance;
     }
@@ -74,41 +69,36 @@ public class FieldInputManager {
      * Prompts the user for input and sets the value for a specific field.
      *
      * @param instance   the instance of the model to set the field value on
-     * @param field      the field to set the value for
+     * @param column     the column to set the value for
      * @throws Exception if there is an issue with field access or setter invocation
      */
-    private static <T extends Model> void setFieldValue(T instance, Field field) throws Exception {
-        String input = getUserInput(field); // Get user input for the field
-        Object value = parseValue(input, field.getType()); // Parse the input to the correct type for the field
-        invokeSetter(instance, field, value); // Set the field value using the setter method
+    private static <T extends Model> void setFieldValue(T instance, ColumnMetadata column) throws Exception {
+        String input = getUserInput(column); // Get user input for the field
+        Object value = parseValue(input, column.getType()); // Parse the input to the correct type for the field
+        invokeSetter(instance, column, value); // Set the field value using the setter method
     }
 
     /**
      * Prompts the user for input corresponding to a field.
      *
-     * @param field the field to prompt for
-     * @return      the user input as a string
+     * @param column the column to prompt for
+     * @return       the user input as a string
      */
-    private static String getUserInput(Field field) {
+    private static String getUserInput(ColumnMetadata column) {
         // Prompt the user for input, displaying the field's name and type
-        System.out.print("Enter value for " + field.getName() + " (" + field.getType().getSimpleName() + "): ");
+        System.out.print("Enter value for " + column.getName() + " (" + column.getType().getSimpleName() + "): ");
         return scanner.nextLine();
     }
 
     /**
-     * Uses reflection to invoke the setter method for a given field.
+     * Invokes the setter method for a given field through the accessor cached in its column.
      *
-     * @param instance   the model instance
-     * @param field      the field whose setter method will be invoked
-     * @param value      the value to be set
-     * @throws Exception if there is an issue with invoking the setter method
+     * @param instance the model instance
+     * @param column   the column whose setter method will be invoked
+     * @param value    the value to be set
      */
-    private static <T extends Model> void invokeSetter(T instance, Field field, Object value) throws Exception {
-        // Generate the setter method name by capitalizing the field's name
-        String setterName = "set" + capitalize(field.getName());
-        // Get the setter method using reflection
-        Method setterMethod = instance.getClass().getMethod(setterName, field.getType());
-        setterMethod.invoke(instance, value); // Invoke the setter method to set the field's value
+    private static <T extends Model> void invokeSetter(T instance, ColumnMetadata column, Object value) {
+        column.set(instance, value); // Calls set<Name>, or writes the field when there is no setter
     }
 
     /**
@@ -131,15 +121,4 @@ public class FieldInputManager {
             throw new IllegalArgumentException("Unsupported field type: " + type.getName());
         }
     }
-
-    /**
-     * Capitalizes the first letter of a string (used for generating setter method names).
-     *
-     * @param str the string to capitalize
-     * @return    the capitalized string
-     */
-    private static String capitalize(String str) {
-        if (str == null || str.isEmpty()) return str;
-        return str.substring(0, 1).toUpperCase() + str.substring(1);
-    }
 }
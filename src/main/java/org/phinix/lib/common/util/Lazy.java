@@ -0,0 +1,95 @@
+package org.phinix.lib.common.util;
+
+/**
+ * Holder of a referenced model that is loaded on first access.
+ * <p>
+ * A model declares a transient {@code Lazy<Bus>} holder next to its {@link References} column instead
+ * of a plain {@code Bus} holder. A join fetch fills the holder with an already loaded value; a
+ * {@link org.phinix.lib.common.dao.queries.BatchLoader} fills it with a pending value whose first
+ * {@link #get()} loads, in one batched query, every pending reference of the same model class.
+ *
+ * @param <T> the type of the referenced model
+ */
+public final class Lazy<T extends Model> {
+    private static final Lazy<?> EMPTY = new Lazy<>(null, null, null, true, null);
+
+    /**
+     * Loads the referenced model of a pending {@link Lazy}.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Loads the model of the given key, typically along with every other pending key of its class.
+         *
+         * @param modelClass the referenced model class
+         * @param key        the primary key value of the referenced model
+         * @param <T>        the type of the model, which must extend {@link Model}
+         * @return           the referenced model, or {@code null} if it does not exist
+         */
+        <T extends Model> T load(Class<T> modelClass, Object key);
+    }
+
+    private final Class<T> modelClass;
+    private final Object key;
+    private final Loader loader;
+    private volatile boolean loaded;
+    private volatile T value;
+
+    private Lazy(Class<T> modelClass, Object key, Loader loader, boolean loaded, T value) {
+        this.modelClass = modelClass;
+        this.key = key;
+        this.loader = loader;
+        this.loaded = loaded;
+        this.value = value;
+    }
+
+    /**
+     * Returns a holder of an already loaded model.
+     *
+     * @param value the referenced model, or {@code null} if there is none
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      a loaded holder
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Model> Lazy<T> of(T value) {
+        return value == null ? (Lazy<T>) EMPTY : new Lazy<>(null, null, null, true, value);
+    }
+
+    /**
+     * Returns a holder whose model is loaded by the loader on first access.
+     *
+     * @param modelClass the referenced model class
+     * @param key        the primary key value of the referenced model
+     * @param loader     the loader called on first access
+     * @param <T>        the type of the model, which must extend {@link Model}
+     * @return           a pending holder
+     */
+    public static <T extends Model> Lazy<T> pending(Class<T> modelClass, Object key, Loader loader) {
+        return new Lazy<>(modelClass, key, loader, false, null);
+    }
+
+    /**
+     * Returns the referenced model, loading it on first access.
+     *
+     * @return the referenced model, or {@code null} if it does not exist
+     */
+    public T get() {
+        if (!loaded) {
+            value = loader.load(modelClass, key);
+            loaded = true;
+        }
+        return value;
+    }
+
+    /**
+     * @return {@code true} if {@link #get()} returns without loading
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public String toString() {
+        return loaded ? "Lazy{" + value + '}' : "Lazy{" + modelClass.getSimpleName() + " " + key + ", pending}";
+    }
+}
@@ -1,5 +1,7 @@
 package org.phinix.lib.common.util;
 
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+
 /**
  * Represents a base interface for all models in the application and tables in db.
  * <p>
@@ -10,12 +12,17 @@ public interface Model {
     /**
      * Retrieves the dynamic model name based on the implementing class (Table Name).
      * <p>
-     * The default implementation uses the simple name of the class in lowercase.
+     * The default implementation uses the {@link Table} value when present and the simple
+     * name of the class in lowercase otherwise.
      *
-     * @return the lowercase name of the implementing class
+     * @return the table name of the implementing class
+     * @deprecated the DAOs no longer call this method: their statements are built once per class from
+     *             {@link ModelMetadata#getTableName()}, so overriding it does not change the table written
+     *             to. Declare the table with {@link Table} instead.
      */
+    @Deprecated
     default String getDynamicModelName() {
-        return this.getClass().getSimpleName().toLowerCase();
+        return ModelMetadata.of(this).getTableName();
     }
 
     /**
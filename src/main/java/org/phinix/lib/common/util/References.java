@@ -0,0 +1,29 @@
+package org.phinix.lib.common.util;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation used to mark a field as a foreign key to the primary key of another model class.
+ * <p>
+ * The field stays a plain column. The referenced model can be loaded into a transient holder field of
+ * the same class, for example by {@link org.phinix.lib.common.dao.queries.AbstractQueryDao#findAllJoined(Class)},
+ * which fetches the model and its references in a single JOIN, or into a {@link Lazy} holder loaded in
+ * batches on first access, see {@link org.phinix.lib.common.dao.queries.BatchLoader}. The holder is the
+ * field named by {@link #holder()}, or else the only transient field whose type is the referenced class
+ * or a {@code Lazy} of it.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface References {
+    /**
+     * @return the referenced model class, whose primary key the field holds
+     */
+    Class<? extends Model> value();
+
+    /**
+     * @return the name of the transient field receiving the referenced model, or an empty string to
+     *         find it by type
+     */
+    String holder() default "";
+}
@@ -0,0 +1,20 @@
+package org.phinix.lib.common.util;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation used to mark a class as a model mapped to a database table.
+ * <p>
+ * Annotated classes, like classes with {@link PrimaryKey} fields, get a reflection-free
+ * {@link org.phinix.lib.common.util.metadata.ModelBinder} generated at build time.
+ * The optional value overrides the table name, which otherwise is the lowercase simple class name.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Table {
+    /**
+     * @return the table name, or an empty string to derive it from the class name
+     */
+    String value() default "";
+}
@@ -2,24 +2,32 @@ package org.phinix.lib.common.util.factories;
 
 import org.phinix.lib.common.util.Model;
 import org.phinix.lib.common.util.PrimaryKey;
+import org.phinix.lib.common.util.metadata.ColumnMetadata;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
 
-import java.lang.reflect.Field;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * A utility class for generating SQL DML (Data Manipulation Language) statements
  * such as INSERT, UPDATE, and DELETE for model objects.
  * <p>
- * This class uses reflection to build SQL statements dynamically based on the fields
+ * This class builds SQL statements dynamically based on the cached {@link ModelMetadata}
  * of the provided model class. The fields annotated with @PrimaryKey are used to
  * identify primary key constraints for UPDATE and DELETE statements.
+ * <p>
+ * The SQL of a model class never changes, so DAOs should obtain it through
+ * {@link StatementTemplateCache}, which calls these builders only once per model class.
  */
 public class DMLStatementFactory {
+    /**
+     * The maximum number of {@code ?} placeholders MySQL accepts in a single prepared statement.
+     */
+    public static final int MAX_PLACEHOLDERS = 65_535;
+
     /**
      * Builds an INSERT SQL statement for the given model and table name.
      * <p>
-     * The method generates an INSERT statement by reflecting on the fields of the model.
+     * The method generates an INSERT statement from the cached columns of the model.
      * It automatically generates placeholders for the values to be inserted.
      *
      * @param model     the model object to generate the statement for
@@ -28,15 +36,24 @@ public class DMLStatementFactory {
      * @return          the generated SQL INSERT statement
      */
     public static <T extends Model> String buildInsertStatements(T model, String tableName) {
-        // Get the declared fields of the model class
-        Field[] fields = model.getClass().getDeclaredFields();
+        return buildInsertStatements(model.getClass(), tableName);
+    }
 
+    /**
+     * Builds an INSERT SQL statement for the given model class and table name.
+     *
+     * @param modelClass the model class to generate the statement for
+     * @param tableName  the name of the table to insert data into
+     * @return           the generated SQL INSERT statement
+     * @see StatementTemplateCache
+     */
+    public static String buildInsertStatements(Class<? extends Model> modelClass, String tableName) {
         StringBuilder columns = new StringBuilder();
         StringBuilder placeholders = new StringBuilder();
 
         // Build the columns and placeholders part of the query
-        for (Field field : fields) {
-            columns.append(field.getName()).append(",");
+        for (ColumnMetadata column : ModelMetadata.of(modelClass).getColumns()) {
+            columns.append(column.getName()).append(",");
             placeholders.append("?," );
         }
 
@@ -48,10 +65,52 @@ public class DMLStatementFactory {
         return "INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")";
     }
 
+    /**
+     * Builds a multi-row INSERT SQL statement for the given model class and table name.
+     * <p>
+     * The statement has the form {@code INSERT INTO t (a,b) VALUES (?,?),(?,?),...} with one
+     * group of placeholders per row, so that many rows travel in a single round-trip.
+     *
+     * @param modelClass                the model class to generate the statement for
+     * @param tableName                 the name of the table to insert data into
+     * @param rows                      the number of rows the statement inserts
+     * @return                          the generated SQL INSERT statement
+     * @throws IllegalArgumentException if the rows do not fit within {@link #MAX_PLACEHOLDERS}
+     * @see StatementTemplateCache
+     */
+    public static String buildMultiRowInsertStatements(Class<? extends Model> modelClass, String tableName, int rows) {
+        if (rows < 1 || rows > maxRowsPerInsert(modelClass)) {
+            throw new IllegalArgumentException("A multi-row INSERT of " + modelClass.getSimpleName()
+                    + " must have between 1 and " + maxRowsPerInsert(modelClass) + " rows.");
+        }
+
+        // Reuse the single row statement and repeat its placeholder group for every extra row
+        String singleRow = buildInsertStatements(modelClass, tableName);
+        String rowPlaceholders = singleRow.substring(singleRow.lastIndexOf('('));
+
+        StringBuilder statement = new StringBuilder(singleRow.length() + (rowPlaceholders.length() + 1) * (rows - 1));
+        statement.append(singleRow);
+        for (int i = 1; i < rows; i++) {
+            statement.append(',').append(rowPlaceholders);
+        }
+        return statement.toString();
+    }
+
+    /**
+     * Returns how many rows of the model class fit in one multi-row INSERT without exceeding
+     * {@link #MAX_PLACEHOLDERS}.
+     *
+     * @param modelClass the model class to be inserted
+     * @return           the maximum number of rows per statement
+     */
+    public static int maxRowsPerInsert(Class<? extends Model> modelClass) {
+        return MAX_PLACEHOLDERS / ModelMetadata.of(modelClass).getColumns().size();
+    }
+
     /**
      * Builds an UPDATE SQL statement for the given model and table name.
      * <p>
-     * The method generates an UPDATE statement, where fields of the model are set to new values.
+     * The method generates an UPDATE statement, where the non-key fields of the model are set to new values.
      * The primary key fields are used to build the WHERE clause.
      *
      * @param model     the model object to generate the statement for
@@ -60,26 +119,94 @@ public class DMLStatementFactory {
      * @return          the generated SQL UPDATE statement
      */
     public static <T extends Model> String buildUpdateStatements(T model, String tableName) {
-        // Get the declared fields of the model class
-        Field[] fields = model.getClass().getDeclaredFields();
+        return buildUpdateStatements(model.getClass(), tableName);
+    }
+
+    /**
+     * Builds an UPDATE SQL statement for the given model class and table name.
+     *
+     * @param modelClass the model class to generate the statement for
+     * @param tableName  the name of the table to update
+     * @return           the generated SQL UPDATE statement
+     * @see StatementTemplateCache
+     */
+    public static String buildUpdateStatements(Class<? extends Model> modelClass, String tableName) {
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
         StringBuilder setClause = new StringBuilder();
 
-        // Build the SET clause of the UPDATE statement
-        for (Field field : fields) {
-            setClause.append(field.getName()).append(" = ?,");
+        // Build the SET clause of the UPDATE statement, key columns only identify the row
+        for (ColumnMetadata column : metadata.getUpdatableColumns()) {
+            setClause.append(column.getName()).append(" = ?,");
         }
         setClause.setLength(setClause.length() - 1); // Remove the trailing comma
 
-        // Retrieve primary key values to construct the WHERE clause
-        Map<String, Object> primaryKeys = getPrimaryKeyValues(model);
+        // Return the full UPDATE statement
+        return "UPDATE " + tableName + " SET " + setClause + " WHERE " + buildPrimaryKeyWhereClause(metadata);
+    }
+
+    /**
+     * Builds an UPDATE SQL statement setting only the columns of the mask, for the given model class
+     * and table name. Key columns may be part of the mask; the WHERE clause always uses the key columns.
+     *
+     * @param modelClass                the model class to generate the statement for
+     * @param tableName                 the name of the table to update
+     * @param columnMask                the columns to set, bit {@code i} standing for column {@code i}
+     * @return                          the generated SQL UPDATE statement
+     * @throws IllegalArgumentException if the mask is empty
+     * @see ModelMetadata#changedColumns(Model, Model)
+     */
+    public static String buildPartialUpdateStatement(Class<? extends Model> modelClass, String tableName, long columnMask) {
+        if (columnMask == 0) {
+            throw new IllegalArgumentException("A partial UPDATE needs at least one column.");
+        }
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
+        StringBuilder setClause = new StringBuilder();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            if ((columnMask & (1L << column.getIndex())) != 0) {
+                setClause.append(column.getName()).append(" = ?,");
+            }
+        }
+        setClause.setLength(setClause.length() - 1); // Remove the trailing comma
+
+        return "UPDATE " + tableName + " SET " + setClause + " WHERE " + buildPrimaryKeyWhereClause(metadata);
+    }
+
+    /**
+     * Builds an upsert SQL statement for the given model class and table name.
+     * <p>
+     * The statement has the form {@code INSERT INTO t (a,b,c) VALUES (?,?,?) ON DUPLICATE KEY UPDATE
+     * b = VALUES(b),c = VALUES(c)}: every column is inserted, and when the row already exists the
+     * non-key columns are overwritten with the values that were about to be inserted. A model made only
+     * of key columns has nothing to overwrite, so the update clause assigns a key to itself.
+     *
+     * @param modelClass the model class to generate the statement for
+     * @param tableName  the name of the table to upsert into
+     * @return           the generated SQL upsert statement
+     * @see StatementTemplateCache
+     */
+    public static String buildUpsertStatement(Class<? extends Model> modelClass, String tableName) {
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
+        StringBuilder updateClause = new StringBuilder();
+
+        // getUpdatableColumns() falls back to the key columns when every column is a key
+        for (ColumnMetadata column : metadata.getUpdatableColumns()) {
+            updateClause.append(column.getName()).append(" = VALUES(").append(column.getName()).append("),");
+        }
+        updateClause.setLength(updateClause.length() - 1); // Remove the trailing comma
+
+        return buildInsertStatements(modelClass, tableName) + " ON DUPLICATE KEY UPDATE " + updateClause;
+    }
+
+    /**
+     * Builds the "key1 = ? AND key2 = ?" clause matching a row by primary key.
+     */
+    private static String buildPrimaryKeyWhereClause(ModelMetadata<? extends Model> metadata) {
         StringBuilder whereClause = new StringBuilder();
-        for (String key : primaryKeys.keySet()) {
-            whereClause.append(key).append(" = ? AND ");
+        for (ColumnMetadata column : metadata.requirePrimaryKeyColumns()) {
+            whereClause.append(column.getName()).append(" = ? AND ");
         }
         whereClause.setLength(whereClause.length() - 5); // Remove the trailing "AND"
-
-        // Return the full UPDATE statement
-        return "UPDATE " + tableName + " SET " + setClause + " WHERE " + whereClause;
+        return whereClause.toString();
     }
 
     /**
@@ -94,11 +221,22 @@ public class DMLStatementFactory {
      * @return          the generated SQL DELETE statement
      */
     public static <T extends Model> String buildDeleteStatements(T model, String tableName) {
-        // Retrieve primary key values to construct the WHERE clause
-        Map<String, Object> primaryKeys = getPrimaryKeyValues(model);
+        return buildDeleteStatements(model.getClass(), tableName);
+    }
+
+    /**
+     * Builds a DELETE SQL statement for the given model class and table name.
+     *
+     * @param modelClass the model class to generate the statement for
+     * @param tableName  the name of the table to delete data from
+     * @return           the generated SQL DELETE statement
+     * @see StatementTemplateCache
+     */
+    public static String buildDeleteStatements(Class<? extends Model> modelClass, String tableName) {
+        // Use the primary key columns to construct the WHERE clause
         StringBuilder whereClause = new StringBuilder();
-        for (String key : primaryKeys.keySet()) {
-            whereClause.append(key).append(" = ? AND ");
+        for (ColumnMetadata column : ModelMetadata.of(modelClass).requirePrimaryKeyColumns()) {
+            whereClause.append(column.getName()).append(" = ? AND ");
         }
         whereClause.setLength(whereClause.length() - 5); // Remove the trailing "AND"
 
@@ -116,16 +254,15 @@ public class DMLStatementFactory {
      * @return           the generated SQL DELETE statement for removing all records
      */
     public static <T extends Model> String buildDeleteAllStatement(Class<T> modelClass) {
-        // Derive the table name from the model class simple name in lowercase
-        String tableName = modelClass.getSimpleName().toLowerCase();
-        return "DELETE FROM " + tableName;
+        // The table name is derived once from the model class and cached in its metadata
+        return "DELETE FROM " + ModelMetadata.of(modelClass).getTableName();
     }
 
     /**
      * Retrieves the primary key values of the given model.
      * <p>
-     * The method scans the model fields for those annotated with {@link PrimaryKey}
-     * and collects their values into a map.
+     * The method reads the fields annotated with {@link PrimaryKey} through the cached
+     * accessors of the model's metadata and collects their values into a map.
      *
      * @param model                     the model object from which to retrieve primary key values
      * @param <T>                       the type of the model, which must extend {@link Model}
@@ -133,27 +270,6 @@ public class DMLStatementFactory {
      * @throws IllegalArgumentException if the model does not have any fields annotated with @PrimaryKey
      */
     public static <T extends Model> Map<String, Object> getPrimaryKeyValues(T model) {
-        // Get the declared fields of the model class
-        Field[] fields = model.getClass().getDeclaredFields();
-        Map<String, Object> primaryKeys = new LinkedHashMap<>();
-
-        // Find fields annotated with @PrimaryKey and add them to the map
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(PrimaryKey.class)) {
-                field.setAccessible(true); // Make the field accessible for reflection
-                try {
-                    primaryKeys.put(field.getName(), field.get(model)); // Add the field value to the map
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException("Error accessing primary key field: " + field.getName(), e);
-                }
-            }
-        }
-
-        // Throw an exception if no primary key fields are found
-        if (primaryKeys.isEmpty()) {
-            throw new IllegalArgumentException("Model does not have fields annotated with @PrimaryKey.");
-        }
-
-        return primaryKeys;
+        return ModelMetadata.of(model).getPrimaryKeyValues(model);
     }
 }
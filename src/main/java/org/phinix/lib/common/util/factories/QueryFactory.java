@@ -1,13 +1,36 @@
 package org.phinix.lib.common.util.factories;
 
 import org.phinix.lib.common.util.Model;
-import java.util.Map;
+import org.phinix.lib.common.util.metadata.ColumnMetadata;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.common.util.metadata.ReferenceMetadata;
+
+import java.util.List;
 
 /**
  * {@code QueryFactory} is a utility class for generating SQL query statements (SELECT).
- * It uses reflection to construct queries based on models.
+ * It uses the cached {@link ModelMetadata} of each model to construct queries.
+ * DAOs should obtain the text through {@link StatementTemplateCache} so each query is built only once.
  */
 public class QueryFactory {
+    /**
+     * Builds the comma separated list of the model's columns in declaration order.
+     * <p>
+     * Queries select the columns explicitly rather than with {@code *}, so that rows can be
+     * mapped back to models by position whatever the column order of the table is.
+     *
+     * @param metadata the metadata of the model
+     * @return         the column list, for example {@code register,licence,type}
+     */
+    public static String buildColumnList(ModelMetadata<? extends Model> metadata) {
+        StringBuilder columns = new StringBuilder();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            columns.append(column.getName()).append(",");
+        }
+        columns.setLength(columns.length() - 1); // Remove the trailing comma
+        return columns.toString();
+    }
+
     /**
      * Builds a SELECT statement to fetch all records from the table corresponding to the model.
      *
@@ -15,8 +38,8 @@ public class QueryFactory {
      * @return           the generated SQL query
      */
     public static String buildSelectAllQuery(Class<? extends Model> modelClass) {
-        String tableName = modelClass.getSimpleName().toLowerCase();
-        return "SELECT * FROM " + tableName;
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
+        return "SELECT " + buildColumnList(metadata) + " FROM " + metadata.getTableName();
     }
 
     /**
@@ -27,15 +50,23 @@ public class QueryFactory {
      * @return           the generated SQL query
      */
     public static String buildSelectByPrimaryKeyQuery(Class<? extends Model> modelClass, Model model) {
-        String tableName = modelClass.getSimpleName().toLowerCase();
-        StringBuilder query = new StringBuilder("SELECT * FROM " + tableName + " WHERE ");
+        return buildSelectByPrimaryKeyQuery(modelClass);
+    }
 
-        // Get primary key values from the model
-        Map<String, Object> primaryKeys = DMLStatementFactory.getPrimaryKeyValues(model);
+    /**
+     * Builds a SELECT statement that filters on every primary key column of the model class.
+     *
+     * @param modelClass the model class for which the query should be generated
+     * @return           the generated SQL query
+     * @see StatementTemplateCache
+     */
+    public static String buildSelectByPrimaryKeyQuery(Class<? extends Model> modelClass) {
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
+        StringBuilder query = new StringBuilder("SELECT " + buildColumnList(metadata) + " FROM " + metadata.getTableName() + " WHERE ");
 
         // Generate conditions for primary keys
-        for (String key : primaryKeys.keySet()) {
-            query.append(key).append(" = ? AND ");
+        for (ColumnMetadata column : metadata.requirePrimaryKeyColumns()) {
+            query.append(column.getName()).append(" = ? AND ");
         }
 
         // Remove the last "AND"
@@ -43,4 +74,142 @@ public class QueryFactory {
 
         return query.toString();
     }
+
+    /**
+     * Builds a SELECT statement fetching the rows of several primary keys in one round-trip.
+     * <p>
+     * A single-column key gives {@code SELECT ... WHERE id IN (?,?,?)}; a composite key gives the row
+     * constructor form {@code SELECT ... WHERE (a,b) IN ((?,?),(?,?))}, which MySQL also resolves
+     * through the primary key index.
+     *
+     * @param modelClass                the model class for which the query should be generated
+     * @param keys                      the number of primary keys the statement looks up
+     * @return                          the generated SQL query
+     * @throws IllegalArgumentException if fewer than one key is requested
+     * @see StatementTemplateCache
+     */
+    public static String buildSelectByPrimaryKeysQuery(Class<? extends Model> modelClass, int keys) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("A lookup by primary keys needs at least one key.");
+        }
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
+        List<ColumnMetadata> keyColumns = metadata.requirePrimaryKeyColumns();
+
+        // One group of placeholders per key, parenthesized only for composite keys
+        StringBuilder columns = new StringBuilder();
+        StringBuilder group = new StringBuilder();
+        for (ColumnMetadata column : keyColumns) {
+            columns.append(column.getName()).append(",");
+            group.append("?,");
+        }
+        columns.setLength(columns.length() - 1);
+        group.setLength(group.length() - 1);
+        boolean composite = keyColumns.size() > 1;
+        String keyGroup = composite ? "(" + group + ")" : group.toString();
+
+        StringBuilder query = new StringBuilder("SELECT " + buildColumnList(metadata) + " FROM " + metadata.getTableName()
+                + " WHERE " + (composite ? "(" + columns + ")" : columns) + " IN (");
+        for (int i = 0; i < keys; i++) {
+            query.append(keyGroup).append(",");
+        }
+        query.setLength(query.length() - 1); // Remove the trailing comma
+        return query.append(")").toString();
+    }
+
+    /**
+     * Builds a keyset pagination query reading the rows of the model class in primary key order.
+     * <p>
+     * The first page is {@code SELECT ... ORDER BY a,b LIMIT ?}; the following pages seek past the last
+     * key read with {@code SELECT ... WHERE (a,b) > (?,?) ORDER BY a,b LIMIT ?}, which MySQL resolves as
+     * a range scan of the primary key, so every page costs the same whatever its depth.
+     *
+     * @param modelClass the model class for which the query should be generated
+     * @param afterKey   {@code true} for the following pages, which filter on the last key read
+     * @return           the generated SQL query
+     * @see StatementTemplateCache
+     */
+    public static String buildSelectPageQuery(Class<? extends Model> modelClass, boolean afterKey) {
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
+        List<ColumnMetadata> keyColumns = metadata.requirePrimaryKeyColumns();
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        for (ColumnMetadata column : keyColumns) {
+            columns.append(column.getName()).append(",");
+            placeholders.append("?,");
+        }
+        columns.setLength(columns.length() - 1);
+        placeholders.setLength(placeholders.length() - 1);
+
+        StringBuilder query = new StringBuilder("SELECT " + buildColumnList(metadata) + " FROM " + metadata.getTableName());
+        if (afterKey) {
+            query.append(keyColumns.size() > 1
+                    ? " WHERE (" + columns + ") > (" + placeholders + ")"
+                    : " WHERE " + columns + " > ?");
+        }
+        return query.append(" ORDER BY ").append(columns).append(" LIMIT ?").toString();
+    }
+
+    /**
+     * Builds a join-fetch SELECT reading the model's rows together with the rows they reference.
+     * <p>
+     * Every {@link org.phinix.lib.common.util.References} column with a holder field adds a
+     * {@code LEFT JOIN} on the primary key of the referenced table, for example
+     * {@code SELECT t0.register,...,t1.register,t1.licence,t1.type FROM routes t0 LEFT JOIN bus t1 ON
+     * t1.register = t0.register ...}. The columns of the model come first, then those of each referenced
+     * model in reference order, so each one can be mapped by position.
+     *
+     * @param modelClass                the model class for which the query should be generated
+     * @param byPrimaryKey              {@code true} to filter on the model's primary key
+     * @return                          the generated SQL query
+     * @throws IllegalArgumentException if the model has no reference with a holder, or a referenced model
+     *                                  does not have a single-column primary key
+     * @see StatementTemplateCache
+     */
+    public static String buildJoinFetchQuery(Class<? extends Model> modelClass, boolean byPrimaryKey) {
+        ModelMetadata<? extends Model> metadata = ModelMetadata.of(modelClass);
+        StringBuilder columns = new StringBuilder(buildColumnList(metadata, "t0"));
+        StringBuilder joins = new StringBuilder();
+        int alias = 0;
+        for (ReferenceMetadata reference : metadata.getReferences()) {
+            if (!reference.hasHolder()) {
+                continue;
+            }
+            ModelMetadata<? extends Model> referenced = ModelMetadata.of(reference.getReferencedClass());
+            List<ColumnMetadata> keyColumns = referenced.requirePrimaryKeyColumns();
+            if (keyColumns.size() != 1) {
+                throw new IllegalArgumentException("Reference " + reference.getColumn().getName() + " of "
+                        + modelClass.getSimpleName() + " must target a single-column primary key.");
+            }
+            String table = "t" + ++alias;
+            columns.append(",").append(buildColumnList(referenced, table));
+            joins.append(" LEFT JOIN ").append(referenced.getTableName()).append(" ").append(table)
+                    .append(" ON ").append(table).append(".").append(keyColumns.get(0).getName())
+                    .append(" = t0.").append(reference.getColumn().getName());
+        }
+        if (alias == 0) {
+            throw new IllegalArgumentException(modelClass.getSimpleName() + " has no @References field with a holder.");
+        }
+
+        StringBuilder query = new StringBuilder("SELECT " + columns + " FROM " + metadata.getTableName() + " t0" + joins);
+        if (byPrimaryKey) {
+            query.append(" WHERE ");
+            for (ColumnMetadata column : metadata.requirePrimaryKeyColumns()) {
+                query.append("t0.").append(column.getName()).append(" = ? AND ");
+            }
+            query.setLength(query.length() - 5); // Remove the trailing "AND"
+        }
+        return query.toString();
+    }
+
+    /**
+     * Builds the column list of a model with every column qualified by the given table alias.
+     */
+    private static String buildColumnList(ModelMetadata<? extends Model> metadata, String alias) {
+        StringBuilder columns = new StringBuilder();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            columns.append(alias).append(".").append(column.getName()).append(",");
+        }
+        columns.setLength(columns.length() - 1); // Remove the trailing comma
+        return columns.toString();
+    }
 }
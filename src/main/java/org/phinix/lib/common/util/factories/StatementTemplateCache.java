@@ -0,0 +1,103 @@
+package org.phinix.lib.common.util.factories;
+
+import org.phinix.lib.common.util.Model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Cache of the SQL text generated for each (model class, {@link StatementType}) pair.
+ * <p>
+ * The SQL of a model class never changes, so each statement is built once and the very
+ * same {@code String} instance is returned afterwards. Besides removing the per-call
+ * {@code StringBuilder} work, a stable SQL string is what the driver-side and server-side
+ * prepared statement caches are keyed on.
+ * <p>
+ * Shaped statements, whose text also depends on a shape value such as a row count, are cached
+ * per (model class, statement type, shape). Callers should keep the number of distinct shapes
+ * small so the driver and server caches are not flooded with one-off statements.
+ */
+public class StatementTemplateCache {
+    private static final Logger logger = Logger.getLogger(StatementTemplateCache.class.getName());
+    private static final StatementType[] TYPES = StatementType.values();
+    private static final ConcurrentMap<Class<? extends Model>, AtomicReferenceArray<String>> templates = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<ShapeKey, String> shapedTemplates = new ConcurrentHashMap<>();
+    private static final LongAdder hitCount = new LongAdder();
+    private static final LongAdder missCount = new LongAdder();
+
+    /**
+     * Identifies a shaped statement template.
+     */
+    private record ShapeKey(Class<? extends Model> modelClass, StatementType type, long shape) {}
+
+    /**
+     * Returns the SQL text of the given statement type for the model class, building it on first use.
+     *
+     * @param modelClass the model class the statement targets
+     * @param type       the kind of statement
+     * @return           the cached SQL statement
+     */
+    public static String get(Class<? extends Model> modelClass, StatementType type) {
+        AtomicReferenceArray<String> byType = templates.get(modelClass);
+        if (byType == null) {
+            byType = templates.computeIfAbsent(modelClass, key -> new AtomicReferenceArray<>(TYPES.length));
+        }
+
+        String statement = byType.get(type.ordinal());
+        if (statement != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+            // Concurrent first calls may build the same text twice, only one of them is kept
+            String built = type.build(modelClass, 0);
+            if (byType.compareAndSet(type.ordinal(), null, built)) {
+                statement = built;
+                logger.fine(() -> "Compiled " + type + " statement for " + modelClass.getSimpleName() + ": " + built);
+            } else {
+                statement = byType.get(type.ordinal());
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Returns the SQL text of the given shaped statement type for the model class, building it on first use.
+     *
+     * @param modelClass the model class the statement targets
+     * @param type       the kind of statement
+     * @param shape      the shape of the statement, for example the number of rows of a multi-row INSERT
+     * @return           the cached SQL statement
+     */
+    public static String get(Class<? extends Model> modelClass, StatementType type, long shape) {
+        ShapeKey key = new ShapeKey(modelClass, type, shape);
+        String statement = shapedTemplates.get(key);
+        if (statement != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+            statement = shapedTemplates.computeIfAbsent(key, ignored -> {
+                String built = type.build(modelClass, shape);
+                logger.fine(() -> "Compiled " + type + " statement of shape " + shape + " for " + modelClass.getSimpleName() + ".");
+                return built;
+            });
+        }
+        return statement;
+    }
+
+    /**
+     * @return the number of lookups answered with an already built statement
+     */
+    public static long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to build their statement, concurrent first builds included
+     */
+    public static long getMissCount() {
+        return missCount.sum();
+    }
+}
@@ -0,0 +1,59 @@
+package org.phinix.lib.common.util.factories;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+
+/**
+ * The kinds of SQL statement the factories can build for a model class.
+ * <p>
+ * Each constant knows how to build its statement text from a model class, which lets
+ * {@link StatementTemplateCache} produce every (model class, statement type) pair once.
+ * Shaped types, such as a multi-row INSERT, also depend on a shape value (for example the
+ * row count, the changed-column mask of a partial UPDATE or the number of keys looked up)
+ * and are cached per shape.
+ */
+public enum StatementType {
+    INSERT((modelClass, shape) -> DMLStatementFactory.buildInsertStatements(modelClass, tableName(modelClass))),
+    MULTI_ROW_INSERT((modelClass, shape) -> DMLStatementFactory.buildMultiRowInsertStatements(modelClass, tableName(modelClass), (int) shape)),
+    UPDATE((modelClass, shape) -> DMLStatementFactory.buildUpdateStatements(modelClass, tableName(modelClass))),
+    PARTIAL_UPDATE((modelClass, shape) -> DMLStatementFactory.buildPartialUpdateStatement(modelClass, tableName(modelClass), shape)),
+    UPSERT((modelClass, shape) -> DMLStatementFactory.buildUpsertStatement(modelClass, tableName(modelClass))),
+    DELETE((modelClass, shape) -> DMLStatementFactory.buildDeleteStatements(modelClass, tableName(modelClass))),
+    DELETE_ALL((modelClass, shape) -> DMLStatementFactory.buildDeleteAllStatement(modelClass)),
+    SELECT_ALL((modelClass, shape) -> QueryFactory.buildSelectAllQuery(modelClass)),
+    SELECT_BY_PRIMARY_KEY((modelClass, shape) -> QueryFactory.buildSelectByPrimaryKeyQuery(modelClass)),
+    SELECT_BY_PRIMARY_KEYS((modelClass, shape) -> QueryFactory.buildSelectByPrimaryKeysQuery(modelClass, (int) shape)),
+    SELECT_FIRST_PAGE((modelClass, shape) -> QueryFactory.buildSelectPageQuery(modelClass, false)),
+    SELECT_PAGE_AFTER((modelClass, shape) -> QueryFactory.buildSelectPageQuery(modelClass, true)),
+    JOIN_FETCH_ALL((modelClass, shape) -> QueryFactory.buildJoinFetchQuery(modelClass, false)),
+    JOIN_FETCH_BY_PRIMARY_KEY((modelClass, shape) -> QueryFactory.buildJoinFetchQuery(modelClass, true));
+
+    /**
+     * Builds the text of one statement type for a model class and shape.
+     */
+    @FunctionalInterface
+    private interface Builder {
+        String build(Class<? extends Model> modelClass, long shape);
+    }
+
+    private final Builder builder;
+
+    StatementType(Builder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Builds the statement text for the given model class and shape, bypassing any cache.
+     *
+     * @param modelClass the model class to build the statement for
+     * @param shape      the shape of the statement, ignored by types that have a single shape
+     * @return           the generated SQL statement
+     */
+    String build(Class<? extends Model> modelClass, long shape) {
+        return builder.build(modelClass, shape);
+    }
+
+    private static String tableName(Class<? extends Model> modelClass) {
+        return ModelMetadata.of(modelClass).getTableName();
+    }
+}
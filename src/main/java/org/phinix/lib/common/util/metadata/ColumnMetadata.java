@@ -0,0 +1,226 @@
+package org.phinix.lib.common.util.metadata;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Describes a single persistent field of a model class and how to read and write it.
+ * <p>
+ * Instances are created once per field by {@link ModelMetadata} and then reused for every
+ * row. Values are read and written through a {@link FieldAccessor} spun once per field, so no
+ * reflective call or accessibility check happens on the per-row path, and {@code int}, {@code long}
+ * and {@code double} columns are bound and read without boxing. The accessor is only spun the first
+ * time a value is accessed, which never happens for models handled by a generated {@link ModelBinder}.
+ */
+public final class ColumnMetadata {
+    private final String name;
+    private final Class<?> type;
+    private final boolean primaryKey;
+    private final int index;
+    private final Field field;
+    private volatile Access access; // Built on first use
+
+    /**
+     * The accessor of the field and the typed reader and binder built on it.
+     */
+    private record Access(FieldAccessor accessor, ColumnReader reader, ColumnBinder binder) {}
+
+    /**
+     * Copies one column of the current row of a ResultSet into a model field.
+     */
+    @FunctionalInterface
+    private interface ColumnReader {
+        void read(ResultSet resultSet, int columnIndex, Object model) throws SQLException;
+    }
+
+    /**
+     * Binds one model field to a statement placeholder.
+     */
+    @FunctionalInterface
+    private interface ColumnBinder {
+        void bind(Object model, PreparedStatement preparedStatement, int parameterIndex) throws SQLException;
+    }
+
+    ColumnMetadata(Field field, boolean primaryKey, int index) {
+        this.name = field.getName();
+        this.type = field.getType();
+        this.primaryKey = primaryKey;
+        this.index = index;
+        this.field = field;
+    }
+
+    /**
+     * Returns the accessors of the field, spinning them on first use.
+     */
+    private Access access() {
+        Access current = access;
+        if (current == null) {
+            FieldAccessor accessor = FieldAccessor.of(field);
+            current = new Access(accessor, readerFor(type, accessor), binderFor(type, accessor));
+            access = current; // Threads racing here build equivalent accessors, any of them will do
+        }
+        return current;
+    }
+
+    /**
+     * Chooses, once per field, the typed ResultSet getter matching the field type so that
+     * primitive columns are read without going through {@code getString} or boxing.
+     */
+    private static ColumnReader readerFor(Class<?> type, FieldAccessor accessor) {
+        if (type == int.class) {
+            return (resultSet, columnIndex, model) -> accessor.intSetter.accept(model, resultSet.getInt(columnIndex));
+        } else if (type == long.class) {
+            return (resultSet, columnIndex, model) -> accessor.longSetter.accept(model, resultSet.getLong(columnIndex));
+        } else if (type == double.class) {
+            return (resultSet, columnIndex, model) -> accessor.doubleSetter.accept(model, resultSet.getDouble(columnIndex));
+        } else if (type == float.class) {
+            return (resultSet, columnIndex, model) -> accessor.setter.accept(model, resultSet.getFloat(columnIndex));
+        } else if (type == short.class) {
+            return (resultSet, columnIndex, model) -> accessor.setter.accept(model, resultSet.getShort(columnIndex));
+        } else if (type == byte.class) {
+            return (resultSet, columnIndex, model) -> accessor.setter.accept(model, resultSet.getByte(columnIndex));
+        } else if (type == boolean.class) {
+            return (resultSet, columnIndex, model) -> accessor.setter.accept(model, resultSet.getBoolean(columnIndex));
+        } else if (type == String.class) {
+            return (resultSet, columnIndex, model) -> accessor.setter.accept(model, resultSet.getString(columnIndex));
+        }
+        // Wrapper and other reference types keep SQL NULL as null
+        return (resultSet, columnIndex, model) -> accessor.setter.accept(model, resultSet.getObject(columnIndex, type));
+    }
+
+    /**
+     * Chooses, once per field, the typed PreparedStatement setter matching the field type.
+     */
+    private static ColumnBinder binderFor(Class<?> type, FieldAccessor accessor) {
+        if (type == int.class) {
+            return (model, preparedStatement, parameterIndex) ->
+                    preparedStatement.setInt(parameterIndex, accessor.intGetter.applyAsInt(model));
+        } else if (type == long.class) {
+            return (model, preparedStatement, parameterIndex) ->
+                    preparedStatement.setLong(parameterIndex, accessor.longGetter.applyAsLong(model));
+        } else if (type == double.class) {
+            return (model, preparedStatement, parameterIndex) ->
+                    preparedStatement.setDouble(parameterIndex, accessor.doubleGetter.applyAsDouble(model));
+        } else if (type == String.class) {
+            return (model, preparedStatement, parameterIndex) ->
+                    preparedStatement.setString(parameterIndex, (String) accessor.getter.apply(model));
+        }
+        return (model, preparedStatement, parameterIndex) ->
+                preparedStatement.setObject(parameterIndex, accessor.getter.apply(model));
+    }
+
+    /**
+     * Reads the value of this column from the given model.
+     *
+     * @param model the model instance to read from
+     * @return      the current value of the field, boxed if primitive
+     */
+    public Object get(Object model) {
+        return access().accessor().getter.apply(model);
+    }
+
+    /**
+     * Reads the value of an {@code int} column from the given model without boxing.
+     *
+     * @param model                  the model instance to read from
+     * @return                       the current value of the field
+     * @throws IllegalStateException if the field is not an {@code int}
+     */
+    public int getInt(Object model) {
+        FieldAccessor accessor = access().accessor();
+        if (accessor.intGetter == null) {
+            throw new IllegalStateException("Field is not an int: " + name);
+        }
+        return accessor.intGetter.applyAsInt(model);
+    }
+
+    /**
+     * Reads the value of a {@code long} column from the given model without boxing.
+     *
+     * @param model                  the model instance to read from
+     * @return                       the current value of the field
+     * @throws IllegalStateException if the field is not a {@code long}
+     */
+    public long getLong(Object model) {
+        FieldAccessor accessor = access().accessor();
+        if (accessor.longGetter == null) {
+            throw new IllegalStateException("Field is not a long: " + name);
+        }
+        return accessor.longGetter.applyAsLong(model);
+    }
+
+    /**
+     * Writes a value into this column of the given model.
+     *
+     * @param model the model instance to write to
+     * @param value the new value of the field, boxed if the field is primitive
+     */
+    public void set(Object model, Object value) {
+        access().accessor().setter.accept(model, value);
+    }
+
+    /**
+     * Binds the value of this column from the given model to a statement placeholder,
+     * using the typed setter matching the field type.
+     *
+     * @param model             the model instance to read from
+     * @param preparedStatement the statement to bind to
+     * @param parameterIndex    the 1-based placeholder index
+     * @throws SQLException     if the value cannot be bound
+     */
+    public void bind(Object model, PreparedStatement preparedStatement, int parameterIndex) throws SQLException {
+        access().binder().bind(model, preparedStatement, parameterIndex);
+    }
+
+    /**
+     * Reads this column from the current row of a ResultSet into the given model,
+     * using the typed getter matching the field type.
+     *
+     * @param resultSet     the result set positioned on the row to read
+     * @param columnIndex   the 1-based index of the column in the result set
+     * @param model         the model instance to write to
+     * @throws SQLException if the column cannot be read
+     */
+    public void read(ResultSet resultSet, int columnIndex, Object model) throws SQLException {
+        access().reader().read(resultSet, columnIndex, model);
+    }
+
+    /**
+     * @return the column name, which is the field name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the Java type of the field
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return {@code true} if the field is annotated with {@code @PrimaryKey}
+     */
+    public boolean isPrimaryKey() {
+        return primaryKey;
+    }
+
+    /**
+     * @return the 0-based position of the column among all columns of its model
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnMetadata{" +
+                "name='" + name + '\'' +
+                ", type=" + type.getSimpleName() +
+                ", primaryKey=" + primaryKey +
+                '}';
+    }
+}
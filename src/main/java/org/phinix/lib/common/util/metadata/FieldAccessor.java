@@ -0,0 +1,268 @@
+package org.phinix.lib.common.util.metadata;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Getter and setter of one model field, spun once into plain functional interfaces.
+ * <p>
+ * The model's {@code get}/{@code is} and {@code set} methods are preferred and turned into lambdas with
+ * {@link LambdaMetafactory}, so each access is an interface call the JIT can inline. Fields without
+ * accessors go through a {@link MethodHandle} obtained from a private lookup instead, which does not need
+ * {@code setAccessible}. {@code int}, {@code long} and {@code double} fields also get specialized accessors
+ * that never box.
+ */
+final class FieldAccessor {
+    private static final Logger logger = Logger.getLogger(FieldAccessor.class.getName());
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    final Function<Object, Object> getter;
+    final BiConsumer<Object, Object> setter;
+    final ToIntFunction<Object> intGetter;       // Null unless the field is an int
+    final ObjIntConsumer<Object> intSetter;
+    final ToLongFunction<Object> longGetter;     // Null unless the field is a long
+    final ObjLongConsumer<Object> longSetter;
+    final ToDoubleFunction<Object> doubleGetter; // Null unless the field is a double
+    final ObjDoubleConsumer<Object> doubleSetter;
+
+    @SuppressWarnings("unchecked")
+    private FieldAccessor(Field field) throws ReflectiveOperationException {
+        Class<?> type = field.getType();
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP);
+        MethodHandle getterHandle = getterHandle(lookup, field);
+        MethodHandle setterHandle = setterHandle(lookup, field);
+
+        this.getter = (Function<Object, Object>) spin(lookup, Function.class, "apply",
+                MethodType.methodType(Object.class, Object.class), getterHandle);
+        this.setter = (BiConsumer<Object, Object>) spin(lookup, BiConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, Object.class), setterHandle);
+        if (type == int.class) {
+            this.intGetter = (ToIntFunction<Object>) spin(lookup, ToIntFunction.class, "applyAsInt",
+                    MethodType.methodType(int.class, Object.class), getterHandle);
+            this.intSetter = (ObjIntConsumer<Object>) spin(lookup, ObjIntConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, int.class), setterHandle);
+        } else {
+            this.intGetter = null;
+            this.intSetter = null;
+        }
+        if (type == long.class) {
+            this.longGetter = (ToLongFunction<Object>) spin(lookup, ToLongFunction.class, "applyAsLong",
+                    MethodType.methodType(long.class, Object.class), getterHandle);
+            this.longSetter = (ObjLongConsumer<Object>) spin(lookup, ObjLongConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, long.class), setterHandle);
+        } else {
+            this.longGetter = null;
+            this.longSetter = null;
+        }
+        if (type == double.class) {
+            this.doubleGetter = (ToDoubleFunction<Object>) spin(lookup, ToDoubleFunction.class, "applyAsDouble",
+                    MethodType.methodType(double.class, Object.class), getterHandle);
+            this.doubleSetter = (ObjDoubleConsumer<Object>) spin(lookup, ObjDoubleConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, double.class), setterHandle);
+        } else {
+            this.doubleGetter = null;
+            this.doubleSetter = null;
+        }
+    }
+
+    /**
+     * Builds the accessors of a field.
+     *
+     * @param field                  the model field to access
+     * @return                       the accessors of the field
+     * @throws IllegalStateException if the field cannot be accessed
+     */
+    static FieldAccessor of(Field field) {
+        try {
+            return new FieldAccessor(field);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Error accessing field: " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Finds the {@code get}/{@code is} method returning exactly the field type, or reads the field directly.
+     */
+    private static MethodHandle getterHandle(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+        Class<?> owner = field.getDeclaringClass();
+        String capitalized = capitalize(field.getName());
+        try {
+            return lookup.findVirtual(owner, "get" + capitalized, MethodType.methodType(field.getType()));
+        } catch (NoSuchMethodException e) {
+            if (field.getType() == boolean.class) {
+                try {
+                    return lookup.findVirtual(owner, "is" + capitalized, MethodType.methodType(boolean.class));
+                } catch (NoSuchMethodException ignored) {
+                    // Falls through to the field itself
+                }
+            }
+        }
+        return lookup.unreflectGetter(field);
+    }
+
+    /**
+     * Finds the {@code set} method taking exactly the field type, or writes the field directly.
+     */
+    private static MethodHandle setterHandle(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+        try {
+            return lookup.findVirtual(field.getDeclaringClass(), "set" + capitalize(field.getName()),
+                    MethodType.methodType(void.class, field.getType()));
+        } catch (NoSuchMethodException e) {
+            if (Modifier.isFinal(field.getModifiers())) {
+                field.setAccessible(true); // Final fields without setter can only be written this way
+            }
+            return lookup.unreflectSetter(field);
+        }
+    }
+
+    /**
+     * Implements a functional interface with the given handle, through {@link LambdaMetafactory} when the handle
+     * is a method, or by invoking the handle otherwise.
+     *
+     * @param lookup        a lookup with full privilege access in the model class
+     * @param interfaceType the functional interface to implement
+     * @param methodName    the name of its abstract method
+     * @param erasedType    the erased type of its abstract method
+     * @param handle        the getter or setter handle
+     * @return              an instance of the functional interface
+     */
+    private static Object spin(MethodHandles.Lookup lookup, Class<?> interfaceType, String methodName,
+                               MethodType erasedType, MethodHandle handle) {
+        CallSite callSite;
+        try {
+            callSite = LambdaMetafactory.metafactory(lookup, methodName, MethodType.methodType(interfaceType),
+                    erasedType, handle, instantiatedType(erasedType, handle.type()));
+        } catch (LambdaConversionException e) {
+            // Field handles, and lookups without full privilege, are not supported by the metafactory
+            logger.log(Level.FINE, e, () -> "Invoking " + handle + " as " + interfaceType.getSimpleName()
+                    + " through its method handle.");
+            return invoking(interfaceType, handle.asType(erasedType));
+        }
+        try {
+            return callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            throw rethrow(e); // The factory of a non-capturing lambda only returns its instance
+        }
+    }
+
+    /**
+     * The handle's own type, with reference slots boxed where the interface expects a reference.
+     */
+    private static MethodType instantiatedType(MethodType erasedType, MethodType handleType) {
+        MethodType instantiated = handleType;
+        for (int i = 0; i < erasedType.parameterCount(); i++) {
+            if (!erasedType.parameterType(i).isPrimitive()) {
+                instantiated = instantiated.changeParameterType(i, box(handleType.parameterType(i)));
+            }
+        }
+        if (erasedType.returnType() != void.class && !erasedType.returnType().isPrimitive()) {
+            instantiated = instantiated.changeReturnType(box(handleType.returnType()));
+        }
+        return instantiated;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    /**
+     * Implements the functional interface by invoking a handle already adapted to its erased type.
+     */
+    private static Object invoking(Class<?> interfaceType, MethodHandle handle) {
+        if (interfaceType == Function.class) {
+            return (Function<Object, Object>) model -> {
+                try {
+                    return (Object) handle.invokeExact(model);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        } else if (interfaceType == BiConsumer.class) {
+            return (BiConsumer<Object, Object>) (model, value) -> {
+                try {
+                    handle.invokeExact(model, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        } else if (interfaceType == ToIntFunction.class) {
+            return (ToIntFunction<Object>) model -> {
+                try {
+                    return (int) handle.invokeExact(model);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        } else if (interfaceType == ObjIntConsumer.class) {
+            return (ObjIntConsumer<Object>) (model, value) -> {
+                try {
+                    handle.invokeExact(model, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        } else if (interfaceType == ToLongFunction.class) {
+            return (ToLongFunction<Object>) model -> {
+                try {
+                    return (long) handle.invokeExact(model);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        } else if (interfaceType == ObjLongConsumer.class) {
+            return (ObjLongConsumer<Object>) (model, value) -> {
+                try {
+                    handle.invokeExact(model, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        } else if (interfaceType == ToDoubleFunction.class) {
+            return (ToDoubleFunction<Object>) model -> {
+                try {
+                    return (double) handle.invokeExact(model);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        } else if (interfaceType == ObjDoubleConsumer.class) {
+            return (ObjDoubleConsumer<Object>) (model, value) -> {
+                try {
+                    handle.invokeExact(model, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unsupported accessor type: " + interfaceType.getName());
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        } else if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+
+    private static String capitalize(String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
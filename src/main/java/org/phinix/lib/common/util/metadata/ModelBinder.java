@@ -0,0 +1,129 @@
+package org.phinix.lib.common.util.metadata;
+
+import org.phinix.lib.common.util.Model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reflection-free accessor for one model class, generated at build time by the
+ * {@code ModelBinderProcessor} for every class annotated with {@link org.phinix.lib.common.util.Table}
+ * or declaring {@link org.phinix.lib.common.util.PrimaryKey} fields.
+ * <p>
+ * The generated class is named after the model with a {@value #SUFFIX} suffix and lives in the
+ * model's package. It reads and writes columns through the model's getters and setters and binds
+ * them with the typed JDBC methods, so the per-row path is plain method calls the JIT can inline.
+ * {@link ModelMetadata} picks it up automatically and falls back to reflection when it is missing.
+ *
+ * @param <T> the model type handled by this binder
+ */
+public interface ModelBinder<T extends Model> {
+    /**
+     * Suffix appended to the model's class name to form the generated binder's class name.
+     */
+    String SUFFIX = "ModelBinder";
+
+    /**
+     * @return the model class handled by this binder
+     */
+    Class<T> getModelClass();
+
+    /**
+     * @return the column names in declaration order
+     */
+    List<String> getColumnNames();
+
+    /**
+     * @return the primary-key column names in declaration order
+     */
+    List<String> getPrimaryKeyNames();
+
+    /**
+     * Binds every column of the model, in declaration order, starting at the given index.
+     *
+     * @param model             the model whose values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     */
+    int bindColumns(T model, PreparedStatement preparedStatement, int index) throws SQLException;
+
+    /**
+     * Binds the columns whose bit is set in the mask, in declaration order, starting at the given index.
+     * Bit {@code i} stands for column {@code i}; columns past the 64th are never bound.
+     *
+     * @param model             the model whose values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @param columnMask        the columns to bind
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     */
+    int bindColumns(T model, PreparedStatement preparedStatement, int index, long columnMask) throws SQLException;
+
+    /**
+     * Binds the columns a full UPDATE sets, every non-key column or every column if all are keys,
+     * in declaration order, starting at the given index.
+     *
+     * @param model             the model whose values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     */
+    int bindUpdatableColumns(T model, PreparedStatement preparedStatement, int index) throws SQLException;
+
+    /**
+     * Binds the primary-key columns of the model, in declaration order, starting at the given index.
+     *
+     * @param model             the model whose key values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     */
+    int bindPrimaryKeys(T model, PreparedStatement preparedStatement, int index) throws SQLException;
+
+    /**
+     * Extracts the primary-key values of the model in declaration order.
+     *
+     * @param model the model to read the keys from
+     * @return      the key values, boxed if primitive
+     */
+    Object[] getPrimaryKeyValues(T model);
+
+    /**
+     * Extracts the values of every column of the model in declaration order.
+     *
+     * @param model the model to read
+     * @return      the column values, boxed if primitive
+     */
+    Object[] getColumnValues(T model);
+
+    /**
+     * Materializes a model from the current row of a ResultSet, reading its columns in
+     * declaration order starting at {@code firstColumn}.
+     *
+     * @param resultSet     the result set positioned on the row to read
+     * @param firstColumn   the 1-based index of the model's first column in the result set
+     * @return              a new model instance holding the row's values
+     * @throws SQLException if a column cannot be read
+     */
+    T mapRow(ResultSet resultSet, int firstColumn) throws SQLException;
+
+    /**
+     * @return a new, empty instance of the model
+     */
+    T newInstance();
+
+    /**
+     * Creates a new instance of the model holding the same column values.
+     *
+     * @param model the model to copy
+     * @return      the copy
+     */
+    T copy(T model);
+}
@@ -0,0 +1,465 @@
+package org.phinix.lib.common.util.metadata;
+
+import org.phinix.lib.common.util.Lazy;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.PrimaryKey;
+import org.phinix.lib.common.util.References;
+import org.phinix.lib.common.util.Table;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cached description of a {@link Model} class: its table name, its ordered columns,
+ * its primary-key columns and the accessors used to read and write them.
+ * <p>
+ * Metadata is built by reflection the first time a model class is seen and then kept in a
+ * concurrent registry, so statement factories and DAOs never reflect on the per-row path.
+ * Static, transient and synthetic fields are not considered columns. The table name is the
+ * {@link Table} value when present, the lowercase simple class name otherwise. Columns annotated with
+ * {@link References} are described by a {@link ReferenceMetadata} as well.
+ * <p>
+ * When the build generated a {@link ModelBinder} for the model, binding, key extraction, copies and row
+ * hydration are delegated to it and go through plain getter and setter calls instead of reflection. The
+ * reflective accessors and constructor are then never made accessible, being only built on first use.
+ *
+ * @param <T> the model type described by this metadata
+ */
+public final class ModelMetadata<T extends Model> {
+    private static final Logger logger = Logger.getLogger(ModelMetadata.class.getName());
+    private static final ConcurrentMap<Class<?>, ModelMetadata<?>> registry = new ConcurrentHashMap<>();
+
+    private final Class<T> modelClass;
+    private final String tableName;
+    private final List<ColumnMetadata> columns;
+    private final List<ColumnMetadata> primaryKeyColumns;
+    private final List<ColumnMetadata> updatableColumns;
+    private final List<ReferenceMetadata> references;
+    private volatile Constructor<T> constructor; // Resolved on first reflective instantiation
+    private final ModelBinder<T> binder; // Null when no binder was generated for the model
+
+    private ModelMetadata(Class<T> modelClass) {
+        this.modelClass = modelClass;
+        Table table = modelClass.getAnnotation(Table.class);
+        this.tableName = table != null && !table.value().isEmpty() ? table.value() : modelClass.getSimpleName().toLowerCase();
+
+        List<ColumnMetadata> allColumns = new ArrayList<>();
+        List<ColumnMetadata> keyColumns = new ArrayList<>();
+        for (Field field : modelClass.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                continue;
+            }
+            ColumnMetadata column = new ColumnMetadata(field, field.isAnnotationPresent(PrimaryKey.class), allColumns.size());
+            allColumns.add(column);
+            if (column.isPrimaryKey()) {
+                keyColumns.add(column);
+            }
+        }
+        this.columns = Collections.unmodifiableList(allColumns);
+        this.primaryKeyColumns = Collections.unmodifiableList(keyColumns);
+        // Key columns identify the row and are not SET, unless there is nothing else to set
+        List<ColumnMetadata> nonKeyColumns = allColumns.stream().filter(column -> !column.isPrimaryKey()).toList();
+        this.updatableColumns = nonKeyColumns.isEmpty() ? this.columns : nonKeyColumns;
+        this.references = resolveReferences(modelClass, allColumns);
+        this.binder = loadBinder(modelClass, allColumns, keyColumns);
+    }
+
+    /**
+     * Finds the columns annotated with {@link References} and the transient holder field of each one.
+     *
+     * @throws IllegalArgumentException if a holder cannot be found unambiguously or is not a transient field
+     *                                  of the referenced type or of a {@link Lazy} of it
+     */
+    private static List<ReferenceMetadata> resolveReferences(Class<?> modelClass, List<ColumnMetadata> columns) {
+        List<ReferenceMetadata> references = new ArrayList<>();
+        for (ColumnMetadata column : columns) {
+            References reference;
+            try {
+                reference = modelClass.getDeclaredField(column.getName()).getAnnotation(References.class);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e); // Columns are declared fields
+            }
+            if (reference == null) {
+                continue;
+            }
+
+            Field holder = null;
+            for (Field field : modelClass.getDeclaredFields()) {
+                boolean named = reference.holder().isEmpty() || reference.holder().equals(field.getName());
+                if (!named || !Modifier.isTransient(field.getModifiers()) || Modifier.isStatic(field.getModifiers())
+                        || !isHolderOf(field, reference.value())) {
+                    continue;
+                }
+                if (holder != null) {
+                    throw new IllegalArgumentException(modelClass.getSimpleName() + " has several holders for reference "
+                            + column.getName() + ", name one with @References(holder = ...).");
+                }
+                holder = field;
+            }
+            if (holder == null && !reference.holder().isEmpty()) {
+                throw new IllegalArgumentException(modelClass.getSimpleName() + " has no transient "
+                        + reference.value().getSimpleName() + " field named " + reference.holder() + ".");
+            }
+            references.add(new ReferenceMetadata(column, reference.value(), holder));
+        }
+        return Collections.unmodifiableList(references);
+    }
+
+    /**
+     * Tells whether the field can hold the referenced model: it is of the referenced class or a
+     * {@link Lazy} of it.
+     */
+    private static boolean isHolderOf(Field field, Class<?> referencedClass) {
+        if (field.getType() == referencedClass) {
+            return true;
+        }
+        return field.getType() == Lazy.class && field.getGenericType() instanceof ParameterizedType type
+                && type.getActualTypeArguments()[0] == referencedClass;
+    }
+
+    /**
+     * Loads the binder generated for the model, if any, and checks that it agrees with the
+     * reflective column order the cached statements were built from.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Model> ModelBinder<T> loadBinder(Class<T> modelClass, List<ColumnMetadata> columns,
+                                                               List<ColumnMetadata> keyColumns) {
+        String binderName = modelClass.getPackageName().isEmpty()
+                ? modelClass.getSimpleName() + ModelBinder.SUFFIX
+                : modelClass.getPackageName() + "." + modelClass.getSimpleName() + ModelBinder.SUFFIX;
+        ModelBinder<T> binder;
+        try {
+            Class<?> binderClass = Class.forName(binderName, true, modelClass.getClassLoader());
+            binder = (ModelBinder<T>) binderClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null; // Not generated, the reflective accessors are used
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            logger.log(Level.WARNING, "Error loading model binder: " + binderName, e);
+            return null;
+        }
+
+        if (binder.getModelClass() != modelClass
+                || !binder.getColumnNames().equals(columns.stream().map(ColumnMetadata::getName).toList())
+                || !binder.getPrimaryKeyNames().equals(keyColumns.stream().map(ColumnMetadata::getName).toList())) {
+            logger.warning("Model binder " + binderName + " does not match " + modelClass.getName()
+                    + ", it is probably stale; reflection will be used.");
+            return null;
+        }
+        return binder;
+    }
+
+    /**
+     * Returns the cached metadata of the given model class, building it on first use.
+     *
+     * @param modelClass the model class to describe
+     * @param <T>        the type of the model, which must extend {@link Model}
+     * @return           the metadata of the model class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Model> ModelMetadata<T> of(Class<T> modelClass) {
+        ModelMetadata<?> metadata = registry.get(modelClass);
+        if (metadata == null) {
+            metadata = registry.computeIfAbsent(modelClass, type -> new ModelMetadata<>((Class<T>) type));
+        }
+        return (ModelMetadata<T>) metadata;
+    }
+
+    /**
+     * Returns the cached metadata of the given model's class.
+     *
+     * @param model the model instance whose class should be described
+     * @param <T>   the type of the model, which must extend {@link Model}
+     * @return      the metadata of the model's class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Model> ModelMetadata<T> of(T model) {
+        return of((Class<T>) model.getClass());
+    }
+
+    /**
+     * Binds every column of the model, in declaration order, starting at the given index.
+     *
+     * @param model             the model whose values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     */
+    public int bindColumns(T model, PreparedStatement preparedStatement, int index) throws SQLException {
+        if (binder != null) {
+            return binder.bindColumns(model, preparedStatement, index);
+        }
+        for (ColumnMetadata column : columns) {
+            column.bind(model, preparedStatement, index++);
+        }
+        return index;
+    }
+
+    /**
+     * Binds the columns a full UPDATE sets, in declaration order, starting at the given index.
+     *
+     * @param model             the model whose values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     * @see #getUpdatableColumns()
+     */
+    public int bindUpdatableColumns(T model, PreparedStatement preparedStatement, int index) throws SQLException {
+        if (binder != null) {
+            return binder.bindUpdatableColumns(model, preparedStatement, index);
+        }
+        for (ColumnMetadata column : updatableColumns) {
+            column.bind(model, preparedStatement, index++);
+        }
+        return index;
+    }
+
+    /**
+     * Binds the columns whose bit is set in the mask, in declaration order, starting at the given index.
+     * Bit {@code i} stands for the column of {@link ColumnMetadata#getIndex() index} {@code i}.
+     *
+     * @param model             the model whose values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @param columnMask        the columns to bind
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     */
+    public int bindColumns(T model, PreparedStatement preparedStatement, int index, long columnMask) throws SQLException {
+        if (binder != null) {
+            return binder.bindColumns(model, preparedStatement, index, columnMask);
+        }
+        for (ColumnMetadata column : columns) {
+            if ((columnMask & (1L << column.getIndex())) != 0) {
+                column.bind(model, preparedStatement, index++);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Compares two states of the same row and returns the columns whose values differ.
+     *
+     * @param snapshot                  the earlier state of the model
+     * @param current                   the current state of the model
+     * @return                          a mask with bit {@code i} set if column {@code i} changed
+     * @throws IllegalArgumentException if the model has more than 64 columns
+     */
+    public long changedColumns(T snapshot, T current) {
+        requireMaskableColumns();
+        long mask = 0;
+        if (binder != null) {
+            Object[] before = binder.getColumnValues(snapshot);
+            Object[] after = binder.getColumnValues(current);
+            for (int i = 0; i < before.length; i++) {
+                if (!Objects.equals(before[i], after[i])) {
+                    mask |= 1L << i;
+                }
+            }
+            return mask;
+        }
+        for (ColumnMetadata column : columns) {
+            if (!Objects.equals(column.get(snapshot), column.get(current))) {
+                mask |= 1L << column.getIndex();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Fails if the columns of the model cannot be described by a {@code long} bit mask.
+     *
+     * @throws IllegalArgumentException if the model has more than 64 columns
+     */
+    public void requireMaskableColumns() {
+        if (columns.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Model " + modelClass.getSimpleName() + " has more than "
+                    + Long.SIZE + " columns, column masks are not supported.");
+        }
+    }
+
+    /**
+     * Binds the primary-key columns of the model, in declaration order, starting at the given index.
+     *
+     * @param model             the model whose key values are bound
+     * @param preparedStatement the statement to bind to
+     * @param index             the first placeholder index to use
+     * @return                  the next free placeholder index
+     * @throws SQLException     if a value cannot be bound
+     */
+    public int bindPrimaryKeys(T model, PreparedStatement preparedStatement, int index) throws SQLException {
+        requirePrimaryKeyColumns();
+        if (binder != null) {
+            return binder.bindPrimaryKeys(model, preparedStatement, index);
+        }
+        for (ColumnMetadata column : primaryKeyColumns) {
+            column.bind(model, preparedStatement, index++);
+        }
+        return index;
+    }
+
+    /**
+     * Collects the primary-key values of the model, keyed by column name in declaration order.
+     *
+     * @param model                     the model to read the keys from
+     * @return                          a map of primary-key column names to their values
+     * @throws IllegalArgumentException if the model has no {@code @PrimaryKey} fields
+     */
+    public Map<String, Object> getPrimaryKeyValues(T model) {
+        requirePrimaryKeyColumns();
+        Map<String, Object> primaryKeys = new LinkedHashMap<>();
+        if (binder != null) {
+            Object[] values = binder.getPrimaryKeyValues(model);
+            for (int i = 0; i < values.length; i++) {
+                primaryKeys.put(primaryKeyColumns.get(i).getName(), values[i]);
+            }
+            return primaryKeys;
+        }
+        for (ColumnMetadata column : primaryKeyColumns) {
+            primaryKeys.put(column.getName(), column.get(model));
+        }
+        return primaryKeys;
+    }
+
+    /**
+     * Materializes a model from the current row of a ResultSet.
+     * <p>
+     * The columns of the model are expected in declaration order starting at {@code firstColumn},
+     * which is how the cached SELECT statements list them.
+     *
+     * @param resultSet     the result set positioned on the row to read
+     * @param firstColumn   the 1-based index of the model's first column in the result set
+     * @return              a new model instance holding the row's values
+     * @throws SQLException if a column cannot be read
+     */
+    public T mapRow(ResultSet resultSet, int firstColumn) throws SQLException {
+        if (binder != null) {
+            return binder.mapRow(resultSet, firstColumn);
+        }
+        T model = newInstance();
+        int columnIndex = firstColumn;
+        for (ColumnMetadata column : columns) {
+            column.read(resultSet, columnIndex++, model);
+        }
+        return model;
+    }
+
+    /**
+     * Creates a new, empty instance of the model through its no-args constructor.
+     *
+     * @return a new model instance
+     * @throws IllegalStateException if the model has no no-args constructor or it fails
+     */
+    public T newInstance() {
+        if (binder != null) {
+            return binder.newInstance();
+        }
+        Constructor<T> noArgsConstructor = constructor;
+        try {
+            if (noArgsConstructor == null) {
+                noArgsConstructor = modelClass.getDeclaredConstructor();
+                noArgsConstructor.setAccessible(true);
+                constructor = noArgsConstructor;
+            }
+            return noArgsConstructor.newInstance();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Model " + modelClass.getName() + " has no no-args constructor.");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Error instantiating model: " + modelClass.getName(), e);
+        }
+    }
+
+    /**
+     * Creates a shallow copy of the model holding the same column values.
+     * Transient fields are not columns and are left at their defaults.
+     *
+     * @param model the model to copy
+     * @return      a new model instance with the same column values
+     */
+    public T copy(T model) {
+        if (binder != null) {
+            return binder.copy(model);
+        }
+        T copy = newInstance();
+        for (ColumnMetadata column : columns) {
+            column.set(copy, column.get(model));
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the primary-key columns, failing if the model declares none.
+     *
+     * @return                          the primary-key columns in declaration order
+     * @throws IllegalArgumentException if the model does not have fields annotated with @PrimaryKey
+     */
+    public List<ColumnMetadata> requirePrimaryKeyColumns() {
+        if (primaryKeyColumns.isEmpty()) {
+            throw new IllegalArgumentException("Model does not have fields annotated with @PrimaryKey.");
+        }
+        return primaryKeyColumns;
+    }
+
+    public Class<T> getModelClass() {
+        return modelClass;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    public List<ColumnMetadata> getPrimaryKeyColumns() {
+        return primaryKeyColumns;
+    }
+
+    /**
+     * @return the columns a full UPDATE sets: every non-key column, or every column if all are keys
+     */
+    public List<ColumnMetadata> getUpdatableColumns() {
+        return updatableColumns;
+    }
+
+    /**
+     * @return the columns annotated with {@link References}, in declaration order
+     */
+    public List<ReferenceMetadata> getReferences() {
+        return references;
+    }
+
+    /**
+     * @return {@code true} if a generated {@link ModelBinder} replaces reflection for this model
+     */
+    public boolean hasBinder() {
+        return binder != null;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelMetadata{" +
+                "modelClass=" + modelClass.getName() +
+                ", tableName='" + tableName + '\'' +
+                ", columns=" + columns +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+package org.phinix.lib.common.util.metadata;
+
+import org.phinix.lib.common.util.Lazy;
+import org.phinix.lib.common.util.Model;
+
+import java.lang.reflect.Field;
+
+/**
+ * Describes a column annotated with {@link org.phinix.lib.common.util.References}: the referenced
+ * model class and the transient holder field the referenced model is loaded into.
+ * <p>
+ * The holder is either of the referenced class or a {@link Lazy} of it. Models stored through
+ * {@link #setReferenced(Object, Model)} are wrapped in a loaded {@code Lazy} when the holder is lazy.
+ * <p>
+ * Instances are created once per reference by {@link ModelMetadata}. The holder is written through a
+ * {@link FieldAccessor} spun on first use, like the columns.
+ */
+public final class ReferenceMetadata {
+    private final ColumnMetadata column;
+    private final Class<? extends Model> referencedClass;
+    private final String holderName;    // Null when the model has no holder for the reference
+    private final Field holderField;
+    private volatile FieldAccessor holder; // Built on first use
+    private final boolean lazy;
+
+    ReferenceMetadata(ColumnMetadata column, Class<? extends Model> referencedClass, Field holderField) {
+        this.column = column;
+        this.referencedClass = referencedClass;
+        this.holderName = holderField != null ? holderField.getName() : null;
+        this.holderField = holderField;
+        this.lazy = holderField != null && holderField.getType() == Lazy.class;
+    }
+
+    /**
+     * Stores the referenced model in the holder field of the given model.
+     *
+     * @param model                  the model holding the reference
+     * @param referenced             the referenced model, or {@code null}
+     * @throws IllegalStateException if the model has no holder field for this reference
+     */
+    public void setReferenced(Object model, Model referenced) {
+        holder().setter.accept(model, lazy ? Lazy.of(referenced) : referenced);
+    }
+
+    /**
+     * Stores a lazy holder of the referenced model in the holder field of the given model.
+     *
+     * @param model                  the model holding the reference
+     * @param referenced             the lazy holder of the referenced model
+     * @throws IllegalStateException if the model has no {@link Lazy} holder field for this reference
+     */
+    public void setLazy(Object model, Lazy<?> referenced) {
+        if (!lazy) {
+            throw new IllegalStateException("Reference " + column.getName() + " has no Lazy holder field.");
+        }
+        holder().setter.accept(model, referenced);
+    }
+
+    /**
+     * Reads the referenced model from the holder field of the given model.
+     *
+     * @param model                  the model holding the reference
+     * @return                       the referenced model, its {@link Lazy} holder, or {@code null} if
+     *                               it was not loaded
+     * @throws IllegalStateException if the model has no holder field for this reference
+     */
+    public Object getReferenced(Object model) {
+        return holder().getter.apply(model);
+    }
+
+    /**
+     * Returns the accessor of the holder field, spinning it on first use.
+     *
+     * @throws IllegalStateException if the model has no holder field for this reference
+     */
+    private FieldAccessor holder() {
+        if (holderField == null) {
+            throw new IllegalStateException("Reference " + column.getName() + " has no holder field.");
+        }
+        FieldAccessor current = holder;
+        if (current == null) {
+            current = FieldAccessor.of(holderField);
+            holder = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return the foreign key column
+     */
+    public ColumnMetadata getColumn() {
+        return column;
+    }
+
+    /**
+     * @return the model class whose primary key the column holds
+     */
+    public Class<? extends Model> getReferencedClass() {
+        return referencedClass;
+    }
+
+    /**
+     * @return {@code true} if the model has a transient field receiving the referenced model
+     */
+    public boolean hasHolder() {
+        return holderField != null;
+    }
+
+    /**
+     * @return {@code true} if the holder field is a {@link Lazy}
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * @return the name of the holder field, or {@code null} if there is none
+     */
+    public String getHolderName() {
+        return holderName;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceMetadata{" +
+                "column='" + column.getName() + '\'' +
+                ", referencedClass=" + referencedClass.getSimpleName() +
+                ", holder=" + holderName +
+                ", lazy=" + lazy +
+                '}';
+    }
+}
@@ -0,0 +1,211 @@
+package org.phinix.lib.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A {@link Handler} that queues log records in a bounded ring buffer and publishes them to another handler
+ * from a single background thread.
+ * <p>
+ * Logging threads never wait on the output stream or on each other: a record claims a slot with one
+ * compare-and-set and the call returns. When the buffer cannot take a record, the {@link DropPolicy}
+ * decides what is lost, and the number of dropped records is reported through the delegate once the
+ * buffer has room again. Records that pass the level check of their logger are the only ones that reach
+ * this handler, so disabled levels never touch the buffer.
+ * <p>
+ * The source class and method of a record are inferred from the calling thread's stack, so they are
+ * resolved before the record is queued. {@link #flush()} waits until the records queued so far are
+ * published, and {@link #close()} publishes what is left before closing the delegate.
+ */
+public class AsyncHandler extends Handler {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * What to do with a record when the buffer is too full to take it.
+     */
+    public enum DropPolicy {
+        /** Discards the incoming record once the buffer is full. */
+        DROP_NEWEST,
+        /**
+         * Discards incoming records below {@link Level#WARNING} once the buffer is 80% full,
+         * keeping the remaining room for warnings and errors, then any record once it is full.
+         */
+        DISCARD_BELOW_WARNING
+    }
+
+    private final Handler delegate;
+    private final DropPolicy dropPolicy;
+    private final int mask;
+    private final int discardThreshold;
+    private final AtomicReferenceArray<LogRecord> buffer;
+    private final AtomicLong head = new AtomicLong(); // Next slot claimed by a logging thread
+    private volatile long tail;                       // Next slot read by the writer thread
+    private final LongAdder droppedCount = new LongAdder();
+    private long reportedDropCount;                   // Only accessed by the writer thread
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Creates an async handler and starts its writer thread.
+     *
+     * @param delegate                  the handler the records are published to
+     * @param capacity                  the number of records the buffer holds, rounded up to a power of two
+     * @param dropPolicy                what to do with a record when the buffer is too full
+     * @throws IllegalArgumentException if the capacity is lower than 2 or higher than 2^30
+     */
+    public AsyncHandler(Handler delegate, int capacity, DropPolicy dropPolicy) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30.");
+        }
+        this.delegate = delegate;
+        this.dropPolicy = dropPolicy;
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.discardThreshold = dropPolicy == DropPolicy.DISCARD_BELOW_WARNING ? size - size / 5 : size;
+        this.buffer = new AtomicReferenceArray<>(size);
+
+        this.writer = new Thread(this::drainLoop, "phinix-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        record.getSourceClassName(); // Infer the caller now, the writer thread has a different stack
+
+        int threshold = record.getLevel().intValue() < Level.WARNING.intValue() ? discardThreshold : buffer.length();
+        while (true) {
+            long slot = head.get();
+            if (slot - tail >= threshold) {
+                droppedCount.increment();
+                return;
+            }
+            if (head.compareAndSet(slot, slot + 1)) {
+                buffer.set((int) slot & mask, record);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits until the records queued before the call are published, then flushes the delegate.
+     */
+    @Override
+    public void flush() {
+        long target = head.get();
+        while (tail < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            Thread.onSpinWait();
+        }
+        delegate.flush();
+    }
+
+    /**
+     * Publishes the queued records, stops the writer thread and closes the delegate.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+
+    /**
+     * Returns the number of records dropped because the buffer was too full.
+     *
+     * @return the total number of dropped records
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Returns the number of records waiting in the buffer.
+     *
+     * @return the number of queued records
+     */
+    public int getQueuedCount() {
+        return (int) (head.get() - tail);
+    }
+
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    public Handler getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Body of the writer thread: publishes records in slot order and parks while the buffer is empty.
+     */
+    private void drainLoop() {
+        boolean published = false;
+        while (true) {
+            long next = tail;
+            if (next == head.get()) {
+                reportDrops();
+                if (published) {
+                    delegate.flush();
+                    published = false;
+                }
+                if (closed) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            // A logging thread claimed the slot but may not have stored its record yet
+            int index = (int) next & mask;
+            LogRecord record = buffer.get(index);
+            if (record == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            buffer.lazySet(index, null);
+            tail = next + 1;
+
+            try {
+                delegate.publish(record);
+                published = true;
+            } catch (RuntimeException e) {
+                reportError("Error publishing log record", e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Tells the delegate how many records were dropped since the last report.
+     */
+    private void reportDrops() {
+        long dropped = droppedCount.sum();
+        if (dropped > reportedDropCount) {
+            LogRecord record = new LogRecord(Level.WARNING,
+                    (dropped - reportedDropCount) + " log record(s) dropped, the async log buffer was full.");
+            record.setLoggerName(AsyncHandler.class.getName());
+            record.setSourceClassName(AsyncHandler.class.getName());
+            record.setSourceMethodName("publish");
+            reportedDropCount = dropped;
+            delegate.publish(record);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.phinix.lib.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+/**
+ * Configures the loggers of the library: an {@link AsyncHandler} on the {@code org.phinix.lib} logger and
+ * a level per logger.
+ * <p>
+ * {@link #install()} routes every library logger through one async handler writing to the console, so DAO
+ * calls never wait on the output stream. It reads the following system properties:
+ * <ul>
+ *     <li>{@code phinix.logging.async}: {@code false} keeps the JDK handlers of the root logger</li>
+ *     <li>{@code phinix.logging.bufferSize}: the records the ring buffer holds, 8192 by default</li>
+ *     <li>{@code phinix.logging.dropPolicy}: {@code drop_newest} or {@code discard_below_warning} (default)</li>
+ *     <li>{@code phinix.logging.levels}: levels per logger, such as
+ *         {@code org.phinix.lib.common.dao=FINE,org.phinix.lib.service=WARNING}</li>
+ * </ul>
+ * Handlers declared for {@code org.phinix.lib} in the {@code logging.properties} file take precedence and
+ * leave the logger untouched. Per-call DAO messages are logged at FINE with message suppliers, so they are
+ * neither built nor queued unless that level is enabled.
+ */
+public final class LoggingConfig {
+    public static final String ROOT_LOGGER = "org.phinix.lib";
+    private static final Logger logger = Logger.getLogger(LoggingConfig.class.getName());
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    // JUL only holds loggers weakly, a configured level would be lost with a logger nobody references yet
+    private static final Map<String, Logger> configuredLoggers = new ConcurrentHashMap<>();
+    private static volatile AsyncHandler asyncHandler;
+    private static boolean installed; // Guarded by the class lock
+
+    private LoggingConfig() {}
+
+    /**
+     * Installs the async handler and the configured levels, once. Later calls do nothing.
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        Logger root = keep(ROOT_LOGGER);
+        boolean configuredByFile = LogManager.getLogManager().getProperty(ROOT_LOGGER + ".handlers") != null;
+        if (!configuredByFile && !"false".equalsIgnoreCase(System.getProperty("phinix.logging.async"))) {
+            ConsoleHandler console = new ConsoleHandler();
+            console.setLevel(Level.ALL); // The logger levels decide what is published
+            asyncHandler = new AsyncHandler(console, parseBufferSize(System.getProperty("phinix.logging.bufferSize")),
+                    parseDropPolicy(System.getProperty("phinix.logging.dropPolicy")));
+            root.addHandler(asyncHandler);
+            root.setUseParentHandlers(false);
+        }
+        parseLevels(System.getProperty("phinix.logging.levels")).forEach(LoggingConfig::setLevel);
+    }
+
+    /**
+     * Sets the level of a logger and of the loggers below it that have no level of their own.
+     *
+     * @param loggerName the name of the logger, such as a package or class name
+     * @param level      the level to set, or {@code null} to inherit the parent's level
+     */
+    public static void setLevel(String loggerName, Level level) {
+        keep(loggerName).setLevel(level);
+    }
+
+    /**
+     * Sets the level of the logger of a class.
+     *
+     * @param type  the class whose logger is configured
+     * @param level the level to set, or {@code null} to inherit the parent's level
+     */
+    public static void setLevel(Class<?> type, Level level) {
+        setLevel(type.getName(), level);
+    }
+
+    /**
+     * Returns the handler installed by {@link #install()}.
+     *
+     * @return the async handler, or {@code null} if the library logs through other handlers
+     */
+    public static AsyncHandler getAsyncHandler() {
+        return asyncHandler;
+    }
+
+    private static Logger keep(String loggerName) {
+        return configuredLoggers.computeIfAbsent(loggerName, Logger::getLogger);
+    }
+
+    private static int parseBufferSize(String value) {
+        if (value == null) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid log buffer size '" + value + "', using " + DEFAULT_BUFFER_SIZE + ".");
+            return DEFAULT_BUFFER_SIZE;
+        }
+    }
+
+    private static AsyncHandler.DropPolicy parseDropPolicy(String value) {
+        if (value == null) {
+            return AsyncHandler.DropPolicy.DISCARD_BELOW_WARNING;
+        }
+        try {
+            return AsyncHandler.DropPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Unknown log drop policy '" + value + "', using DISCARD_BELOW_WARNING.");
+            return AsyncHandler.DropPolicy.DISCARD_BELOW_WARNING;
+        }
+    }
+
+    private static Map<String, Level> parseLevels(String value) {
+        Map<String, Level> levels = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return levels;
+        }
+        for (String entry : value.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator < 1) {
+                logger.warning("Invalid logger level '" + entry + "', expected name=LEVEL.");
+                continue;
+            }
+            try {
+                levels.put(entry.substring(0, separator).trim(), Level.parse(entry.substring(separator + 1).trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Unknown level in '" + entry + "'.");
+            }
+        }
+        return levels;
+    }
+}
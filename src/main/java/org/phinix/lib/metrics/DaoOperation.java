@@ -0,0 +1,26 @@
+package org.phinix.lib.metrics;
+
+import org.phinix.lib.common.util.factories.StatementType;
+
+/**
+ * The kinds of DAO operation metrics are kept for, each grouping several {@link StatementType}s.
+ */
+public enum DaoOperation {
+    INSERT, UPDATE, UPSERT, DELETE, SELECT;
+
+    /**
+     * Returns the operation a statement type is counted under.
+     *
+     * @param type the statement type
+     * @return     the operation
+     */
+    public static DaoOperation of(StatementType type) {
+        return switch (type) {
+            case INSERT, MULTI_ROW_INSERT -> INSERT;
+            case UPDATE, PARTIAL_UPDATE -> UPDATE;
+            case UPSERT -> UPSERT;
+            case DELETE, DELETE_ALL -> DELETE;
+            default -> SELECT;
+        };
+    }
+}
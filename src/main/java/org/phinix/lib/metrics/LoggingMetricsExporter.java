@@ -0,0 +1,21 @@
+package org.phinix.lib.metrics;
+
+import java.util.logging.Logger;
+
+/**
+ * A {@link MetricsExporter} writing one INFO log line per active operation, pool and statement cache.
+ */
+public class LoggingMetricsExporter implements MetricsExporter {
+    private static final Logger logger = Logger.getLogger(LoggingMetricsExporter.class.getName());
+
+    @Override
+    public void export(MetricsRegistry registry) {
+        for (OperationMetrics operation : registry.getOperationMetrics()) {
+            if (operation.getCallCount() > 0) {
+                logger.info(operation.toString());
+            }
+        }
+        registry.getPoolMetrics().forEach((name, pool) -> logger.info(name + " " + pool));
+        logger.info(registry.getStatementCacheMetrics().toString());
+    }
+}
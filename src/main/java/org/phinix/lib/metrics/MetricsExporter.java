@@ -0,0 +1,23 @@
+package org.phinix.lib.metrics;
+
+/**
+ * Service provider interface publishing the content of a {@link MetricsRegistry} to a monitoring system.
+ * <p>
+ * Exporters are added with {@link MetricsRegistry#addExporter(MetricsExporter)}, or discovered with
+ * {@link java.util.ServiceLoader} by {@link MetricsRegistry#loadExporters()} when listed in
+ * {@code META-INF/services/org.phinix.lib.metrics.MetricsExporter}. They are called periodically from a
+ * single background thread once {@link MetricsRegistry#startExporting(long)} was called.
+ */
+public interface MetricsExporter {
+    /**
+     * Publishes the current values of the registry.
+     *
+     * @param registry the registry to read
+     */
+    void export(MetricsRegistry registry);
+
+    /**
+     * Releases the resources of the exporter when the registry is closed.
+     */
+    default void close() {}
+}
@@ -0,0 +1,316 @@
+package org.phinix.lib.metrics;
+
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.service.PoolMetrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the metrics of the DAO layer: per operation and table call counts, errors, rows and latency
+ * histograms, connection pool metrics and statement cache hit counters.
+ * <p>
+ * {@link org.phinix.lib.common.dao.dml.AbstractDMLDao} and {@link org.phinix.lib.common.dao.queries.AbstractQueryDao}
+ * record into {@link #global()} unless given another registry. Recording looks the {@link OperationMetrics} up
+ * through a {@link ClassValue} and updates striped counters, so once an operation has been seen for a model
+ * class it neither allocates nor locks. Every metric is also registered as an MXBean under the registry's
+ * JMX domain, for example {@code org.phinix.lib:type=DaoOperation,operation=SELECT,table=routes}, and can be
+ * pushed elsewhere by {@link MetricsExporter}s. Slow statements are reported to the registry's {@link SlowQueryLog}.
+ */
+public class MetricsRegistry implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(MetricsRegistry.class.getName());
+    private static final String DEFAULT_JMX_DOMAIN = "org.phinix.lib";
+    private static final DaoOperation[] OPERATIONS = DaoOperation.values();
+    private static volatile MetricsRegistry global;
+
+    /**
+     * Table name under which SQL run without a model class, such as a raw {@code queryForList}, is counted.
+     */
+    public static final String RAW_SQL_TABLE = "sql";
+
+    private final String jmxDomain; // Null when the registry is not exposed through JMX
+    private final ClassValue<AtomicReferenceArray<OperationMetrics>> byModelClass = new ClassValue<>() {
+        @Override
+        protected AtomicReferenceArray<OperationMetrics> computeValue(Class<?> type) {
+            return new AtomicReferenceArray<>(OPERATIONS.length);
+        }
+    };
+    private final AtomicReferenceArray<OperationMetrics> rawSql = new AtomicReferenceArray<>(OPERATIONS.length);
+    private final List<OperationMetrics> operations = new CopyOnWriteArrayList<>();
+    private final Map<String, PoolMetrics> pools = new ConcurrentHashMap<>();
+    private final StatementCacheMetrics statementCache = new StatementCacheMetrics();
+    private final SlowQueryLog slowQueryLog = SlowQueryLog.fromSystemProperties();
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+    private final List<ObjectName> registeredNames = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService exportScheduler; // Guarded by this
+
+    /**
+     * Creates a registry.
+     *
+     * @param jmxDomain the JMX domain the metrics are registered under, or {@code null} to keep them out of JMX
+     */
+    public MetricsRegistry(String jmxDomain) {
+        this.jmxDomain = jmxDomain;
+        register("type=StatementCache", statementCache);
+        register("type=SlowQueryLog", slowQueryLog);
+    }
+
+    /**
+     * Returns the process-wide registry, exposed through JMX under {@code org.phinix.lib}.
+     *
+     * @return the global registry
+     */
+    public static MetricsRegistry global() {
+        MetricsRegistry registry = global;
+        if (registry == null) {
+            synchronized (MetricsRegistry.class) {
+                registry = global;
+                if (registry == null) {
+                    registry = global = new MetricsRegistry(DEFAULT_JMX_DOMAIN);
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Records a successful DAO call.
+     *
+     * @param type       the statement type that ran
+     * @param modelClass the model class it ran for, or {@code null} for raw SQL
+     * @param nanos      the duration of the call in nanoseconds
+     * @param rows       the rows affected or returned, or a negative value if unknown
+     */
+    public void record(StatementType type, Class<? extends Model> modelClass, long nanos, long rows) {
+        record(DaoOperation.of(type), modelClass, nanos, rows);
+    }
+
+    /**
+     * Records a successful DAO call.
+     *
+     * @param operation  the operation that ran
+     * @param modelClass the model class it ran for, or {@code null} for raw SQL
+     * @param nanos      the duration of the call in nanoseconds
+     * @param rows       the rows affected or returned, or a negative value if unknown
+     */
+    public void record(DaoOperation operation, Class<? extends Model> modelClass, long nanos, long rows) {
+        metrics(operation, modelClass).record(nanos, rows);
+    }
+
+    /**
+     * Records a failed DAO call.
+     *
+     * @param type       the statement type that ran
+     * @param modelClass the model class it ran for, or {@code null} for raw SQL
+     * @param nanos      the duration of the call in nanoseconds
+     */
+    public void recordError(StatementType type, Class<? extends Model> modelClass, long nanos) {
+        recordError(DaoOperation.of(type), modelClass, nanos);
+    }
+
+    /**
+     * Records a failed DAO call.
+     *
+     * @param operation  the operation that ran
+     * @param modelClass the model class it ran for, or {@code null} for raw SQL
+     * @param nanos      the duration of the call in nanoseconds
+     */
+    public void recordError(DaoOperation operation, Class<? extends Model> modelClass, long nanos) {
+        metrics(operation, modelClass).recordError(nanos);
+    }
+
+    /**
+     * Returns the metrics of an operation on the table of a model class, creating them on first use.
+     *
+     * @param operation  the operation
+     * @param modelClass the model class, or {@code null} for raw SQL
+     * @return           the metrics of the operation
+     */
+    public OperationMetrics metrics(DaoOperation operation, Class<? extends Model> modelClass) {
+        AtomicReferenceArray<OperationMetrics> byOperation = modelClass == null ? rawSql : byModelClass.get(modelClass);
+        OperationMetrics metrics = byOperation.get(operation.ordinal());
+        if (metrics == null) {
+            String table = modelClass == null ? RAW_SQL_TABLE : ModelMetadata.of(modelClass).getTableName();
+            OperationMetrics created = new OperationMetrics(operation, table);
+            if (byOperation.compareAndSet(operation.ordinal(), null, created)) {
+                operations.add(created);
+                register("type=DaoOperation,operation=" + operation + ",table=" + ObjectName.quote(table), created);
+                metrics = created;
+            } else {
+                metrics = byOperation.get(operation.ordinal());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Adds the metrics of a connection pool to the registry.
+     *
+     * @param name    the name of the pool
+     * @param metrics the metrics of the pool
+     */
+    public void registerPool(String name, PoolMetrics metrics) {
+        pools.put(name, metrics);
+        register("type=ConnectionPool,name=" + ObjectName.quote(name), metrics);
+    }
+
+    /**
+     * Removes the metrics of a connection pool added with {@link #registerPool(String, PoolMetrics)}.
+     *
+     * @param name the name of the pool
+     */
+    public void unregisterPool(String name) {
+        if (pools.remove(name) != null) {
+            unregister("type=ConnectionPool,name=" + ObjectName.quote(name));
+        }
+    }
+
+    /**
+     * Adds an exporter called by {@link #export()}.
+     *
+     * @param exporter the exporter to add
+     */
+    public void addExporter(MetricsExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    /**
+     * Adds every {@link MetricsExporter} provider found by {@link ServiceLoader} on the class path.
+     */
+    public void loadExporters() {
+        for (MetricsExporter exporter : ServiceLoader.load(MetricsExporter.class)) {
+            logger.info("Loaded metrics exporter " + exporter.getClass().getName() + ".");
+            addExporter(exporter);
+        }
+    }
+
+    /**
+     * Runs every exporter once; a failing exporter does not prevent the others from running.
+     */
+    public void export() {
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(this);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Metrics exporter failed: " + exporter, e);
+            }
+        }
+    }
+
+    /**
+     * Runs the exporters periodically on a background daemon thread, until the registry is closed.
+     *
+     * @param periodMillis              the time between two exports
+     * @throws IllegalArgumentException if the period is lower than 1
+     * @throws IllegalStateException    if the exporters already run periodically
+     */
+    public synchronized void startExporting(long periodMillis) {
+        if (periodMillis < 1) {
+            throw new IllegalArgumentException("Export period must be positive: " + periodMillis);
+        }
+        if (exportScheduler != null) {
+            throw new IllegalStateException("Metrics are already exported.");
+        }
+        exportScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("metrics-exporter").daemon().factory());
+        exportScheduler.scheduleAtFixedRate(this::export, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the metrics of every operation seen so far
+     */
+    public List<OperationMetrics> getOperationMetrics() {
+        return new ArrayList<>(operations);
+    }
+
+    /**
+     * @return the metrics of the registered connection pools, by name
+     */
+    public Map<String, PoolMetrics> getPoolMetrics() {
+        return Map.copyOf(pools);
+    }
+
+    /**
+     * Returns the slow query log the DAOs recording into this registry report their statements to.
+     *
+     * @return the slow query log
+     */
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    public StatementCacheMetrics getStatementCacheMetrics() {
+        return statementCache;
+    }
+
+    /**
+     * Stops the periodic export, closes the exporters and unregisters every MXBean of the registry.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (exportScheduler != null) {
+                exportScheduler.shutdownNow();
+                exportScheduler = null;
+            }
+        }
+        for (MetricsExporter exporter : exporters) {
+            exporter.close();
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registeredNames) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                logger.log(Level.FINE, "Error unregistering MXBean: " + name, e);
+            }
+        }
+        registeredNames.clear();
+    }
+
+    private void register(String properties, Object mxBean) {
+        if (jmxDomain == null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(jmxDomain + ":" + properties);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name); // A previous registry or pool with the same name
+            }
+            server.registerMBean(mxBean, name);
+            registeredNames.add(name);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "Error registering MXBean: " + properties, e);
+        }
+    }
+
+    private void unregister(String properties) {
+        if (jmxDomain == null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(jmxDomain + ":" + properties);
+            registeredNames.remove(name);
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            logger.log(Level.FINE, "Error unregistering MXBean: " + properties, e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.phinix.lib.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one {@link DaoOperation} on one table.
+ * <p>
+ * Instances are created by the {@link MetricsRegistry} on the first call of their operation and
+ * then updated without allocation or locking. Counters are cumulative and can be read at any time.
+ */
+public final class OperationMetrics implements OperationMetricsMXBean {
+    private final DaoOperation operation;
+    private final String table;
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder rowCount = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(DaoOperation operation, String table) {
+        this.operation = operation;
+        this.table = table;
+    }
+
+    void record(long nanos, long rows) {
+        callCount.increment();
+        if (rows > 0) {
+            rowCount.add(rows);
+        }
+        latency.record(nanos);
+    }
+
+    void recordError(long nanos) {
+        callCount.increment();
+        errorCount.increment();
+        latency.record(nanos);
+    }
+
+    public DaoOperation getDaoOperation() {
+        return operation;
+    }
+
+    @Override
+    public String getOperation() {
+        return operation.name();
+    }
+
+    /**
+     * @return the table name, or {@link MetricsRegistry#RAW_SQL_TABLE} for SQL not tied to a model class
+     */
+    @Override
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the number of calls, failed ones included
+     */
+    @Override
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * @return the number of rows affected by writes or returned by queries, where the driver reports it
+     */
+    @Override
+    public long getRowCount() {
+        return rowCount.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return LatencyHistogram.toMillis(latency.getMean());
+    }
+
+    @Override
+    public double getP50Millis() {
+        return LatencyHistogram.toMillis(latency.getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getP99Millis() {
+        return LatencyHistogram.toMillis(latency.getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getP999Millis() {
+        return LatencyHistogram.toMillis(latency.getValueAtPercentile(99.9));
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return LatencyHistogram.toMillis(latency.getMax());
+    }
+
+    @Override
+    public String toString() {
+        return "OperationMetrics{" +
+                "operation=" + operation +
+                ", table='" + table + '\'' +
+                ", calls=" + getCallCount() +
+                ", errors=" + getErrorCount() +
+                ", rows=" + getRowCount() +
+                ", p50Millis=" + getP50Millis() +
+                ", p99Millis=" + getP99Millis() +
+                ", p999Millis=" + getP999Millis() +
+                ", maxMillis=" + getMaxMillis() +
+                '}';
+    }
+}
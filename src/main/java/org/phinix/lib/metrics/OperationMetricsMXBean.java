@@ -0,0 +1,26 @@
+package org.phinix.lib.metrics;
+
+/**
+ * JMX view of the {@link OperationMetrics} of one operation on one table.
+ */
+public interface OperationMetricsMXBean {
+    String getOperation();
+
+    String getTable();
+
+    long getCallCount();
+
+    long getErrorCount();
+
+    long getRowCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,94 @@
+package org.phinix.lib.metrics;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A statement captured by the {@link SlowQueryLog}: its SQL, masked bind values, row count, duration,
+ * the DAO method that ran it and, when requested, its {@code EXPLAIN} plan.
+ */
+public final class SlowQuery {
+    private final Instant timestamp;
+    private final String sql;
+    private final List<String> bindValues;
+    private final long rows;
+    private final long elapsedNanos;
+    private final String daoMethod;
+    private final String plan;
+
+    SlowQuery(Instant timestamp, String sql, List<String> bindValues, long rows, long elapsedNanos,
+              String daoMethod, String plan) {
+        this.timestamp = timestamp;
+        this.sql = sql;
+        this.bindValues = bindValues;
+        this.rows = rows;
+        this.elapsedNanos = elapsedNanos;
+        this.daoMethod = daoMethod;
+        this.plan = plan;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns the bind values in placeholder order, masked according to the log's {@link SlowQueryLog.BindMasking}.
+     *
+     * @return the bind values, empty if they were not captured
+     */
+    public List<String> getBindValues() {
+        return bindValues;
+    }
+
+    /**
+     * Returns the rows affected or returned by the statement.
+     *
+     * @return the row count, or a negative value if unknown, as for a stream still being read
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the outermost DAO method on the stack when the statement ran, such as {@code BusDrivePlaceQueryDao.findAll}.
+     *
+     * @return the calling DAO method, or {@code null} if it could not be found
+     */
+    public String getDaoMethod() {
+        return daoMethod;
+    }
+
+    /**
+     * Returns the {@code EXPLAIN} output of the statement, one line per plan row.
+     *
+     * @return the plan, or {@code null} if it was not captured
+     */
+    public String getPlan() {
+        return plan;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQuery{" +
+                "timestamp=" + timestamp +
+                ", elapsedMillis=" + getElapsedMillis() +
+                ", rows=" + rows +
+                ", daoMethod='" + daoMethod + '\'' +
+                ", sql='" + sql + '\'' +
+                ", bindValues=" + bindValues +
+                '}';
+    }
+}
@@ -0,0 +1,421 @@
+package org.phinix.lib.metrics;
+
+import org.phinix.lib.common.dao.queries.StatementBinder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Detects slow statements run by the DAOs and traces a sample of the others.
+ * <p>
+ * The DAOs call {@link #isTraced(long)} with the duration of every statement, which costs a comparison
+ * unless the statement is slow or trace sampling is on. A statement at or above the threshold is kept, with
+ * probability {@link #getSampleRate()}, and logged at WARNING with its SQL, masked bind values, rows,
+ * duration and the DAO method that ran it. It is also kept in a ring buffer of the most recent slow
+ * statements, together with its {@code EXPLAIN} plan when {@link #isExplain()} is set. A fraction
+ * {@link #getTraceSampleRate()} of the faster statements is logged the same way at FINE, without a plan.
+ * <p>
+ * Bind values are only known to the binder of a statement, so they are captured by binding the statement
+ * again into a recording {@link PreparedStatement}, and only for the statements that are logged. The plan
+ * runs on the connection of the statement, adding a round-trip to the slow call it explains; statements
+ * whose result set is still open when they are recorded, such as streams, are logged without a plan.
+ * <p>
+ * The initial settings are read from the {@code phinix.slowQuery.thresholdMillis} (1000),
+ * {@code phinix.slowQuery.sampleRate} (1.0), {@code phinix.slowQuery.traceSampleRate} (0.0),
+ * {@code phinix.slowQuery.explain} (false), {@code phinix.slowQuery.bindMasking} ({@code strings}) and
+ * {@code phinix.slowQuery.capacity} (128) system properties.
+ */
+public class SlowQueryLog implements SlowQueryLogMXBean {
+    private static final Logger logger = Logger.getLogger(SlowQueryLog.class.getName());
+    private static final String MASK = "'***'";
+
+    /**
+     * How bind values are shown in the log and in the captured statements.
+     */
+    public enum BindMasking {
+        /** Shows every value. */
+        NONE,
+        /** Masks character values, which hold names, credentials and other personal data, and shows the rest. */
+        STRINGS,
+        /** Masks every non-null value. */
+        ALL
+    }
+
+    private volatile long thresholdNanos;
+    private volatile double sampleRate;
+    private volatile double traceSampleRate;
+    private volatile boolean explain;
+    private volatile BindMasking bindMasking;
+    private final SlowQuery[] recent; // Ring buffer, guarded by itself
+    private int next;                 // Guarded by recent
+    private final LongAdder slowQueryCount = new LongAdder();
+
+    /**
+     * Creates a slow query log with a 1 second threshold, every slow statement kept, no trace sampling,
+     * no plans and character values masked.
+     *
+     * @param capacity                  the number of slow statements kept in memory
+     * @throws IllegalArgumentException if the capacity is lower than 1
+     */
+    public SlowQueryLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.recent = new SlowQuery[capacity];
+        this.thresholdNanos = TimeUnit.SECONDS.toNanos(1);
+        this.sampleRate = 1.0;
+        this.traceSampleRate = 0.0;
+        this.bindMasking = BindMasking.STRINGS;
+    }
+
+    /**
+     * Creates a slow query log configured by the {@code phinix.slowQuery.*} system properties.
+     */
+    static SlowQueryLog fromSystemProperties() {
+        SlowQueryLog log = new SlowQueryLog(Integer.getInteger("phinix.slowQuery.capacity", 128));
+        log.setThresholdMillis(Long.getLong("phinix.slowQuery.thresholdMillis", 1000));
+        log.setSampleRate(parseRate(System.getProperty("phinix.slowQuery.sampleRate"), 1.0));
+        log.setTraceSampleRate(parseRate(System.getProperty("phinix.slowQuery.traceSampleRate"), 0.0));
+        log.setExplain(Boolean.getBoolean("phinix.slowQuery.explain"));
+        String masking = System.getProperty("phinix.slowQuery.bindMasking");
+        if (masking != null) {
+            try {
+                log.setBindMasking(BindMasking.valueOf(masking.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Unknown bind masking '" + masking + "', using STRINGS.");
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Decides whether a statement that took the given time is logged. Called by the DAOs for every statement.
+     *
+     * @param elapsedNanos the duration of the statement in nanoseconds
+     * @return             {@code true} if the statement should be passed to {@link #trace}
+     */
+    public boolean isTraced(long elapsedNanos) {
+        if (elapsedNanos >= thresholdNanos) {
+            return sample(sampleRate);
+        }
+        return traceSampleRate > 0 && sample(traceSampleRate);
+    }
+
+    /**
+     * Logs a statement selected by {@link #isTraced(long)}, and keeps it if it is slow. Never throws.
+     *
+     * @param connection   the connection the statement ran on, open, or {@code null} to skip the plan
+     * @param sql          the SQL of the statement
+     * @param binder       the binder of the statement, or {@code null} if its values are not available
+     * @param rows         the rows affected or returned, or a negative value if unknown
+     * @param elapsedNanos the duration of the statement in nanoseconds
+     * @param daoType      the DAO base class, used to find the calling DAO method on the stack
+     */
+    public void trace(Connection connection, String sql, StatementBinder binder, long rows, long elapsedNanos,
+                      Class<?> daoType) {
+        boolean slow = elapsedNanos >= thresholdNanos;
+        if (!slow && !logger.isLoggable(Level.FINE)) {
+            return; // A sampled trace nobody would see
+        }
+        List<String> bindValues = captureBindValues(binder);
+        String daoMethod = findDaoMethod(daoType);
+
+        String plan = null;
+        if (slow && explain && connection != null && binder != null) {
+            try {
+                plan = explain(connection, sql, binder);
+            } catch (SQLException | RuntimeException e) {
+                logger.log(Level.FINE, "Could not explain statement: " + sql, e);
+            }
+        }
+
+        SlowQuery query = new SlowQuery(Instant.now(), sql, bindValues, rows, elapsedNanos, daoMethod, plan);
+        if (slow) {
+            slowQueryCount.increment();
+            synchronized (recent) {
+                recent[next] = query;
+                next = (next + 1) % recent.length;
+            }
+            logger.warning(() -> describe("Slow query", query));
+        } else {
+            logger.fine(() -> describe("Traced query", query));
+        }
+    }
+
+    /**
+     * Returns the slow statements kept in memory, most recent first.
+     *
+     * @return the captured slow statements
+     */
+    public List<SlowQuery> getRecentQueries() {
+        return findQueries(query -> true);
+    }
+
+    /**
+     * Returns the slow statements kept in memory that match a condition, most recent first.
+     *
+     * @param filter the condition, for example on the SQL text or the DAO method
+     * @return       the matching slow statements
+     */
+    public List<SlowQuery> findQueries(Predicate<SlowQuery> filter) {
+        List<SlowQuery> queries = new ArrayList<>();
+        synchronized (recent) {
+            for (int i = 1; i <= recent.length; i++) {
+                SlowQuery query = recent[Math.floorMod(next - i, recent.length)];
+                if (query != null && filter.test(query)) {
+                    queries.add(query);
+                }
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Returns the slow statements kept in memory whose SQL mentions the given text, such as a table name.
+     *
+     * @param sqlFragment the text to look for, case-insensitively
+     * @return            the matching slow statements, most recent first
+     */
+    public List<SlowQuery> findQueries(String sqlFragment) {
+        String fragment = sqlFragment.toLowerCase();
+        return findQueries(query -> query.getSql().toLowerCase().contains(fragment));
+    }
+
+    /**
+     * Forgets the slow statements kept in memory.
+     */
+    public void clear() {
+        synchronized (recent) {
+            Arrays.fill(recent, null);
+            next = 0;
+        }
+    }
+
+    @Override
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Sets the duration from which a statement is slow.
+     *
+     * @param thresholdMillis the threshold in milliseconds, {@link Long#MAX_VALUE} to detect nothing
+     */
+    @Override
+    public void setThresholdMillis(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative.");
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sets the fraction of the slow statements that are logged and kept.
+     *
+     * @param sampleRate the fraction, between 0 and 1
+     */
+    @Override
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = checkRate(sampleRate);
+    }
+
+    @Override
+    public double getTraceSampleRate() {
+        return traceSampleRate;
+    }
+
+    /**
+     * Sets the fraction of the statements under the threshold that are logged at FINE.
+     *
+     * @param traceSampleRate the fraction, between 0 and 1
+     */
+    @Override
+    public void setTraceSampleRate(double traceSampleRate) {
+        this.traceSampleRate = checkRate(traceSampleRate);
+    }
+
+    @Override
+    public boolean isExplain() {
+        return explain;
+    }
+
+    /**
+     * Sets whether the plan of every kept slow statement is captured with {@code EXPLAIN}.
+     *
+     * @param explain {@code true} to capture plans
+     */
+    @Override
+    public void setExplain(boolean explain) {
+        this.explain = explain;
+    }
+
+    public BindMasking getBindMasking() {
+        return bindMasking;
+    }
+
+    public void setBindMasking(BindMasking bindMasking) {
+        this.bindMasking = Objects.requireNonNull(bindMasking);
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueryCount.sum();
+    }
+
+    private static boolean sample(double rate) {
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static double checkRate(double rate) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1.");
+        }
+        return rate;
+    }
+
+    private static double parseRate(String value, double defaultRate) {
+        if (value == null) {
+            return defaultRate;
+        }
+        try {
+            return checkRate(Double.parseDouble(value.trim()));
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid sample rate '" + value + "', using " + defaultRate + ".");
+            return defaultRate;
+        }
+    }
+
+    /**
+     * Runs the binder against a {@link PreparedStatement} that only records the values set on it.
+     */
+    private List<String> captureBindValues(StatementBinder binder) {
+        if (binder == null) {
+            return List.of();
+        }
+        Map<Integer, Object> values = new TreeMap<>();
+        PreparedStatement recorder = (PreparedStatement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index) {
+                        values.put(index, method.getName().equals("setNull") ? null : args[1]);
+                    }
+                    return defaultValue(method);
+                });
+        try {
+            binder.bind(recorder);
+        } catch (SQLException | RuntimeException e) {
+            logger.log(Level.FINE, "Could not capture bind values", e);
+        }
+
+        List<String> bindValues = new ArrayList<>(values.size());
+        for (Object value : values.values()) {
+            bindValues.add(format(value));
+        }
+        return Collections.unmodifiableList(bindValues);
+    }
+
+    /**
+     * Returns the value the recording statement answers to a method, a zero of its primitive return type.
+     */
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        boolean character = value instanceof CharSequence || value instanceof Character;
+        BindMasking masking = bindMasking;
+        if (masking == BindMasking.ALL || (masking == BindMasking.STRINGS && character)) {
+            return MASK;
+        }
+        return character ? "'" + value + "'" : String.valueOf(value);
+    }
+
+    /**
+     * Finds the outermost frame of a DAO method on the current stack.
+     */
+    private static String findDaoMethod(Class<?> daoType) {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> frames
+                .filter(frame -> daoType.isAssignableFrom(frame.getDeclaringClass()))
+                .reduce((inner, outer) -> outer)
+                .map(frame -> frame.getDeclaringClass().getSimpleName() + "." + frame.getMethodName())
+                .orElse(null));
+    }
+
+    private static String explain(Connection connection, String sql, StatementBinder binder) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN " + sql)) {
+            binder.bind(preparedStatement);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append('\n');
+                    }
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        if (i > 1) {
+                            plan.append(", ");
+                        }
+                        plan.append(metaData.getColumnLabel(i)).append('=').append(resultSet.getString(i));
+                    }
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    private static String describe(String kind, SlowQuery query) {
+        StringBuilder message = new StringBuilder(kind)
+                .append(" (").append(query.getElapsedMillis()).append(" ms");
+        if (query.getRows() >= 0) {
+            message.append(", ").append(query.getRows()).append(" row(s)");
+        }
+        message.append(") in ").append(query.getDaoMethod()).append(": ").append(query.getSql());
+        if (!query.getBindValues().isEmpty()) {
+            message.append(" with ").append(query.getBindValues());
+        }
+        if (query.getPlan() != null) {
+            message.append('\n').append(query.getPlan());
+        }
+        return message.toString();
+    }
+}
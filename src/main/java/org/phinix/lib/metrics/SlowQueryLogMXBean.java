@@ -0,0 +1,24 @@
+package org.phinix.lib.metrics;
+
+/**
+ * Management interface of the {@link SlowQueryLog}, letting its threshold and sampling be tuned at runtime.
+ */
+public interface SlowQueryLogMXBean {
+    long getThresholdMillis();
+
+    void setThresholdMillis(long thresholdMillis);
+
+    double getSampleRate();
+
+    void setSampleRate(double sampleRate);
+
+    double getTraceSampleRate();
+
+    void setTraceSampleRate(double traceSampleRate);
+
+    boolean isExplain();
+
+    void setExplain(boolean explain);
+
+    long getSlowQueryCount();
+}
@@ -0,0 +1,44 @@
+package org.phinix.lib.metrics;
+
+import org.phinix.lib.common.util.factories.StatementTemplateCache;
+
+/**
+ * Reads the hit counters of the process-wide {@link StatementTemplateCache}.
+ */
+public final class StatementCacheMetrics implements StatementCacheMetricsMXBean {
+
+    /**
+     * @return the number of statement texts served from the cache
+     */
+    @Override
+    public long getHitCount() {
+        return StatementTemplateCache.getHitCount();
+    }
+
+    /**
+     * @return the number of statement texts built because they were not cached yet
+     */
+    @Override
+    public long getMissCount() {
+        return StatementTemplateCache.getMissCount();
+    }
+
+    /**
+     * @return the share of lookups served from the cache, between 0 and 1
+     */
+    @Override
+    public double getHitRate() {
+        long hits = getHitCount();
+        long lookups = hits + getMissCount();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCacheMetrics{" +
+                "hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", hitRate=" + getHitRate() +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package org.phinix.lib.metrics;
+
+/**
+ * JMX view of the hit counters of the {@link org.phinix.lib.common.util.factories.StatementTemplateCache}.
+ */
+public interface StatementCacheMetricsMXBean {
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+}
@@ -0,0 +1,16 @@
+package org.phinix.lib.metrics.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A DAO call waiting for a pooled connection.
+ */
+@Name("org.phinix.ConnectionBorrow")
+@Label("Connection Borrow")
+@Description("A DAO call borrowing a connection from the pool")
+@StackTrace(false)
+public class ConnectionBorrowEvent extends DaoEvent {
+}
@@ -0,0 +1,23 @@
+package org.phinix.lib.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the JDK Flight Recorder events of the DAO layer: one phase of a DAO call on a table.
+ * <p>
+ * The duration of the phase is the event's own duration. The row count is the rows affected, returned or
+ * mapped so far by the call, and 0 for the phases that run before any row is known.
+ */
+@Category({"Phinix", "DAO"})
+public abstract class DaoEvent extends Event {
+    @Label("Table")
+    String table;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+}
@@ -0,0 +1,203 @@
+package org.phinix.lib.metrics.jfr;
+
+import org.phinix.lib.common.dao.queries.RowMapper;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.metadata.ModelMetadata;
+import org.phinix.lib.metrics.DaoOperation;
+import org.phinix.lib.metrics.MetricsRegistry;
+import org.phinix.lib.service.ConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Runs the phases of a DAO call inside their JDK Flight Recorder events.
+ * <p>
+ * Each method begins an event, runs the phase and commits the event only if a recording enables it. When
+ * no recording is running the events are never committed, and the JIT removes their allocation; the table
+ * name is only looked up for committed events. A phase that throws records no event.
+ */
+public final class DaoEvents {
+    private DaoEvents() {}
+
+    /**
+     * Borrows a connection inside a {@link ConnectionBorrowEvent}.
+     *
+     * @param provider      the provider to borrow from
+     * @param operation     the operation of the DAO call
+     * @param modelClass    the model class of the call, or {@code null} for raw SQL
+     * @return              the borrowed connection
+     * @throws SQLException if no connection can be borrowed
+     */
+    public static Connection borrow(ConnectionProvider provider, DaoOperation operation,
+                                    Class<? extends Model> modelClass) throws SQLException {
+        ConnectionBorrowEvent event = new ConnectionBorrowEvent();
+        event.begin();
+        Connection connection = provider.getConnection();
+        commit(event, operation, modelClass, 0);
+        return connection;
+    }
+
+    /**
+     * Prepares a statement inside a {@link StatementPrepareEvent}.
+     *
+     * @param connection    the connection to prepare on
+     * @param sql           the SQL of the statement
+     * @param operation     the operation of the DAO call
+     * @param modelClass    the model class of the call, or {@code null} for raw SQL
+     * @return              the prepared statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public static PreparedStatement prepare(Connection connection, String sql, DaoOperation operation,
+                                            Class<? extends Model> modelClass) throws SQLException {
+        StatementPrepareEvent event = new StatementPrepareEvent();
+        event.begin();
+        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        commit(event, operation, modelClass, 0);
+        return preparedStatement;
+    }
+
+    /**
+     * Prepares a statement with the given result set type and concurrency inside a {@link StatementPrepareEvent}.
+     *
+     * @param connection    the connection to prepare on
+     * @param sql           the SQL of the statement
+     * @param type          the result set type, such as {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param concurrency   the result set concurrency, such as {@link ResultSet#CONCUR_READ_ONLY}
+     * @param operation     the operation of the DAO call
+     * @param modelClass    the model class of the call, or {@code null} for raw SQL
+     * @return              the prepared statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public static PreparedStatement prepare(Connection connection, String sql, int type, int concurrency,
+                                            DaoOperation operation, Class<? extends Model> modelClass) throws SQLException {
+        StatementPrepareEvent event = new StatementPrepareEvent();
+        event.begin();
+        PreparedStatement preparedStatement = connection.prepareStatement(sql, type, concurrency);
+        commit(event, operation, modelClass, 0);
+        return preparedStatement;
+    }
+
+    /**
+     * Executes an INSERT, UPDATE or DELETE inside a {@link StatementExecuteEvent}.
+     *
+     * @param preparedStatement the bound statement
+     * @param operation         the operation of the DAO call
+     * @param modelClass        the model class of the call, or {@code null} for raw SQL
+     * @return                  the number of rows affected
+     * @throws SQLException     if the statement fails
+     */
+    public static int executeUpdate(PreparedStatement preparedStatement, DaoOperation operation,
+                                    Class<? extends Model> modelClass) throws SQLException {
+        StatementExecuteEvent event = new StatementExecuteEvent();
+        event.begin();
+        int rowsAffected = preparedStatement.executeUpdate();
+        commit(event, operation, modelClass, rowsAffected);
+        return rowsAffected;
+    }
+
+    /**
+     * Sends the pending batch of a statement inside a {@link StatementExecuteEvent}.
+     *
+     * @param preparedStatement the statement holding the batch
+     * @param operation         the operation of the DAO call
+     * @param modelClass        the model class of the call, or {@code null} for raw SQL
+     * @return                  the update count of each statement of the batch
+     * @throws SQLException     if the batch fails
+     */
+    public static int[] executeBatch(PreparedStatement preparedStatement, DaoOperation operation,
+                                     Class<? extends Model> modelClass) throws SQLException {
+        StatementExecuteEvent event = new StatementExecuteEvent();
+        event.begin();
+        int[] counts = preparedStatement.executeBatch();
+        event.end();
+        if (event.shouldCommit()) {
+            long rows = 0;
+            for (int count : counts) {
+                rows += Math.max(count, 0); // SUCCESS_NO_INFO is negative
+            }
+            fill(event, operation, modelClass, rows);
+            event.commit();
+        }
+        return counts;
+    }
+
+    /**
+     * Executes a query inside a {@link StatementExecuteEvent}, ending when the first rows are back.
+     *
+     * @param preparedStatement the bound query
+     * @param operation         the operation of the DAO call
+     * @param modelClass        the model class of the call, or {@code null} for raw SQL
+     * @return                  the result set of the query
+     * @throws SQLException     if the query fails
+     */
+    public static ResultSet executeQuery(PreparedStatement preparedStatement, DaoOperation operation,
+                                         Class<? extends Model> modelClass) throws SQLException {
+        StatementExecuteEvent event = new StatementExecuteEvent();
+        event.begin();
+        ResultSet resultSet = preparedStatement.executeQuery();
+        commit(event, operation, modelClass, 0);
+        return resultSet;
+    }
+
+    /**
+     * Begins the {@link ResultFetchEvent} of a result set about to be read, to be ended by
+     * {@link #endFetch(ResultFetchEvent, DaoOperation, Class, long)}.
+     *
+     * @return the begun event
+     */
+    public static ResultFetchEvent beginFetch() {
+        ResultFetchEvent event = new ResultFetchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the {@link ResultFetchEvent} of a result set that was read.
+     *
+     * @param event      the event returned by {@link #beginFetch()}
+     * @param operation  the operation of the DAO call
+     * @param modelClass the model class of the call, or {@code null} for raw SQL
+     * @param rows       the number of rows read, or a negative value if unknown
+     */
+    public static void endFetch(ResultFetchEvent event, DaoOperation operation, Class<? extends Model> modelClass,
+                                long rows) {
+        commit(event, operation, modelClass, rows);
+    }
+
+    /**
+     * Maps the current row of a result set inside a {@link RowMappingEvent}.
+     *
+     * @param rowMapper     the mapper of the row
+     * @param resultSet     the result set positioned on the row
+     * @param modelClass    the model class of the call, or {@code null} for raw SQL
+     * @param row           the 1-based number of the row within the result set
+     * @param <R>           the type the row is mapped to
+     * @return              the mapped row
+     * @throws SQLException if a column cannot be read
+     */
+    public static <R> R mapRow(RowMapper<R> rowMapper, ResultSet resultSet, Class<? extends Model> modelClass,
+                               long row) throws SQLException {
+        RowMappingEvent event = new RowMappingEvent();
+        event.begin();
+        R mapped = rowMapper.mapRow(resultSet);
+        commit(event, DaoOperation.SELECT, modelClass, row);
+        return mapped;
+    }
+
+    private static void commit(DaoEvent event, DaoOperation operation, Class<? extends Model> modelClass, long rows) {
+        event.end();
+        if (event.shouldCommit()) {
+            fill(event, operation, modelClass, rows);
+            event.commit();
+        }
+    }
+
+    private static void fill(DaoEvent event, DaoOperation operation, Class<? extends Model> modelClass, long rows) {
+        event.table = modelClass == null ? MetricsRegistry.RAW_SQL_TABLE : ModelMetadata.of(modelClass).getTableName();
+        event.operation = operation.name();
+        event.rows = rows;
+    }
+}
@@ -0,0 +1,18 @@
+package org.phinix.lib.metrics.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A DAO call reading the rows of its result set, mapping included.
+ * <p>
+ * For a stream the event spans from the execution of the query to the closing of the stream.
+ */
+@Name("org.phinix.ResultFetch")
+@Label("Result Fetch")
+@Description("A DAO call reading the rows of its result set")
+@StackTrace(false)
+public class ResultFetchEvent extends DaoEvent {
+}
@@ -0,0 +1,21 @@
+package org.phinix.lib.metrics.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One row of a result set being mapped to an object.
+ * <p>
+ * There is one event per row, so only the rows whose mapping takes longer than the threshold, 100 us by
+ * default, are recorded; the recording settings can lower it to see every row.
+ */
+@Name("org.phinix.RowMapping")
+@Label("Row Mapping")
+@Description("One row of a result set mapped to an object")
+@StackTrace(false)
+@Threshold("100 us")
+public class RowMappingEvent extends DaoEvent {
+}
@@ -0,0 +1,16 @@
+package org.phinix.lib.metrics.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A DAO call executing its statement, until the update count or the first rows are back.
+ * <p>
+ * It keeps its stack trace, which shows the DAO method and its caller.
+ */
+@Name("org.phinix.StatementExecute")
+@Label("Statement Execute")
+@Description("A DAO call executing its SQL statement")
+public class StatementExecuteEvent extends DaoEvent {
+}
@@ -0,0 +1,16 @@
+package org.phinix.lib.metrics.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A DAO call preparing its statement, which is a round-trip with server-side prepared statements.
+ */
+@Name("org.phinix.StatementPrepare")
+@Label("Statement Prepare")
+@Description("A DAO call preparing its SQL statement")
+@StackTrace(false)
+public class StatementPrepareEvent extends DaoEvent {
+}
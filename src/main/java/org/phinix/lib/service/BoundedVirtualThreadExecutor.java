@@ -0,0 +1,101 @@
+package org.phinix.lib.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs every task on its own virtual thread while capping how many tasks run at the same time.
+ * <p>
+ * DAO calls spend most of their time blocked on the database, which is cheap on a virtual thread,
+ * so thousands of calls can be in flight without as many platform threads. The concurrency bound
+ * is normally the size of the connection pool: extra tasks park on a semaphore instead of piling
+ * up on the pool's borrow queue and timing out there.
+ */
+public class BoundedVirtualThreadExecutor implements Executor, AutoCloseable {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * Creates an executor that runs at most {@code maxConcurrency} tasks at a time.
+     *
+     * @param maxConcurrency            the maximum number of tasks running at the same time
+     * @throws IllegalArgumentException if the bound is lower than 1
+     */
+    public BoundedVirtualThreadExecutor(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1.");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Runs the task on a new virtual thread once a permit is available.
+     *
+     * @param task                       the task to run
+     * @throws RejectedExecutionException if the executor is closed
+     */
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            // Parking a virtual thread on the semaphore does not hold a platform thread
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Runs the task on a new virtual thread and exposes its outcome as a future.
+     * <p>
+     * Exceptions thrown by the task, checked ones included, complete the future exceptionally, and so
+     * does the {@link RejectedExecutionException} of a closed executor, the task never running then.
+     *
+     * @param task the task to run
+     * @param <T>  the type of the task result
+     * @return     a future completed with the task result
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the number of tasks currently running, not counting those waiting for a permit
+     */
+    public int getRunningCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,395 @@
+package org.phinix.lib.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of physical JDBC connections.
+ * <p>
+ * Borrowers obtain a connection through {@link #getConnection()} and give it back by closing it.
+ * The pool hands out lightweight proxies whose {@code close()} returns the physical connection
+ * to the idle queue instead of closing it. Statements, metadata and the result sets they return
+ * are proxied too, so that neither {@code getConnection()} nor {@code getStatement()} ever leads
+ * back to the physical connection. Idle connections are validated on borrow (unless they were
+ * used very recently) and evicted by a background task once they have been idle for longer than
+ * the configured timeout, while the pool stays above its minimum size.
+ */
+public class ConnectionPool implements ConnectionProvider, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * Opens new physical connections for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolConfig config;
+    private final PoolMetrics metrics = new PoolMetrics();
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<IdleConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    /**
+     * Creates the pool and opens its minimum number of connections.
+     *
+     * @param factory       the factory used to open physical connections
+     * @param config        the sizing and timing configuration
+     * @throws SQLException if the minimum number of connections cannot be opened
+     */
+    public ConnectionPool(ConnectionFactory factory, PoolConfig config) throws SQLException {
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+
+        // Open the minimum number of connections up front so the first borrowers do not pay for it
+        try {
+            for (int i = 0; i < config.getMinSize(); i++) {
+                idleConnections.offerFirst(new IdleConnection(create(), System.nanoTime()));
+            }
+        } catch (SQLException e) {
+            IdleConnection opened;
+            while ((opened = idleConnections.pollFirst()) != null) {
+                destroy(opened.connection);
+            }
+            throw e;
+        }
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, config.getEvictionIntervalMillis(),
+                config.getEvictionIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured borrow timeout for one to become free.
+     *
+     * @return              a pooled connection, which must be closed to give it back
+     * @throws SQLException if the pool is closed, the wait times out or a connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection.", e);
+        }
+
+        if (!acquired) {
+            metrics.recordBorrowTimeout();
+            throw new SQLTimeoutException("Timed out after " + config.getBorrowTimeoutMillis()
+                    + " ms waiting for a pooled connection.");
+        }
+
+        try {
+            Connection physical = takeValidConnection();
+            metrics.recordBorrow(System.nanoTime() - start);
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new PooledConnectionHandler(physical));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the eviction task. Connections still borrowed
+     * are closed when they are given back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            destroy(idle.connection);
+        }
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    public int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    public int getActiveCount() {
+        return config.getMaxSize() - permits.availablePermits();
+    }
+
+    /**
+     * Takes the most recently used idle connection that is still valid, or opens a new one.
+     */
+    private Connection takeValidConnection() throws SQLException {
+        IdleConnection candidate;
+        while ((candidate = idleConnections.pollFirst()) != null) {
+            if (isValid(candidate)) {
+                return candidate.connection;
+            }
+            metrics.recordValidationFailure();
+            destroy(candidate.connection);
+        }
+        return create();
+    }
+
+    private boolean isValid(IdleConnection candidate) {
+        long idleNanos = System.nanoTime() - candidate.lastUsedNanos;
+        if (idleNanos < TimeUnit.MILLISECONDS.toNanos(config.getValidationBypassMillis())) {
+            return true; // Used moments ago, skip the extra round-trip
+        }
+        try {
+            return candidate.connection.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection create() throws SQLException {
+        Connection connection = factory.create();
+        totalConnections.incrementAndGet();
+        metrics.recordCreated();
+        return connection;
+    }
+
+    private void destroy(Connection connection) {
+        totalConnections.decrementAndGet();
+        metrics.recordDestroyed();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing pooled connection.", e);
+        }
+    }
+
+    /**
+     * Gives a physical connection back to the pool once its proxy is closed.
+     */
+    private void release(Connection physical) {
+        try {
+            if (closed || physical.isClosed()) {
+                destroy(physical);
+                return;
+            }
+            // Never hand a half finished transaction to the next borrower
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            IdleConnection idle = new IdleConnection(physical, System.nanoTime());
+            idleConnections.offerFirst(idle);
+            // close() may have drained the idle queue between the check above and the offer
+            if (closed && idleConnections.removeFirstOccurrence(idle)) {
+                destroy(physical);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Discarding pooled connection that could not be reset.", e);
+            destroy(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle for too long and tops the pool back up to its minimum size.
+     */
+    private void evictIdleConnections() {
+        try {
+            long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+            long now = System.nanoTime();
+
+            // The oldest idle connections sit at the tail of the deque
+            Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+            while (iterator.hasNext() && totalConnections.get() > config.getMinSize()) {
+                IdleConnection idle = iterator.next();
+                if (now - idle.lastUsedNanos > idleTimeoutNanos && idleConnections.removeLastOccurrence(idle)) {
+                    metrics.recordEvicted();
+                    destroy(idle.connection);
+                }
+            }
+
+            // Refill up to the minimum without ever exceeding the maximum, hence the permit
+            while (!closed && totalConnections.get() < config.getMinSize() && permits.tryAcquire()) {
+                try {
+                    idleConnections.offerLast(new IdleConnection(create(), System.nanoTime()));
+                } finally {
+                    permits.release();
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error during idle connection eviction.", e);
+        }
+    }
+
+    /**
+     * An idle physical connection together with the moment it was last given back.
+     */
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long lastUsedNanos;
+
+        private IdleConnection(Connection connection, long lastUsedNanos) {
+            this.connection = connection;
+            this.lastUsedNanos = lastUsedNanos;
+        }
+    }
+
+    /**
+     * Delegates every call to the physical connection, except {@code close()} which returns it to the pool.
+     * {@code unwrap} and {@code isWrapperFor} answer with the proxy for the interfaces it implements, and
+     * statements and metadata are wrapped by a {@link ConnectionChildHandler}.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (released.compareAndSet(false, true)) {
+                        release(physical);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released.get() || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection{" + physical + ", released=" + released.get() + '}';
+                }
+                default -> {
+                    if (released.get()) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    if (isWrapperMethod(method) && ((Class<?>) args[0]).isInstance(proxy)) {
+                        return method.getName().equals("unwrap") ? proxy : true;
+                    }
+                    Object result = delegate(physical, method, args);
+                    return switch (method.getName()) {
+                        case "createStatement", "prepareStatement", "prepareCall", "getMetaData" ->
+                                wrapChild(result, method.getReturnType(), (Connection) proxy, null);
+                        default -> result;
+                    };
+                }
+            }
+        }
+    }
+
+    /**
+     * Delegates every call to a statement, metadata or result set object of a pooled connection, except
+     * {@code getConnection()} which returns the pooled proxy and {@code getStatement()} which returns the
+     * proxy of the statement. Result sets returned by the target are proxied in turn.
+     */
+    private static final class ConnectionChildHandler implements InvocationHandler {
+        private final Object target;
+        private final Connection connection;
+        private final Object owner;
+
+        private ConnectionChildHandler(Object target, Connection connection, Object owner) {
+            this.target = target;
+            this.connection = connection;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "getStatement" -> {
+                    // Metadata result sets have no statement of ours; wrap the driver's own, if any.
+                    return owner instanceof Statement ? owner
+                            : wrapChild(delegate(target, method, args), Statement.class, connection, null);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    if (isWrapperMethod(method) && ((Class<?>) args[0]).isInstance(proxy)) {
+                        return method.getName().equals("unwrap") ? proxy : true;
+                    }
+                    Object result = delegate(target, method, args);
+                    return method.getReturnType() == ResultSet.class
+                            ? wrapChild(result, ResultSet.class, connection, proxy)
+                            : result;
+                }
+            }
+        }
+    }
+
+    private static Object wrapChild(Object child, Class<?> type, Connection connection, Object owner) {
+        if (child == null) {
+            return null;
+        }
+        return Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[]{type},
+                new ConnectionChildHandler(child, connection, owner));
+    }
+
+    private static boolean isWrapperMethod(Method method) {
+        return (method.getName().equals("unwrap") || method.getName().equals("isWrapperFor"))
+                && method.getParameterCount() == 1 && method.getParameterTypes()[0] == Class.class;
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
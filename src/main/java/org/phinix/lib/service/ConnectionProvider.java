@@ -0,0 +1,21 @@
+package org.phinix.lib.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Abstraction over the source of database connections used by the DAO layer.
+ * <p>
+ * Implementations hand out a {@link Connection} per operation. Callers must close the
+ * returned connection once the operation is complete (typically with try-with-resources),
+ * which gives the connection back to its provider instead of closing the physical link.
+ */
+public interface ConnectionProvider {
+    /**
+     * Borrows a connection from the provider.
+     *
+     * @return              a ready to use connection, which must be closed by the caller
+     * @throws SQLException if no connection can be obtained
+     */
+    Connection getConnection() throws SQLException;
+}
@@ -1,54 +1,55 @@
 package org.phinix.lib.service;
 
+import org.phinix.lib.logging.LoggingConfig;
+import org.phinix.lib.metrics.MetricsRegistry;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.logging.StreamHandler;
 
 /**
  * MySQLConnection class provides a singleton-based management system for establishing and handling
  * MySQL database connections.
  * <p>
- * This class ensures that only one connection instance exists for the application.
- * It initializes the connection using the provided user credentials and allows
- * controlled access to the database connection.
+ * This class ensures that only one connection pool exists for the application.
+ * It initializes a bounded {@link ConnectionPool} using the provided user credentials and
+ * hands out pooled connections per operation through {@link #getConnection()}.
  */
-public class MySQLConnection {
+public class MySQLConnection implements ConnectionProvider {
     private static final Logger logger = Logger.getLogger(MySQLConnection.class.getName());
     static {
-        // Custom logger config to synchronize out.print() with logger.info()
-        StreamHandler handler = new StreamHandler(System.out, new java.util.logging.SimpleFormatter()) {
-            @Override
-            public synchronized void publish(java.util.logging.LogRecord record) {
-                String coloredMessage = "\u001B[31m" + getFormatter().format(record) + "\u001B[0m";
-                System.out.print(coloredMessage);
-                flush();
-            }
-        };
-        logger.addHandler(handler);
-        logger.setUseParentHandlers(false);
+        // Route the library loggers through the async console handler, unless configured otherwise
+        LoggingConfig.install();
     }
     private static final String DRIVER = "com.mysql.cj.jdbc.Driver"; // MySQL driver class name
+    private static final String MYSQL_URL_PREFIX = "jdbc:mysql:"; // Connector/J specific properties only apply here
+    private static final String POOL_NAME = "MySQLConnection";    // Name of the pool in the metrics registry
 
 
 
     private static volatile MySQLConnection instance; // Singleton instance of the MySQLConnection class
-    private final Connection database;
+    private final ConnectionPool pool;
+    private volatile BoundedVirtualThreadExecutor asyncExecutor;
+    private final List<Runnable> shutdownListeners = new CopyOnWriteArrayList<>();
     private final String url;
     private final String user;
     private final String password;
 
     /**
-     * Private constructor to prevent direct instantiation. Initializes the database connection
+     * Private constructor to prevent direct instantiation. Initializes the connection pool
      * using the provided credentials.
      *
      * @param user              the username for the database connection
      * @param password          the password for the database connection
+     * @param poolConfig        the sizing and timing configuration of the connection pool
      * @throws RuntimeException if the database driver fails to initialize or connection cannot be established
      */
-    private MySQLConnection(String url, String user, String password) {
+    private MySQLConnection(String url, String user, String password, PoolConfig poolConfig) {
         validateCredentials(user); // Ensure that user credentials are valid
 
         this.user = user;
@@ -60,10 +61,25 @@ public class MySQLConnection {
             // Load the MySQL driver class
             Class.forName(DRIVER);
 
-            // Establish the connection to the database
-            this.database = DriverManager.getConnection(url, user, password);
+            // Open the connection pool to the database
+            Properties properties = new Properties();
+            properties.setProperty("user", user);
+            properties.setProperty("password", password);
+            if (url.startsWith(MYSQL_URL_PREFIX)) {
+                // Statement texts are cached per model class, so they are stable prepared statement cache keys
+                properties.setProperty("useServerPrepStmts", "true");
+                properties.setProperty("cachePrepStmts", "true");
+                properties.setProperty("prepStmtCacheSize", "250");
+                properties.setProperty("prepStmtCacheSqlLimit", "2048");
+                // Let the driver send batched statements as multi-row statements
+                properties.setProperty("rewriteBatchedStatements", "true");
+                // Positive fetch sizes on streaming queries use a server-side cursor
+                properties.setProperty("useCursorFetch", "true");
+            }
+            this.pool = new ConnectionPool(() -> DriverManager.getConnection(url, properties), poolConfig);
+            MetricsRegistry.global().registerPool(POOL_NAME, pool.getMetrics());
 
-            logger.info("Successfully initializing MySQL Database.");
+            logger.info("Successfully initializing MySQL Database with " + poolConfig + ".");
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error initializing MySQL Database driver.", e);
             throw new RuntimeException("Failed to initialize MySQL Driver.");
@@ -90,10 +106,23 @@ public class MySQLConnection {
      * @return         the singleton instance of MySQLConnection
      */
     public static MySQLConnection getInstance(String url, String user, String password) {
+        return getInstance(url, user, password, PoolConfig.defaults());
+    }
+
+    /**
+     * Returns the singleton instance of the MySQLConnection class, creating it with the given
+     * pool configuration if it doesn't already exist.
+     *
+     * @param user       the username for the database connection
+     * @param password   the password for the database connection
+     * @param poolConfig the sizing and timing configuration of the connection pool
+     * @return           the singleton instance of MySQLConnection
+     */
+    public static MySQLConnection getInstance(String url, String user, String password, PoolConfig poolConfig) {
         if (instance == null) {
             synchronized (MySQLConnection.class) {
                 if (instance == null) {
-                    instance = new MySQLConnection(url, user, password);
+                    instance = new MySQLConnection(url, user, password, poolConfig);
                 }
             }
         }
@@ -101,32 +130,79 @@ public class MySQLConnection {
     }
 
     /**
-     * Closes the database connection and releases resources.
-     *
-     * @throws RuntimeException if an error occurs during shutdown
+     * Closes the connection pool and releases resources.
+     * <p>
+     * Shutdown listeners run first, while the pool can still hand out connections.
      */
     public void shutdown() {
         synchronized (this) {
-            try {
-                if (database != null) {
-                    // Close the database connection
-                    database.close();
-                    logger.info("MySQL Database has been shut down.");
+            // Give write-behind queues and similar components a chance to flush
+            for (Runnable listener : shutdownListeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Error running shutdown listener", e);
                 }
-            } catch (SQLException e) {
-                logger.log(Level.WARNING, "Error during MySQL Database shutdown.", e);
-                throw new RuntimeException(e);
             }
+            // Let in-flight asynchronous DAO calls finish before closing the pool
+            if (asyncExecutor != null) {
+                asyncExecutor.close();
+                asyncExecutor = null; // A closed executor rejects every task, a later caller gets a new one
+            }
+            // Close every idle connection, borrowed ones are closed when given back
+            pool.close();
+            MetricsRegistry.global().unregisterPool(POOL_NAME);
+            logger.info("MySQL Database has been shut down.");
         }
     }
 
     /**
-     * Gets the active database connection.
+     * Registers a task run by {@link #shutdown()} before the pool is closed, such as flushing
+     * a {@link org.phinix.lib.common.dao.dml.WriteBehindDMLDao}.
+     *
+     * @param listener the task to run on shutdown
+     */
+    public void addShutdownListener(Runnable listener) {
+        shutdownListeners.add(listener);
+    }
+
+    /**
+     * Borrows a pooled database connection. Closing it gives it back to the pool.
+     *
+     * @return              a pooled {@link Connection}
+     * @throws SQLException if no connection becomes available within the borrow timeout
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /**
+     * Gets the connection pool backing this instance, mainly to inspect its metrics.
+     *
+     * @return the {@link ConnectionPool}
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets the executor shared by the asynchronous DAO facades, creating it on first use.
+     * <p>
+     * It runs each call on a virtual thread and never runs more calls at once than the
+     * pool has connections.
      *
-     * @return the {@link Connection} object
+     * @return the {@link BoundedVirtualThreadExecutor} bounded by the pool's maximum size
      */
-    public Connection getDatabase() {
-        return database;
+    public BoundedVirtualThreadExecutor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            synchronized (this) {
+                if (asyncExecutor == null) {
+                    asyncExecutor = new BoundedVirtualThreadExecutor(pool.getConfig().getMaxSize());
+                }
+            }
+        }
+        return asyncExecutor;
     }
 
     public String getUrl() {
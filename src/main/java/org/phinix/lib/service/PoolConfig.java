@@ -0,0 +1,117 @@
+package org.phinix.lib.service;
+
+/**
+ * Immutable sizing and timing configuration for a {@link ConnectionPool}.
+ * <p>
+ * The pool keeps at least {@code minSize} physical connections open, never opens more than
+ * {@code maxSize}, and evicts connections that have been idle for longer than
+ * {@code idleTimeoutMillis} while the pool is above its minimum size.
+ */
+public class PoolConfig {
+    private static final int DEFAULT_MIN_SIZE = 2;
+    private static final int DEFAULT_MAX_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 30_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 600_000;
+    private static final long DEFAULT_EVICTION_INTERVAL_MILLIS = 30_000;
+    private static final long DEFAULT_VALIDATION_BYPASS_MILLIS = 500;
+    private static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long evictionIntervalMillis;
+    private final long validationBypassMillis;
+    private final int validationTimeoutSeconds;
+
+    /**
+     * Creates a new pool configuration.
+     *
+     * @param minSize                   the number of connections kept open even when idle
+     * @param maxSize                   the maximum number of physical connections
+     * @param borrowTimeoutMillis       how long a borrower waits for a free connection
+     * @param idleTimeoutMillis         how long a connection may stay idle before being evicted
+     * @param evictionIntervalMillis    how often the idle eviction task runs
+     * @param validationBypassMillis    connections used more recently than this are not validated on borrow
+     * @param validationTimeoutSeconds  timeout handed to {@link java.sql.Connection#isValid(int)}
+     * @throws IllegalArgumentException if the sizes or timings are inconsistent
+     */
+    public PoolConfig(int minSize, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis,
+                      long evictionIntervalMillis, long validationBypassMillis, int validationTimeoutSeconds) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minSize <= maxSize and maxSize >= 1.");
+        }
+        if (borrowTimeoutMillis < 0 || idleTimeoutMillis <= 0 || evictionIntervalMillis <= 0
+                || validationBypassMillis < 0 || validationTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("Pool timings must not be negative.");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.evictionIntervalMillis = evictionIntervalMillis;
+        this.validationBypassMillis = validationBypassMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Creates a configuration with the given sizes and default timings.
+     *
+     * @param minSize the number of connections kept open even when idle
+     * @param maxSize the maximum number of physical connections
+     */
+    public PoolConfig(int minSize, int maxSize) {
+        this(minSize, maxSize, DEFAULT_BORROW_TIMEOUT_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS,
+                DEFAULT_EVICTION_INTERVAL_MILLIS, DEFAULT_VALIDATION_BYPASS_MILLIS, DEFAULT_VALIDATION_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Returns the default configuration, sized after the number of available processors.
+     *
+     * @return the default pool configuration
+     */
+    public static PoolConfig defaults() {
+        return new PoolConfig(DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getEvictionIntervalMillis() {
+        return evictionIntervalMillis;
+    }
+
+    public long getValidationBypassMillis() {
+        return validationBypassMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig{" +
+                "minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", borrowTimeoutMillis=" + borrowTimeoutMillis +
+                ", idleTimeoutMillis=" + idleTimeoutMillis +
+                ", evictionIntervalMillis=" + evictionIntervalMillis +
+                ", validationBypassMillis=" + validationBypassMillis +
+                ", validationTimeoutSeconds=" + validationTimeoutSeconds +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+package org.phinix.lib.service;
+
+import org.phinix.lib.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the activity of a {@link ConnectionPool}.
+ * <p>
+ * All counters are cumulative since the pool was created and can be read at any time
+ * without blocking borrowers.
+ */
+public class PoolMetrics implements PoolMetricsMXBean {
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowTimeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder validationFailureCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+
+    void recordBorrow(long waitNanos) {
+        borrowCount.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        waitHistogram.record(waitNanos);
+    }
+
+    void recordBorrowTimeout() {
+        borrowTimeoutCount.increment();
+    }
+
+    void recordCreated() {
+        createdCount.increment();
+    }
+
+    void recordDestroyed() {
+        destroyedCount.increment();
+    }
+
+    void recordEvicted() {
+        evictedCount.increment();
+    }
+
+    void recordValidationFailure() {
+        validationFailureCount.increment();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    @Override
+    public long getBorrowTimeoutCount() {
+        return borrowTimeoutCount.sum();
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    @Override
+    public long getDestroyedCount() {
+        return destroyedCount.sum();
+    }
+
+    @Override
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    @Override
+    public long getValidationFailureCount() {
+        return validationFailureCount.sum();
+    }
+
+    /**
+     * Returns the mean time borrowers spent waiting for a connection.
+     *
+     * @return the average borrow wait in milliseconds, or 0 if nothing was borrowed yet
+     */
+    @Override
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.sum();
+        return borrows == 0 ? 0 : (double) totalWaitNanos.sum() / borrows / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the time 99% of the borrowers waited at most for a connection.
+     *
+     * @return the 99th percentile of the borrow wait in milliseconds
+     */
+    @Override
+    public double getP99WaitMillis() {
+        return LatencyHistogram.toMillis(waitHistogram.getValueAtPercentile(99));
+    }
+
+    /**
+     * @return the distribution of the borrow wait times
+     */
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    /**
+     * Returns the longest time a borrower spent waiting for a connection.
+     *
+     * @return the maximum borrow wait in milliseconds
+     */
+    @Override
+    public double getMaxWaitMillis() {
+        return (double) maxWaitNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{" +
+                "borrows=" + getBorrowCount() +
+                ", borrowTimeouts=" + getBorrowTimeoutCount() +
+                ", created=" + getCreatedCount() +
+                ", destroyed=" + getDestroyedCount() +
+                ", evicted=" + getEvictedCount() +
+                ", validationFailures=" + getValidationFailureCount() +
+                ", averageWaitMillis=" + getAverageWaitMillis() +
+                ", p99WaitMillis=" + getP99WaitMillis() +
+                ", maxWaitMillis=" + getMaxWaitMillis() +
+                '}';
+    }
+}
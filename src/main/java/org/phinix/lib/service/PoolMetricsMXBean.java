@@ -0,0 +1,24 @@
+package org.phinix.lib.service;
+
+/**
+ * JMX view of the {@link PoolMetrics} of a {@link ConnectionPool}.
+ */
+public interface PoolMetricsMXBean {
+    long getBorrowCount();
+
+    long getBorrowTimeoutCount();
+
+    long getCreatedCount();
+
+    long getDestroyedCount();
+
+    long getEvictedCount();
+
+    long getValidationFailureCount();
+
+    double getAverageWaitMillis();
+
+    double getP99WaitMillis();
+
+    double getMaxWaitMillis();
+}
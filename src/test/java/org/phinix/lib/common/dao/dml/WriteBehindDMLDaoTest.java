@@ -0,0 +1,229 @@
+package org.phinix.lib.common.dao.dml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.phinix.example.model.Driver;
+import org.phinix.lib.common.dao.dml.WriteBehindDMLDao.Operation;
+import org.phinix.lib.common.util.Model;
+import org.phinix.lib.common.util.factories.StatementType;
+import org.phinix.lib.service.ConnectionProvider;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindDMLDaoTest {
+    private static final ConnectionProvider OFFLINE = () -> {
+        throw new SQLException("Database offline");
+    };
+
+    @ParameterizedTest(name = "{0} then {1} -> {2}")
+    @CsvSource({
+            "INSERT,  INSERT, INSERT",
+            "INSERT,  UPDATE, INSERT",
+            "INSERT,  UPSERT, UPSERT",
+            "INSERT,  DELETE,",
+            "UPDATE,  INSERT, UPSERT",
+            "UPDATE,  UPDATE, UPDATE",
+            "UPDATE,  UPSERT, UPSERT",
+            "UPDATE,  DELETE, DELETE",
+            "UPSERT,  INSERT, UPSERT",
+            "UPSERT,  UPDATE, UPSERT",
+            "UPSERT,  UPSERT, UPSERT",
+            "UPSERT,  DELETE, DELETE",
+            "DELETE,  INSERT, REPLACE",
+            "DELETE,  UPDATE, DELETE",
+            "DELETE,  UPSERT, REPLACE",
+            "DELETE,  DELETE, DELETE",
+            "REPLACE, INSERT, REPLACE",
+            "REPLACE, UPDATE, REPLACE",
+            "REPLACE, UPSERT, REPLACE",
+            "REPLACE, DELETE, DELETE"
+    })
+    void coalescesEveryPairOfOperations(Operation existing, Operation operation, Operation expected) {
+        assertEquals(expected, WriteBehindDMLDao.coalesce(existing, operation));
+    }
+
+    @Test
+    void refusesReplaceAsNewOperation() {
+        assertThrows(IllegalArgumentException.class, () -> WriteBehindDMLDao.coalesce(Operation.INSERT, Operation.REPLACE));
+    }
+
+    @Test
+    void insertThenDeleteLeavesNothingQueued() {
+        try (WriteBehindDMLDao dao = newDao(new TestDMLDao(OFFLINE))) {
+            dao.insert(new Driver(1, "Ana", "Ruiz"));
+            dao.update(new Driver(1, "Ana", "Gil"));
+            assertEquals(1, dao.getQueueDepth());
+
+            dao.delete(new Driver(1));
+            assertEquals(0, dao.getQueueDepth());
+            assertEquals(2, dao.getMetrics().getCoalescedCount());
+        }
+    }
+
+    @Test
+    void reportsRowsThatStillFailAfterTheirRetries() {
+        TestDMLDao delegate = new TestDMLDao(OFFLINE);
+        delegate.chunkRows = new int[]{-1};
+        delegate.singleRows = -1;
+        delegate.connected = true;
+        List<FailedWrite> notified = new ArrayList<>();
+        try (WriteBehindDMLDao dao = newDao(delegate)) {
+            dao.setMaxRetries(2);
+            dao.setRetryBackoffMillis(10);
+            dao.setFailureListener(notified::add);
+            dao.insert(new Driver(1, "Ana", "Ruiz"));
+            dao.insert(new Driver(2, "Luis", "Gil"));
+
+            long start = System.nanoTime();
+            dao.flush();
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(2 * (10 + 20)));
+
+            List<FailedWrite> failed = dao.drainFailedWrites();
+            assertEquals(2, failed.size());
+            assertEquals(StatementType.INSERT, failed.get(0).getOperation());
+            assertEquals(1, ((Driver) failed.get(0).getModel()).getNumDriver());
+            assertEquals(3, failed.get(0).getAttempts());
+            assertEquals(failed, notified);
+            assertEquals(List.of(1, 1, 2, 2), delegate.singleInserts);
+            assertEquals(4, dao.getMetrics().getRetriedCount());
+            assertEquals(2, dao.getMetrics().getFailedCount());
+            assertTrue(dao.drainFailedWrites().isEmpty());
+        }
+    }
+
+    @Test
+    void reportsTheRunAtOnceWhenTheDatabaseIsUnreachable() {
+        try (WriteBehindDMLDao dao = newDao(new TestDMLDao(OFFLINE))) {
+            dao.setMaxRetries(2);
+            dao.insert(new Driver(1, "Ana", "Ruiz"));
+            dao.insert(new Driver(2, "Luis", "Gil"));
+            dao.flush();
+
+            List<FailedWrite> failed = dao.drainFailedWrites();
+            assertEquals(2, failed.size());
+            assertEquals(1, failed.get(0).getAttempts());
+            assertEquals(0, dao.getMetrics().getRetriedCount());
+            assertEquals(2, dao.getMetrics().getFailedCount());
+        }
+    }
+
+    @Test
+    void stopsRetryingTheRunOnceTheDatabaseIsLost() {
+        TestDMLDao delegate = new TestDMLDao(OFFLINE) {
+            private int probes;
+
+            @Override
+            boolean canConnect() {
+                return probes++ == 0;
+            }
+        };
+        delegate.chunkRows = new int[]{-1};
+        delegate.singleRows = -1;
+        try (WriteBehindDMLDao dao = newDao(delegate)) {
+            for (int i = 1; i <= 3; i++) {
+                dao.insert(new Driver(i, "Driver", String.valueOf(i)));
+            }
+            dao.flush();
+
+            assertEquals(List.of(1, 1), delegate.singleInserts);
+            List<FailedWrite> failed = dao.drainFailedWrites();
+            assertEquals(3, failed.size());
+            assertEquals(3, failed.get(0).getAttempts());
+            assertEquals(1, failed.get(2).getAttempts());
+        }
+    }
+
+    @Test
+    void retriesOnlyTheRowsOfFailedChunks() {
+        TestDMLDao delegate = new TestDMLDao(OFFLINE);
+        delegate.setBatchSize(2);
+        delegate.chunkRows = new int[]{2, -1};
+        delegate.connected = true;
+        try (WriteBehindDMLDao dao = newDao(delegate)) {
+            for (int i = 1; i <= 4; i++) {
+                dao.insert(new Driver(i, "Driver", String.valueOf(i)));
+            }
+            dao.flush();
+
+            assertEquals(List.of(3, 4), delegate.singleInserts);
+            assertEquals(2, dao.getMetrics().getRetriedCount());
+            assertTrue(dao.drainFailedWrites().isEmpty());
+            assertEquals(0, dao.getMetrics().getFailedCount());
+        }
+    }
+
+    @Test
+    void closeGivesUpOnAFlushThatDoesNotReturn() {
+        CountDownLatch release = new CountDownLatch(1);
+        TestDMLDao delegate = new TestDMLDao(OFFLINE) {
+            @Override
+            public <T extends Model> int[] insertAll(Collection<T> models, int chunkSize) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new int[]{models.size()};
+            }
+        };
+        WriteBehindDMLDao dao = new WriteBehindDMLDao(delegate, 10, 1, 60_000, 0);
+        dao.setCloseTimeoutMillis(100);
+        dao.insert(new Driver(1, "Ana", "Ruiz"));
+
+        long start = System.nanoTime();
+        dao.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        release.countDown();
+    }
+
+    private static WriteBehindDMLDao newDao(AbstractDMLDao delegate) {
+        WriteBehindDMLDao dao = new WriteBehindDMLDao(delegate, 100, 50, 60_000, 0);
+        dao.setRetryBackoffMillis(0);
+        return dao;
+    }
+
+    /**
+     * A DAO whose batches report the configured chunk results and whose single inserts return
+     * {@code singleRows}, recording the drivers inserted one by one. Without configured results, it fails
+     * like the offline provider. {@code connected} overrides the connection probe when set.
+     */
+    private static class TestDMLDao extends AbstractDMLDao {
+        int[] chunkRows;
+        int singleRows = 1;
+        Boolean connected;
+        final List<Integer> singleInserts = new ArrayList<>();
+
+        TestDMLDao(ConnectionProvider provider) {
+            super(provider);
+        }
+
+        @Override
+        public <T extends Model> int[] insertAll(Collection<T> models, int chunkSize) {
+            return chunkRows == null ? super.insertAll(models, chunkSize) : chunkRows;
+        }
+
+        @Override
+        public <T extends Model> int insert(T model) {
+            if (chunkRows == null) {
+                return super.insert(model);
+            }
+            singleInserts.add(((Driver) model).getNumDriver());
+            return singleRows;
+        }
+
+        @Override
+        boolean canConnect() {
+            return connected == null ? super.canConnect() : connected;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.phinix.lib.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @ParameterizedTest(name = "{0} -> bucket {1}, highest {2}")
+    @CsvSource({
+            "0,   0,  0",
+            "31,  31, 31",
+            "32,  32, 32",
+            "63,  63, 63",
+            "64,  64, 65",
+            "65,  64, 65",
+            "66,  65, 67",
+            "126, 95, 127",
+            "127, 95, 127",
+            "128, 96, 131",
+            "131, 96, 131",
+            "132, 97, 135"
+    })
+    void bucketsAreExactBelow64AndLogLinearAbove(long value, int bucket, long highest) {
+        assertEquals(bucket, LatencyHistogram.bucketOf(value));
+        assertEquals(highest, LatencyHistogram.highestValueOf(bucket));
+    }
+
+    @Test
+    void everyValueFallsInABucketWhoseHighestValueIsWithinPrecision() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 16; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket == previous || bucket == previous + 1, "Buckets skip or go back at " + value);
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertTrue(highest >= value && highest - value <= value / 32, "Bucket too wide at " + value);
+            previous = bucket;
+        }
+    }
+
+    @Test
+    void capsHugeValuesAndClampsNegativeOnes() {
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(LatencyHistogram.MAX_VALUE));
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.BUCKETS - 1));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        assertEquals(2, histogram.getCount());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void percentilesOfAUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+        assertWithinPrecision(5_000, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(9_900, histogram.getValueAtPercentile(99));
+        assertWithinPrecision(9_990, histogram.getValueAtPercentile(99.9));
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+        assertEquals(5_000.5, histogram.getMean());
+    }
+
+    @Test
+    void percentilesOfABimodalDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000);
+        }
+        assertWithinPrecision(100, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(100, histogram.getValueAtPercentile(99));
+        assertEquals(1_000_000, histogram.getValueAtPercentile(99.9)); // Capped by the max
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 32,
+                "Expected " + expected + " within 1/32, got " + actual);
+    }
+}